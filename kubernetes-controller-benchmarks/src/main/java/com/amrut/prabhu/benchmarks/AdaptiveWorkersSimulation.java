@@ -0,0 +1,154 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.adaptive.ActiveWorkerLimit;
+import com.amrut.prabhu.adaptive.AdaptiveTuner;
+import com.amrut.prabhu.adaptive.ApiFeedback;
+import com.amrut.prabhu.adaptive.ResyncGovernor;
+import com.amrut.prabhu.config.ControllerProperties.ExecutorType;
+import com.amrut.prabhu.config.WorkerPools;
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.reconciler.MyCrdReconciler;
+import io.kubernetes.client.extended.controller.DefaultController;
+import io.kubernetes.client.extended.controller.reconciler.Reconciler;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.controller.reconciler.Result;
+import io.kubernetes.client.extended.workqueue.DefaultRateLimitingQueue;
+import io.kubernetes.client.extended.workqueue.RateLimitingQueue;
+import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the controller with the {@link AdaptiveTuner} against a {@link FakeApiServer} whose write latency
+ * grows with the writes in flight. Prints the active workers, the write rate and the reconcile rate every
+ * second. Every custom resource is queued again as soon as it is reconciled, so there is always a backlog
+ * pushing the tuner to add workers.
+ * <p>
+ * The server handles 8 concurrent writes without delay for the first {@code PHASE}, then 16. Each phase
+ * starts from the worker count the previous one settled at. Exits with status 1 unless the active worker
+ * count moves by at most 2 over the last {@code SETTLED} of both phases, and the second phase settles
+ * higher than the first.
+ * <pre>
+ * java -cp kubernetes-controller-benchmarks/target/benchmarks.jar com.amrut.prabhu.benchmarks.AdaptiveWorkersSimulation
+ * </pre>
+ */
+public class AdaptiveWorkersSimulation {
+
+    private static final int CUSTOM_RESOURCES = 2_000;
+    private static final int MAX_WORKERS = 48;
+    private static final Duration INTERVAL = Duration.ofMillis(500);
+    private static final Duration TARGET_LATENCY = Duration.ofMillis(50);
+    private static final Duration CONGESTION_STEP = Duration.ofMillis(8);
+    private static final Duration PHASE = Duration.ofSeconds(20);
+    private static final Duration SETTLED = Duration.ofSeconds(6);
+    private static final int[] CAPACITIES = {8, 16};
+
+    public static void main(String[] args) throws Exception {
+        Cache<V1MyCrd> myCrds = Fixtures.myCrdCache(CUSTOM_RESOURCES);
+        try (FakeApiServer server = new FakeApiServer(Duration.ofMillis(1))) {
+            ApiFeedback feedback = new ApiFeedback();
+            ApiClient apiClient = Fixtures.apiClient(server.url(), MAX_WORKERS);
+            apiClient.setHttpClient(apiClient.getHttpClient().newBuilder().addInterceptor(feedback).build());
+
+            ExecutorService queueWaitingWorker = Executors.newSingleThreadExecutor();
+            RateLimitingQueue<Request> workQueue = new DefaultRateLimitingQueue<>(queueWaitingWorker);
+            // Without cached ConfigMaps every reconcile writes: a create answered 409, then a patch.
+            MyCrdReconciler myCrdReconciler = Fixtures.reconciler(myCrds,
+                    Fixtures.configMapPipeline(new Cache<V1ConfigMap>(), Fixtures.configMapWriter(new CoreV1Api(apiClient))),
+                    workQueue);
+            LongAdder reconciles = new LongAdder();
+            Reconciler requeueing = request -> {
+                Result result = myCrdReconciler.reconcile(request);
+                reconciles.increment();
+                workQueue.add(request);
+                return result;
+            };
+            for (String key : myCrds.listKeys()) {
+                String[] namespaceAndName = key.split("/");
+                workQueue.add(new Request(namespaceAndName[0], namespaceAndName[1]));
+            }
+
+            ActiveWorkerLimit workers = new ActiveWorkerLimit(2);
+            ResyncGovernor resync = new ResyncGovernor(Duration.ofMinutes(1), Duration.ofMinutes(10));
+            DefaultController controller = new DefaultController("adaptive-simulation", workers.limit(requeueing), workQueue);
+            controller.setWorkerCount(MAX_WORKERS);
+            controller.setWorkerThreadPool(WorkerPools.newWorkerThreadPool(ExecutorType.PLATFORM, MAX_WORKERS, "adaptive-simulation"));
+
+            boolean ok = true;
+            List<Integer> settled = new ArrayList<>();
+            try (AdaptiveTuner tuner = new AdaptiveTuner(workQueue,
+                    feedback,
+                    workers,
+                    resync,
+                    new AdaptiveTuner.Limits(1,
+                            MAX_WORKERS,
+                            Duration.ofMinutes(1),
+                            Duration.ofHours(1),
+                            TARGET_LATENCY,
+                            0.01),
+                    INTERVAL,
+                    new SimpleMeterRegistry())) {
+                Thread runner = new Thread(controller::run);
+                runner.start();
+                for (int capacity : CAPACITIES) {
+                    server.congestion(capacity, CONGESTION_STEP);
+                    System.out.printf("server handles %d concurrent writes, %d ms more per extra write%n",
+                            capacity, CONGESTION_STEP.toMillis());
+                    IntSummaryStatistics tail = runPhase(server, workers, resync, reconciles);
+                    boolean stable = tail.getMax() - tail.getMin() <= 2;
+                    System.out.printf("last %ds: %d to %d active workers, %s%n",
+                            SETTLED.toSeconds(), tail.getMin(), tail.getMax(), stable ? "stable" : "oscillating");
+                    ok &= stable;
+                    settled.add(tail.getMax());
+                }
+                controller.shutdown();
+                runner.join();
+            }
+            queueWaitingWorker.shutdownNow();
+            ok &= settled.get(1) > settled.get(0);
+            System.exit(ok ? 0 : 1);
+        }
+    }
+
+    // Prints one line per second and returns the active worker counts seen over the last SETTLED.
+    private static IntSummaryStatistics runPhase(FakeApiServer server,
+                                                 ActiveWorkerLimit workers,
+                                                 ResyncGovernor resync,
+                                                 LongAdder reconciles) throws InterruptedException {
+        IntSummaryStatistics tail = new IntSummaryStatistics();
+        long startedAt = System.nanoTime();
+        long lastWrites = server.writeCount();
+        long lastReconciles = reconciles.sum();
+        for (int second = 1; second <= PHASE.toSeconds(); second++) {
+            for (int half = 0; half < 2; half++) {
+                TimeUnit.NANOSECONDS.sleep(startedAt + TimeUnit.MILLISECONDS.toNanos(second * 1000L - 500 + half * 500L)
+                        - System.nanoTime());
+                if (second > PHASE.toSeconds() - SETTLED.toSeconds()) {
+                    tail.accept(workers.limit());
+                }
+            }
+            long writes = server.writeCount();
+            long reconciled = reconciles.sum();
+            System.out.printf("%3ds  %2d active workers  %5d writes/s  %5d reconciles/s  resync every %s%n",
+                    second,
+                    workers.limit(),
+                    writes - lastWrites,
+                    reconciled - lastReconciles,
+                    resync.period());
+            lastWrites = writes;
+            lastReconciles = reconciled;
+        }
+        return tail;
+    }
+}
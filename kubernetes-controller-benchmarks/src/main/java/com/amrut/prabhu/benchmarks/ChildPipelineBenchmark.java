@@ -0,0 +1,116 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.reconciler.ChildPipeline;
+import com.amrut.prabhu.reconciler.ConfigMapChild;
+import com.amrut.prabhu.reconciler.ConfigMapNaming;
+import com.amrut.prabhu.reconciler.DeploymentChild;
+import com.amrut.prabhu.reconciler.DesiredResources;
+import com.amrut.prabhu.reconciler.MyCrdReconciler;
+import com.amrut.prabhu.write.DeploymentWriter;
+import com.amrut.prabhu.write.ServerSideApply;
+import com.amrut.prabhu.write.WriteRateLimiter;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.workqueue.DefaultRateLimitingQueue;
+import io.kubernetes.client.extended.workqueue.RateLimitingQueue;
+import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One reconcile that has to update both children of a custom resource, its ConfigMap and its nginx
+ * Deployment, against a {@link FakeApiServer} with 5 ms latency per call. {@code SEQUENTIAL} reconciles
+ * each child through its own {@link ChildPipeline}, one after the other; {@code PARALLEL} runs one
+ * pipeline with both, so the writes overlap. The score is the latency of the whole reconcile and should
+ * drop from the sum of the two writes to the slower of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChildPipelineBenchmark {
+
+    public enum Writes {
+        SEQUENTIAL,
+        PARALLEL
+    }
+
+    @Param({"SEQUENTIAL", "PARALLEL"})
+    public Writes writes;
+
+    private FakeApiServer server;
+    private V1MyCrd myCrd;
+    private Request request;
+    private List<MyCrdReconciler> reconcilers;
+    private ExecutorService queueWaitingWorker;
+    private long revision;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException, ApiException {
+        server = new FakeApiServer(Duration.ofMillis(5));
+        ApiClient apiClient = Fixtures.apiClient(server.url(), 1);
+        myCrd = Fixtures.myCrd(42);
+        String namespace = myCrd.getMetadata().getNamespace();
+        request = new Request(namespace, myCrd.getMetadata().getName());
+        Cache<V1MyCrd> myCrds = new Cache<>();
+        myCrds.add(myCrd);
+
+        ServerSideApply serverSideApply = new ServerSideApply(apiClient, "my-crd-controller", true,
+                WriteRateLimiter.unlimited(), new SimpleMeterRegistry());
+        // The caches never see the writes, so every reconcile finds both children out of date: the
+        // ConfigMap because the spec changes, the Deployment because its cached replica count is off.
+        Cache<V1ConfigMap> configMaps = new Cache<>();
+        configMaps.add(serverSideApply.configMap(namespace, DesiredResources.createConfigMap(myCrd, ConfigMapNaming.PER_RESOURCE)));
+        Cache<V1Deployment> deployments = new Cache<>();
+        V1Deployment deployment = serverSideApply.deployment(namespace, DesiredResources.createDeployment(myCrd));
+        deployment.getSpec().setReplicas(0);
+        deployments.add(deployment);
+
+        ConfigMapChild configMapChild = new ConfigMapChild(configMaps,
+                Fixtures.configMapWriter(new CoreV1Api(apiClient)),
+                ConfigMapNaming.PER_RESOURCE,
+                null);
+        DeploymentChild deploymentChild = new DeploymentChild(deployments,
+                new DeploymentWriter(new AppsV1Api(apiClient), WriteRateLimiter.unlimited(), null));
+        queueWaitingWorker = Executors.newSingleThreadExecutor();
+        RateLimitingQueue<Request> workQueue = new DefaultRateLimitingQueue<>(queueWaitingWorker);
+        reconcilers = switch (writes) {
+            case SEQUENTIAL -> List.of(Fixtures.reconciler(myCrds, new ChildPipeline(List.of(configMapChild), null), workQueue),
+                    Fixtures.reconciler(myCrds, new ChildPipeline(List.of(deploymentChild), null), workQueue));
+            case PARALLEL -> List.of(Fixtures.reconciler(myCrds,
+                    new ChildPipeline(List.of(configMapChild, deploymentChild), null),
+                    workQueue));
+        };
+    }
+
+    @Benchmark
+    public boolean reconcile() {
+        myCrd.getSpec().setMyOwnProperty("value-" + ++revision);
+        boolean requeue = false;
+        for (MyCrdReconciler reconciler : reconcilers) {
+            requeue |= reconciler.reconcile(request).isRequeue();
+        }
+        return requeue;
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        server.close();
+        queueWaitingWorker.shutdownNow();
+    }
+}
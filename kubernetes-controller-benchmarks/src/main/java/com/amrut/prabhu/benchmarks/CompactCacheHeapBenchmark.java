@@ -0,0 +1,99 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.json.CacheMode;
+import com.amrut.prabhu.json.MyCrdTypeAdapterFactory;
+import com.amrut.prabhu.json.StringInterner;
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdList;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1ListMeta;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills an informer {@link Cache} with 100k custom resources decoded in each {@link CacheMode}, from a
+ * LIST body carrying the metadata a real API server sends. Each iteration prints the heap the filled
+ * cache retains after a full GC, per 100k custom resources; compare {@code FULL} with the compact modes.
+ * The score is the decode time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CompactCacheHeapBenchmark {
+
+    private static final int CUSTOM_RESOURCES = 100_000;
+
+    @Param({"FULL", "COMPACT", "COMPACT_LAZY_SPEC"})
+    public CacheMode cacheMode;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private byte[] body;
+    private Gson gson;
+    private Cache<V1MyCrd> cache;
+    private long baselineHeap;
+
+    @Setup(Level.Trial)
+    public void encode() {
+        JSON json = new JSON();
+        MyCrdTypeAdapterFactory.register(json, new StringInterner(), cacheMode, false);
+        gson = json.getGson();
+
+        List<V1MyCrd> items = new ArrayList<>(CUSTOM_RESOURCES);
+        for (int i = 0; i < CUSTOM_RESOURCES; i++) {
+            items.add(Fixtures.servedMyCrd(i));
+        }
+        body = new JSON().getGson().toJson(new V1MyCrdList()
+                        .apiVersion("com.amrut.prabhu/v1")
+                        .kind("my-crdList")
+                        .metadata(new V1ListMeta().resourceVersion("12345"))
+                        .items(items))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Iteration)
+    public void measureBaseline() {
+        cache = null;
+        baselineHeap = usedHeapAfterGc();
+    }
+
+    @Benchmark
+    public Cache<V1MyCrd> fillCache() throws IOException {
+        Cache<V1MyCrd> filled = new Cache<>();
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8))) {
+            gson.getAdapter(V1MyCrdList.class).read(reader).getItems().forEach(filled::add);
+        }
+        cache = filled;
+        return filled;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printRetainedHeap() {
+        long retained = usedHeapAfterGc() - baselineHeap;
+        System.out.printf("%s: %d MB retained per 100k custom resources (%d bytes each, %d cached)%n",
+                cacheMode,
+                retained * 100_000 / CUSTOM_RESOURCES / (1024 * 1024),
+                retained / CUSTOM_RESOURCES,
+                cache.list().size());
+    }
+
+    private long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,43 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.reconciler.ConfigMapNaming;
+import com.amrut.prabhu.reconciler.DesiredResources;
+import com.amrut.prabhu.reconciler.ReconcileSkipCache;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the desired {@link V1ConfigMap} and its {@code V1OwnerReference}, and hashing it for the
+ * reconcile skip check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DesiredResourcesBenchmark {
+
+    private V1MyCrd myCrd;
+    private List<V1ConfigMap> children;
+
+    @Setup
+    public void setUp() {
+        myCrd = Fixtures.myCrd(42);
+        children = List.of(DesiredResources.createConfigMap(myCrd, ConfigMapNaming.PER_RESOURCE));
+    }
+
+    @Benchmark
+    public V1ConfigMap createConfigMap() {
+        return DesiredResources.createConfigMap(myCrd, ConfigMapNaming.PER_RESOURCE);
+    }
+
+    @Benchmark
+    public String desiredStateHash() {
+        return ReconcileSkipCache.hash(myCrd, children);
+    }
+}
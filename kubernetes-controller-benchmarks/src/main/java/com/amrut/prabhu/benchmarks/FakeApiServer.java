@@ -0,0 +1,633 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for the Kubernetes API server. Namespaced objects of any resource (ConfigMaps,
+ * Leases, ...) are kept in memory and served after a fixed delay for list, get, create, replace, merge
+ * patch, strategic merge patch, server-side apply and delete. Writes can be throttled with 429 responses
+ * or slowed down by {@link #congestion}. Cluster-wide LISTs are paginated with {@code limit}/{@code continue}.
+ * A cluster-wide WATCH streams the ADDED, MODIFIED and DELETED events after its resourceVersion, or ends
+ * with "410 Gone" when that resourceVersion is older than the last {@link #compactHistory()} or than the
+ * retained event history.
+ * <p>
+ * As on a real API server, {@code metadata.generation} is bumped when the spec changes, and a write to the
+ * {@code status} subresource changes only the status. Runs on the JDK's built-in HTTP server, so
+ * benchmarks need no network access.
+ */
+public class FakeApiServer implements AutoCloseable {
+
+    private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+    // Events kept for watches to resume from; older ones are compacted away.
+    private static final int HISTORY_LIMIT = 100_000;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "fake-api-server");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, NavigableMap<String, JsonObject>> resources = new ConcurrentHashMap<>();
+    private final AtomicLong resourceVersion = new AtomicLong();
+    private volatile long compactedResourceVersion;
+    // Guarded by itself, which also serializes every write so events are recorded in resourceVersion order.
+    private final NavigableMap<Long, Change> history = new ConcurrentSkipListMap<>();
+    private final List<Consumer<Change>> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder writes = new LongAdder();
+    private volatile boolean closed;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final long latencyMillis;
+    private volatile double throttledWriteFraction;
+    private volatile long retryAfterSeconds;
+    private final AtomicInteger writesInFlight = new AtomicInteger();
+    private final AtomicInteger peakWritesInFlight = new AtomicInteger();
+    private volatile int congestionCapacity = Integer.MAX_VALUE;
+    private volatile long congestionStepNanos;
+
+    public FakeApiServer(Duration latency) throws IOException {
+        this.latencyMillis = latency.toMillis();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/api/", this::handle);
+        this.server.createContext("/apis/", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long requestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Requests other than GET so far.
+     */
+    public long writeCount() {
+        return writes.sum();
+    }
+
+    public long conflictCount() {
+        return conflicts.sum();
+    }
+
+    /**
+     * Returns the most writes that were handled at once since the last call or {@link #reset()}, and
+     * starts counting again.
+     */
+    public int takePeakWritesInFlight() {
+        return peakWritesInFlight.getAndSet(0);
+    }
+
+    /**
+     * Request body bytes received so far.
+     */
+    public long bytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    /**
+     * Response body bytes sent so far.
+     */
+    public long bytesSent() {
+        return bytesSent.sum();
+    }
+
+    /**
+     * Returns the stored object, or null.
+     */
+    public JsonObject get(String plural, String namespace, String name) {
+        return resources.getOrDefault(plural, Map.of()).get(namespace + "/" + name);
+    }
+
+    /**
+     * Stores an object directly, as if it had been created or replaced, and sends the event to watches.
+     */
+    public void put(String plural, String namespace, JsonObject object) {
+        String key = namespace + "/" + object.getAsJsonObject("metadata").get("name").getAsString();
+        synchronized (history) {
+            JsonObject previous = objects(plural).get(key);
+            generation(previous, object);
+            stamp(object, namespace);
+            objects(plural).put(key, object);
+            record(previous == null ? "ADDED" : "MODIFIED", plural, object);
+        }
+    }
+
+    /**
+     * Deletes an object directly and sends the event to watches. Returns false if there was none.
+     */
+    public boolean delete(String plural, String namespace, String name) {
+        synchronized (history) {
+            return deleted(plural, objects(plural).remove(namespace + "/" + name), namespace) != null;
+        }
+    }
+
+    /**
+     * Calls {@code listener} with every change, in resourceVersion order, on the thread that made it.
+     */
+    public void addListener(Consumer<Change> listener) {
+        listeners.add(listener);
+    }
+
+    public long currentResourceVersion() {
+        return resourceVersion.get();
+    }
+
+    /**
+     * Forgets the history up to now, the way etcd compaction does: watches from an older resourceVersion
+     * end with "410 Gone" and the client has to relist.
+     */
+    public void compactHistory() {
+        synchronized (history) {
+            compactedResourceVersion = resourceVersion.incrementAndGet();
+            history.clear();
+        }
+    }
+
+    /**
+     * Answers the given fraction of writes with 429 Too Many Requests and a Retry-After header, the way
+     * API priority and fairness rejects requests from a client that sends too many.
+     */
+    public void throttleWrites(double fraction, Duration retryAfter) {
+        this.throttledWriteFraction = fraction;
+        this.retryAfterSeconds = retryAfter.toSeconds();
+    }
+
+    /**
+     * Slows writes down as more of them are in flight, the way an overloaded API server does: each write
+     * in flight beyond {@code capacity} adds {@code step} to the latency of a write, and a write beyond
+     * twice the capacity is answered with 429 and {@code Retry-After: 1}.
+     */
+    public void congestion(int capacity, Duration step) {
+        this.congestionCapacity = capacity;
+        this.congestionStepNanos = step.toNanos();
+    }
+
+    public void reset() {
+        synchronized (history) {
+            resources.clear();
+            history.clear();
+        }
+        requests.reset();
+        writes.reset();
+        conflicts.reset();
+        peakWritesInFlight.set(0);
+        bytesReceived.reset();
+        bytesSent.reset();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // /api/v1/namespaces/{namespace}/{plural}[/{name}]
+    // /apis/{group}/{version}/namespaces/{namespace}/{plural}[/{name}]
+    // /api/v1/{plural} and /apis/{group}/{version}/{plural} for cluster-wide list and watch
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        if ("GET".equals(exchange.getRequestMethod())) {
+            sleep();
+            serve(exchange);
+            return;
+        }
+        writes.increment();
+        int inFlight = writesInFlight.incrementAndGet();
+        peakWritesInFlight.accumulateAndGet(inFlight, Math::max);
+        try {
+            if (inFlight > 2L * congestionCapacity) {
+                exchange.getRequestBody().readAllBytes();
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                respond(exchange, 429, status(429, "TooManyRequests"));
+                return;
+            }
+            sleep();
+            if (inFlight > congestionCapacity) {
+                LockSupport.parkNanos((inFlight - congestionCapacity) * congestionStepNanos);
+            }
+            serve(exchange);
+        } finally {
+            writesInFlight.decrementAndGet();
+        }
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        int namespaces = "api".equals(path[1]) ? 3 : 4;
+        if (path.length == namespaces + 1 && "GET".equals(exchange.getRequestMethod())) {
+            Map<String, String> query = query(exchange);
+            if ("true".equals(query.get("watch"))) {
+                watch(exchange, path[namespaces], query);
+            } else {
+                respond(exchange, 200, listAll(objects(path[namespaces]), query));
+            }
+            return;
+        }
+        if (path.length < namespaces + 3 || !"namespaces".equals(path[namespaces])) {
+            respond(exchange, 404, status(404, "NotFound"));
+            return;
+        }
+        String namespace = path[namespaces + 1];
+        String plural = path[namespaces + 2];
+        Map<String, JsonObject> objects = objects(plural);
+        String name = path.length > namespaces + 3 ? path[namespaces + 3] : null;
+        boolean status = path.length > namespaces + 4 && "status".equals(path[namespaces + 4]);
+        String key = namespace + "/" + name;
+        if (!"GET".equals(exchange.getRequestMethod())
+                && ThreadLocalRandom.current().nextDouble() < throttledWriteFraction) {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+            respond(exchange, 429, status(429, "TooManyRequests"));
+            return;
+        }
+        if ("GET".equals(exchange.getRequestMethod())) {
+            if (name == null) {
+                respond(exchange, 200, list(objects, namespace, query(exchange).get("labelSelector")));
+            } else {
+                respondWith(exchange, objects.get(key), 200);
+            }
+            return;
+        }
+        JsonObject body = "DELETE".equals(exchange.getRequestMethod()) ? null : readBody(exchange);
+        synchronized (history) {
+            switch (exchange.getRequestMethod()) {
+                case "POST" -> create(exchange, plural, body, namespace);
+                case "PUT" -> {
+                    JsonObject current = objects.get(key);
+                    if (current == null) {
+                        respond(exchange, 404, status(404, "NotFound"));
+                        return;
+                    }
+                    JsonObject replacement = status ? withStatus(current, body) : body;
+                    generation(current, replacement);
+                    stamp(replacement, namespace);
+                    objects.put(key, replacement);
+                    record("MODIFIED", plural, replacement);
+                    respond(exchange, 200, replacement, query(exchange));
+                }
+                case "PATCH" -> {
+                    String contentType = String.valueOf(exchange.getRequestHeaders().getFirst("Content-Type"));
+                    if (contentType.startsWith("application/apply-patch+yaml")) {
+                        respond(exchange, 200, apply(plural, key, namespace, body), query(exchange));
+                        return;
+                    }
+                    boolean strategic = contentType.startsWith("application/strategic-merge-patch+json");
+                    JsonObject current = objects.get(key);
+                    if (current == null) {
+                        respond(exchange, 404, status(404, "NotFound"));
+                        return;
+                    }
+                    JsonObject merged = current.deepCopy();
+                    merge(merged, status ? statusOnly(body) : body, strategic);
+                    generation(current, merged);
+                    stamp(merged, namespace);
+                    objects.put(key, merged);
+                    record("MODIFIED", plural, merged);
+                    respond(exchange, 200, merged);
+                }
+                case "DELETE" -> respondWith(exchange, deleted(plural, objects.remove(key), namespace), 200);
+                default -> respond(exchange, 405, status(405, "MethodNotAllowed"));
+            }
+        }
+    }
+
+    // Apply creates or merges; field ownership is not tracked, so it never answers 409 Conflict.
+    private JsonObject apply(String plural, String key, String namespace, JsonObject applied) {
+        Map<String, JsonObject> objects = objects(plural);
+        JsonObject current = objects.get(key);
+        JsonObject merged = current == null ? applied : current.deepCopy();
+        if (current != null) {
+            merge(merged, applied, false);
+        }
+        generation(current, merged);
+        stamp(merged, namespace);
+        objects.put(key, merged);
+        record(current == null ? "ADDED" : "MODIFIED", plural, merged);
+        return merged;
+    }
+
+    private void create(HttpExchange exchange, String plural, JsonObject object, String namespace) throws IOException {
+        String key = namespace + "/" + object.getAsJsonObject("metadata").get("name").getAsString();
+        Map<String, JsonObject> objects = objects(plural);
+        if (objects.containsKey(key)) {
+            conflicts.increment();
+            respond(exchange, 409, status(409, "AlreadyExists"));
+            return;
+        }
+        generation(null, object);
+        stamp(object, namespace);
+        objects.put(key, object);
+        record("ADDED", plural, object);
+        respond(exchange, 201, object);
+    }
+
+    // The deleted object with a new resourceVersion, as the DELETED event carries it. Called holding the history lock.
+    private JsonObject deleted(String plural, JsonObject removed, String namespace) {
+        if (removed == null) {
+            return null;
+        }
+        JsonObject deleted = removed.deepCopy();
+        stamp(deleted, namespace);
+        record("DELETED", plural, deleted);
+        return deleted;
+    }
+
+    // Called holding the history lock, after the object is stored.
+    private void record(String type, String plural, JsonObject object) {
+        long version = Long.parseLong(object.getAsJsonObject("metadata").get("resourceVersion").getAsString());
+        Change change = new Change(version, type, plural, object);
+        history.put(version, change);
+        while (history.size() > HISTORY_LIMIT) {
+            compactedResourceVersion = history.pollFirstEntry().getKey();
+        }
+        listeners.forEach(listener -> listener.accept(change));
+        history.notifyAll();
+    }
+
+    // Spec changes bump the generation; objects without a spec have none.
+    private static void generation(JsonObject current, JsonObject next) {
+        if (!next.has("spec")) {
+            return;
+        }
+        long generation = current == null || !current.getAsJsonObject("metadata").has("generation")
+                ? 0
+                : current.getAsJsonObject("metadata").get("generation").getAsLong();
+        boolean changed = current == null || !next.get("spec").equals(current.get("spec"));
+        next.getAsJsonObject("metadata").addProperty("generation", changed ? generation + 1 : Math.max(generation, 1));
+    }
+
+    // A write to the status subresource keeps everything but the status.
+    private static JsonObject withStatus(JsonObject current, JsonObject written) {
+        JsonObject replacement = current.deepCopy();
+        if (written.has("status")) {
+            replacement.add("status", written.get("status"));
+        } else {
+            replacement.remove("status");
+        }
+        return replacement;
+    }
+
+    private static JsonObject statusOnly(JsonObject patch) {
+        JsonObject statusPatch = new JsonObject();
+        if (patch.has("status")) {
+            statusPatch.add("status", patch.get("status"));
+        }
+        return statusPatch;
+    }
+
+    private NavigableMap<String, JsonObject> objects(String plural) {
+        return resources.computeIfAbsent(plural, p -> new ConcurrentSkipListMap<>());
+    }
+
+    // Pages are cut in key order; the continue token is the last key of the previous page.
+    private JsonObject listAll(NavigableMap<String, JsonObject> objects, Map<String, String> query) {
+        String continueToken = query.get("continue");
+        int limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : Integer.MAX_VALUE;
+        JsonArray items = new JsonArray();
+        String lastKey = null;
+        for (Map.Entry<String, JsonObject> entry : (continueToken == null || continueToken.isEmpty()
+                ? objects : objects.tailMap(continueToken, false)).entrySet()) {
+            if (items.size() == limit) {
+                break;
+            }
+            if (matches(entry.getValue(), query.get("labelSelector"))) {
+                items.add(entry.getValue());
+                lastKey = entry.getKey();
+            }
+        }
+        JsonObject listMeta = new JsonObject();
+        listMeta.addProperty("resourceVersion", String.valueOf(resourceVersion.get()));
+        if (items.size() == limit && lastKey != null && objects.higherKey(lastKey) != null) {
+            listMeta.addProperty("continue", lastKey);
+        }
+        JsonObject list = new JsonObject();
+        list.add("metadata", listMeta);
+        list.add("items", items);
+        return list;
+    }
+
+    // Streams the events after the requested resourceVersion; without one, only events from now on.
+    private void watch(HttpExchange exchange, String plural, Map<String, String> query) throws IOException {
+        String from = query.get("resourceVersion");
+        String labelSelector = query.get("labelSelector");
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            long cursor = from == null || from.isEmpty() || "0".equals(from) ? resourceVersion.get() : Long.parseLong(from);
+            if (cursor < compactedResourceVersion) {
+                JsonObject event = new JsonObject();
+                event.addProperty("type", "ERROR");
+                event.add("object", status(410, "Expired"));
+                out.write((event + "\n").getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            out.flush();
+            long timeoutSeconds = query.containsKey("timeoutSeconds") ? Long.parseLong(query.get("timeoutSeconds")) : 300;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            while (!closed && System.nanoTime() < deadline) {
+                boolean sent = false;
+                for (Change change : history.tailMap(cursor, false).values()) {
+                    cursor = change.resourceVersion();
+                    if (change.plural().equals(plural) && matches(change.object(), labelSelector)) {
+                        JsonObject event = new JsonObject();
+                        event.addProperty("type", change.type());
+                        event.add("object", change.object());
+                        byte[] bytes = (event + "\n").getBytes(StandardCharsets.UTF_8);
+                        bytesSent.add(bytes.length);
+                        out.write(bytes);
+                        sent = true;
+                    }
+                }
+                if (sent) {
+                    out.flush();
+                }
+                synchronized (history) {
+                    if (history.isEmpty() || history.lastKey() <= cursor) {
+                        try {
+                            history.wait(100);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private JsonObject list(Map<String, JsonObject> objects, String namespace, String labelSelector) {
+        JsonArray items = new JsonArray();
+        objects.forEach((key, object) -> {
+            if (key.startsWith(namespace + "/") && matches(object, labelSelector)) {
+                items.add(object);
+            }
+        });
+        JsonObject listMeta = new JsonObject();
+        listMeta.addProperty("resourceVersion", String.valueOf(resourceVersion.get()));
+        JsonObject list = new JsonObject();
+        list.add("metadata", listMeta);
+        list.add("items", items);
+        return list;
+    }
+
+    // Equality-based selectors only: "a=b,c=d"
+    private static boolean matches(JsonObject object, String labelSelector) {
+        if (labelSelector == null || labelSelector.isEmpty()) {
+            return true;
+        }
+        JsonObject labels = object.getAsJsonObject("metadata").getAsJsonObject("labels");
+        for (String requirement : labelSelector.split(",")) {
+            String[] keyAndValue = requirement.split("=", 2);
+            if (labels == null || !labels.has(keyAndValue[0])
+                    || !labels.get(keyAndValue[0]).getAsString().equals(keyAndValue[1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void stamp(JsonObject object, String namespace) {
+        JsonObject metadata = object.getAsJsonObject("metadata");
+        metadata.addProperty("namespace", namespace);
+        metadata.addProperty("resourceVersion", String.valueOf(resourceVersion.incrementAndGet()));
+    }
+
+    // RFC 7386 JSON merge patch. A strategic merge patch additionally merges lists of objects by their
+    // "uid", which is the merge key of ownerReferences, the only such list the controller writes.
+    private static void merge(JsonObject target, JsonObject patch, boolean strategic) {
+        for (Map.Entry<String, JsonElement> entry : patch.entrySet()) {
+            JsonElement value = entry.getValue();
+            if (value.isJsonNull()) {
+                target.remove(entry.getKey());
+            } else if (value.isJsonObject() && target.get(entry.getKey()) instanceof JsonObject existing) {
+                merge(existing, value.getAsJsonObject(), strategic);
+            } else if (strategic && value.isJsonArray() && target.get(entry.getKey()) instanceof JsonArray existing) {
+                mergeByUid(existing, value.getAsJsonArray());
+            } else {
+                target.add(entry.getKey(), value);
+            }
+        }
+    }
+
+    private static void mergeByUid(JsonArray target, JsonArray patch) {
+        for (JsonElement element : patch) {
+            JsonElement uid = element.getAsJsonObject().get("uid");
+            boolean replaced = false;
+            for (int i = 0; i < target.size() && !replaced; i++) {
+                if (target.get(i).getAsJsonObject().get("uid").equals(uid)) {
+                    target.set(i, element);
+                    replaced = true;
+                }
+            }
+            if (!replaced) {
+                target.add(element);
+            }
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                String[] nameAndValue = parameter.split("=", 2);
+                query.put(nameAndValue[0],
+                        nameAndValue.length > 1 ? URLDecoder.decode(nameAndValue[1], StandardCharsets.UTF_8) : "");
+            }
+        }
+        return query;
+    }
+
+    private JsonObject readBody(HttpExchange exchange) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        bytesReceived.add(body.length);
+        return JsonParser.parseString(new String(body, StandardCharsets.UTF_8)).getAsJsonObject();
+    }
+
+    private static JsonObject status(int code, String reason) {
+        JsonObject status = new JsonObject();
+        status.addProperty("kind", "Status");
+        status.addProperty("apiVersion", "v1");
+        status.addProperty("status", "Failure");
+        status.addProperty("reason", reason);
+        status.addProperty("code", code);
+        return status;
+    }
+
+    private void respondWith(HttpExchange exchange, JsonObject object, int code) throws IOException {
+        respond(exchange, object == null ? 404 : code, object == null ? status(404, "NotFound") : object);
+    }
+
+    // Honours ?pretty=true the way the API server does, by indenting the response.
+    private void respond(HttpExchange exchange, int code, JsonObject body, Map<String, String> query) throws IOException {
+        respond(exchange, code, "true".equals(query.get("pretty")) ? PRETTY_GSON.toJson(body) : body.toString());
+    }
+
+    private void respond(HttpExchange exchange, int code, JsonObject body) throws IOException {
+        respond(exchange, code, body.toString());
+    }
+
+    private void respond(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        bytesSent.add(bytes.length);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void sleep() {
+        if (latencyMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One stored change, as a watch event carries it.
+     */
+    public record Change(long resourceVersion, String type, String plural, JsonObject object) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.reconciler.DesiredResources;
+import com.amrut.prabhu.reconciler.NamespaceFanOut;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fans one custom resource out to 1000 namespaces through {@link NamespaceFanOut} against a
+ * {@link FakeApiServer} with 5 ms of latency, once per limit on the writes in flight. Each run creates the
+ * copies, then changes {@code my-own-property} and times the fan-out of that one change: the wall time, the
+ * writes sent, the most writes the server handled at once and the progress reports. The ConfigMap cache
+ * is kept up to date from the server's events, as an informer would. A last pass with nothing changed must
+ * send no write.
+ * <p>
+ * Exits with status 1 when a run leaves a namespace with an old copy, writes for an unchanged spec, or has
+ * more writes in flight than its limit.
+ * <pre>
+ * java -cp kubernetes-controller-benchmarks/target/benchmarks.jar com.amrut.prabhu.benchmarks.FanOutSimulation
+ * </pre>
+ */
+public class FanOutSimulation {
+
+    private static final int NAMESPACES = 1_000;
+    private static final Duration LATENCY = Duration.ofMillis(5);
+    private static final int[] MAX_IN_FLIGHT = {8, 32, 128, NAMESPACES};
+
+    public static void main(String[] args) throws Exception {
+        boolean ok = true;
+        try (FakeApiServer server = new FakeApiServer(LATENCY)) {
+            // Lets OkHttp send as many calls at once as the largest limit.
+            ApiClient apiClient = Fixtures.apiClient(server.url(), NAMESPACES / 4);
+            Gson gson = apiClient.getJSON().getGson();
+            AtomicReference<Cache<V1ConfigMap>> configMaps = new AtomicReference<>(new Cache<>());
+            server.addListener(change -> {
+                if ("configmaps".equals(change.plural())) {
+                    V1ConfigMap configMap = gson.fromJson(change.object(), V1ConfigMap.class);
+                    switch (change.type()) {
+                        case "ADDED" -> configMaps.get().add(configMap);
+                        case "MODIFIED" -> configMaps.get().update(configMap);
+                        default -> configMaps.get().delete(configMap);
+                    }
+                }
+            });
+            System.out.printf("one custom resource fanned out to %d namespaces, %d ms per API call%n",
+                    NAMESPACES, LATENCY.toMillis());
+            for (int maxInFlight : MAX_IN_FLIGHT) {
+                ok &= run(server, apiClient, configMaps, maxInFlight);
+            }
+        }
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean run(FakeApiServer server,
+                               ApiClient apiClient,
+                               AtomicReference<Cache<V1ConfigMap>> configMaps,
+                               int maxInFlight) throws Exception {
+        server.reset();
+        Cache<V1ConfigMap> cache = new Cache<>();
+        cache.addIndexers(NamespaceFanOut.indexers());
+        configMaps.set(cache);
+        AtomicInteger progressReports = new AtomicInteger();
+        try (NamespaceFanOut fanOut = new NamespaceFanOut(cache,
+                Fixtures.configMapWriter(new CoreV1Api(apiClient)),
+                maxInFlight,
+                (owner, applied, total) -> progressReports.incrementAndGet(),
+                new SimpleMeterRegistry())) {
+            fanOut.plan(fannedOut("value-1")).write().get(2, TimeUnit.MINUTES);
+
+            V1MyCrd changed = fannedOut("value-2");
+            long writesBefore = server.writeCount();
+            server.takePeakWritesInFlight();
+            progressReports.set(0);
+            long startedAt = System.nanoTime();
+            fanOut.plan(changed).write().get(2, TimeUnit.MINUTES);
+            long elapsedNanos = System.nanoTime() - startedAt;
+            long writes = server.writeCount() - writesBefore;
+            int peak = server.takePeakWritesInFlight();
+
+            long writesBeforeUnchanged = server.writeCount();
+            NamespaceFanOut.Plan unchanged = fanOut.plan(changed);
+            unchanged.write().get(2, TimeUnit.MINUTES);
+            boolean quiet = !unchanged.stale() && server.writeCount() == writesBeforeUnchanged;
+            int outdated = outdated(server, changed);
+
+            System.out.printf("max %4d in flight: %6.0f ms  %4d writes  peak %4d in flight  %2d progress reports  %s%n",
+                    maxInFlight,
+                    elapsedNanos / 1e6,
+                    writes,
+                    peak,
+                    progressReports.get(),
+                    outdated > 0 ? outdated + " namespaces out of date"
+                            : quiet ? "unchanged spec sent nothing" : "unchanged spec was written again");
+            return outdated == 0 && quiet && peak <= maxInFlight;
+        }
+    }
+
+    private static V1MyCrd fannedOut(String value) {
+        V1MyCrd myCrd = Fixtures.myCrd(0);
+        List<String> namespaces = new ArrayList<>(NAMESPACES);
+        for (int i = 0; i < NAMESPACES; i++) {
+            namespaces.add("tenant-" + i);
+        }
+        myCrd.getSpec().myOwnProperty(value).targetNamespaces(namespaces);
+        return myCrd;
+    }
+
+    private static int outdated(FakeApiServer server, V1MyCrd myCrd) {
+        String name = DesiredResources.fanOutConfigMapName(myCrd.getMetadata().getNamespace(), myCrd.getMetadata().getName());
+        int outdated = 0;
+        for (String namespace : myCrd.getSpec().getTargetNamespaces()) {
+            JsonObject configMap = server.get("configmaps", namespace, name);
+            if (configMap == null || !myCrd.getSpec().getMyOwnProperty().equals(
+                    configMap.getAsJsonObject("data").get(DesiredResources.MY_OWN_PROPERTY).getAsString())) {
+                outdated++;
+            }
+        }
+        return outdated;
+    }
+}
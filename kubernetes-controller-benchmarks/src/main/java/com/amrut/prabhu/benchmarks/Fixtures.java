@@ -0,0 +1,136 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.config.WorkerPools;
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdSpec;
+import com.amrut.prabhu.reconciler.ChildPipeline;
+import com.amrut.prabhu.reconciler.ConfigMapChild;
+import com.amrut.prabhu.reconciler.ConfigMapNaming;
+import com.amrut.prabhu.reconciler.MyCrdReconciler;
+import com.amrut.prabhu.reconciler.ReconcileSkipCache;
+import com.amrut.prabhu.reconciler.RetryPolicy;
+import com.amrut.prabhu.tracing.ReconcileTracer;
+import com.amrut.prabhu.write.ConfigMapWriter;
+import com.amrut.prabhu.write.WriteRateLimiter;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.workqueue.DelayingQueue;
+import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.informer.cache.Indexer;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1ManagedFieldsEntry;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom resources shaped like the ones the controller sees from the API server.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static V1MyCrd myCrd(int i) {
+        return new V1MyCrd()
+                .apiVersion("com.amrut.prabhu/v1")
+                .kind("my-crd")
+                .metadata(new V1ObjectMeta()
+                        .namespace("namespace-" + (i % 100))
+                        .name("my-crd-" + i)
+                        .uid("6f1d2c1e-0000-4000-8000-" + String.format("%012d", i))
+                        .resourceVersion(String.valueOf(1000 + i))
+                        .generation(1L))
+                .spec(new V1MyCrdSpec().myOwnProperty("value-" + i));
+    }
+
+    /**
+     * {@link #myCrd(int)} with the metadata a real API server adds: managedFields, the last-applied
+     * annotation, a creation timestamp and a few labels.
+     */
+    static V1MyCrd servedMyCrd(int i) {
+        V1MyCrd myCrd = myCrd(i);
+        myCrd.getMetadata()
+                .creationTimestamp(OffsetDateTime.parse("2024-05-01T10:15:30Z").plusSeconds(i))
+                .putLabelsItem("app.kubernetes.io/name", "my-app")
+                .putLabelsItem("app.kubernetes.io/part-of", "demo")
+                .putLabelsItem("team", "team-" + (i % 10))
+                .putAnnotationsItem("kubectl.kubernetes.io/last-applied-configuration",
+                        "{\"apiVersion\":\"com.amrut.prabhu/v1\",\"kind\":\"my-crd\",\"metadata\":{\"name\":\""
+                                + myCrd.getMetadata().getName() + "\",\"namespace\":\"" + myCrd.getMetadata().getNamespace()
+                                + "\"},\"spec\":{\"my-own-property\":\"value-" + i + "\"}}\n")
+                .addManagedFieldsItem(new V1ManagedFieldsEntry()
+                        .manager("kubectl-client-side-apply")
+                        .operation("Update")
+                        .apiVersion("com.amrut.prabhu/v1")
+                        .time(OffsetDateTime.parse("2024-05-01T10:15:30Z").plusSeconds(i))
+                        .fieldsType("FieldsV1")
+                        .fieldsV1(Map.of(
+                                "f:metadata", Map.of(
+                                        "f:annotations", Map.of(".", Map.of(),
+                                                "f:kubectl.kubernetes.io/last-applied-configuration", Map.of()),
+                                        "f:labels", Map.of(".", Map.of(), "f:team", Map.of())),
+                                "f:spec", Map.of(".", Map.of(), "f:my-own-property", Map.of()))));
+        return myCrd;
+    }
+
+    /**
+     * An {@link ApiClient} for {@code url} with the dispatcher limits the application uses, so async
+     * writes from {@code workers} reconcile workers are not capped at OkHttp's 5 calls per host.
+     */
+    static ApiClient apiClient(String url, int workers) {
+        ApiClient apiClient = new ApiClient().setBasePath(url);
+        apiClient.setHttpClient(apiClient.getHttpClient()
+                .newBuilder()
+                .dispatcher(WorkerPools.newHttpDispatcher(workers))
+                .build());
+        return apiClient;
+    }
+
+    static Cache<V1MyCrd> myCrdCache(int size) {
+        Cache<V1MyCrd> cache = new Cache<>();
+        for (int i = 0; i < size; i++) {
+            cache.add(myCrd(i));
+        }
+        return cache;
+    }
+
+    static RetryPolicy retryPolicy() {
+        return new RetryPolicy(Duration.ofMillis(200), Duration.ofSeconds(60), 0.2, new SimpleMeterRegistry());
+    }
+
+    static ConfigMapWriter configMapWriter(CoreV1Api coreV1Api) {
+        return new ConfigMapWriter(coreV1Api, WriteRateLimiter.unlimited(), null);
+    }
+
+    /**
+     * A pipeline with one ConfigMap per custom resource as its only child.
+     */
+    static ChildPipeline configMapPipeline(Indexer<V1ConfigMap> configMaps, ConfigMapWriter configMapWriter) {
+        return new ChildPipeline(List.of(new ConfigMapChild(configMaps, configMapWriter, ConfigMapNaming.PER_RESOURCE, null)), null);
+    }
+
+    /**
+     * A reconciler without status reports, tracing or sharding; failed deferred writes go back on
+     * {@code workQueue}.
+     */
+    static MyCrdReconciler reconciler(Indexer<V1MyCrd> myCrds, ChildPipeline pipeline, DelayingQueue<Request> workQueue) {
+        return new MyCrdReconciler(myCrds,
+                pipeline,
+                new ReconcileSkipCache(new SimpleMeterRegistry()),
+                retryPolicy(),
+                workQueue,
+                null,
+                ReconcileTracer.disabled(),
+                null);
+    }
+
+    static String key(V1MyCrd myCrd) {
+        return myCrd.getMetadata().getNamespace() + "/" + myCrd.getMetadata().getName();
+    }
+}
@@ -0,0 +1,70 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdList;
+import com.google.gson.Gson;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1ListMeta;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding the CRD models with the Gson instance the {@code ApiClient} uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GsonRoundTripBenchmark {
+
+    @Param({"100"})
+    public int listSize;
+
+    private Gson gson;
+    private V1MyCrd myCrd;
+    private String myCrdJson;
+    private V1MyCrdList myCrdList;
+    private String myCrdListJson;
+
+    @Setup
+    public void setUp() {
+        gson = new JSON().getGson();
+        myCrd = Fixtures.myCrd(42);
+        myCrdJson = gson.toJson(myCrd);
+        List<V1MyCrd> items = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            items.add(Fixtures.myCrd(i));
+        }
+        myCrdList = new V1MyCrdList()
+                .apiVersion("com.amrut.prabhu/v1")
+                .kind("my-crdList")
+                .metadata(new V1ListMeta().resourceVersion("12345"))
+                .items(items);
+        myCrdListJson = gson.toJson(myCrdList);
+    }
+
+    @Benchmark
+    public String encodeMyCrd() {
+        return gson.toJson(myCrd);
+    }
+
+    @Benchmark
+    public V1MyCrd decodeMyCrd() {
+        return gson.fromJson(myCrdJson, V1MyCrd.class);
+    }
+
+    @Benchmark
+    public String encodeMyCrdList() {
+        return gson.toJson(myCrdList);
+    }
+
+    @Benchmark
+    public V1MyCrdList decodeMyCrdList() {
+        return gson.fromJson(myCrdListJson, V1MyCrdList.class);
+    }
+}
@@ -0,0 +1,37 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import io.kubernetes.client.informer.cache.Cache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code getByKey} on the same {@link Cache} a {@code SharedIndexInformer<V1MyCrd>} keeps its objects in.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexerLookupBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private Cache<V1MyCrd> indexer;
+    private String[] keys;
+
+    @Setup
+    public void fill() {
+        indexer = Fixtures.myCrdCache(size);
+        keys = indexer.listKeys().toArray(new String[0]);
+    }
+
+    @Benchmark
+    public V1MyCrd getByKey() {
+        return indexer.getByKey(keys[ThreadLocalRandom.current().nextInt(keys.length)]);
+    }
+}
@@ -0,0 +1,100 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.json.MyCrdTypeAdapterFactory;
+import com.amrut.prabhu.json.StringInterner;
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdList;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1ListMeta;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding the initial LIST of {@code my-crds}. {@code REFLECTIVE} is the old path: the body is read into
+ * one String and handed to the client's reflective Gson. {@code STREAMING} reads the same bytes through
+ * {@link MyCrdTypeAdapterFactory} the way {@code MyCrdListerWatcher} does. Each iteration prints the peak
+ * heap used while decoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class InitialSyncDecodeBenchmark {
+
+    public enum Decoder {
+        REFLECTIVE,
+        STREAMING
+    }
+
+    @Param({"10000", "50000"})
+    public int size;
+
+    @Param({"REFLECTIVE", "STREAMING"})
+    public Decoder decoder;
+
+    private byte[] body;
+    private Gson reflectiveGson;
+    private Gson streamingGson;
+
+    @Setup(Level.Trial)
+    public void encode() {
+        reflectiveGson = new JSON().getGson();
+        JSON streamingJson = new JSON();
+        MyCrdTypeAdapterFactory.register(streamingJson, new StringInterner());
+        streamingGson = streamingJson.getGson();
+
+        List<V1MyCrd> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(Fixtures.myCrd(i));
+        }
+        body = reflectiveGson.toJson(new V1MyCrdList()
+                        .apiVersion("com.amrut.prabhu/v1")
+                        .kind("my-crdList")
+                        .metadata(new V1ListMeta().resourceVersion("12345"))
+                        .items(items))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeakHeap() {
+        System.gc();
+        heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @Benchmark
+    public V1MyCrdList decode() throws IOException {
+        if (decoder == Decoder.REFLECTIVE) {
+            return reflectiveGson.fromJson(new String(body, StandardCharsets.UTF_8), V1MyCrdList.class);
+        }
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8))) {
+            return streamingGson.getAdapter(V1MyCrdList.class).read(reader);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void printPeakHeap() {
+        long peak = heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        System.out.printf("peak heap during decode: %d MB%n", peak / (1024 * 1024));
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans()
+                .stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+    }
+}
@@ -0,0 +1,181 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.config.ControllerProperties.ExecutorType;
+import com.amrut.prabhu.config.ControllerProperties.QueueType;
+import com.amrut.prabhu.config.WorkerPools;
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.reconciler.ConfigMapNaming;
+import com.amrut.prabhu.reconciler.DesiredResources;
+import com.amrut.prabhu.reconciler.MyCrdReconciler;
+import com.amrut.prabhu.workqueue.PriorityWorkQueue;
+import com.amrut.prabhu.workqueue.WorkPriority;
+import io.kubernetes.client.extended.controller.DefaultController;
+import io.kubernetes.client.extended.controller.reconciler.Reconciler;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.controller.reconciler.Result;
+import io.kubernetes.client.extended.workqueue.DefaultRateLimitingQueue;
+import io.kubernetes.client.extended.workqueue.RateLimitingQueue;
+import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Creates custom resources at a steady rate while the work queue holds a backlog of resyncs, and measures
+ * the time from each create to its ConfigMap being written to {@link FakeApiServer}. The backlog resources
+ * are up to date, but every reconcile costs about a millisecond, and each resync re-queues itself so the
+ * backlog stays the same size for the whole run, as it would during a resync of a large cluster. Runs
+ * every backlog size with the client's FIFO queue and with the {@link PriorityWorkQueue}, and prints p50
+ * and p99 of the create latency.
+ * <p>
+ * With FIFO the latency grows with the backlog, since a create waits behind all of it. Exits with status 1
+ * unless the priority queue's p99 at the largest backlog stays within 4x of its p99 without a backlog
+ * (or under 50 ms).
+ * <pre>
+ * java -cp kubernetes-controller-benchmarks/target/benchmarks.jar com.amrut.prabhu.benchmarks.PriorityQueueSimulation
+ * </pre>
+ */
+public class PriorityQueueSimulation {
+
+    private static final int[] BACKLOGS = {0, 2_000, 10_000, 50_000};
+    private static final int CREATES = 300;
+    private static final int CREATES_PER_SECOND = 100;
+    private static final int WORKERS = 4;
+    private static final Duration RECONCILE_COST = Duration.ofMillis(1);
+    private static final int FIRST_CREATE = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        Map<QueueType, List<Long>> p99s = new EnumMap<>(QueueType.class);
+        try (FakeApiServer server = new FakeApiServer(Duration.ofMillis(1))) {
+            for (QueueType queueType : QueueType.values()) {
+                for (int backlog : BACKLOGS) {
+                    server.reset();
+                    Run run = run(server, queueType, backlog);
+                    run.print(queueType, backlog);
+                    p99s.computeIfAbsent(queueType, type -> new ArrayList<>()).add(run.percentile(0.99));
+                }
+            }
+        }
+        List<Long> priority = p99s.get(QueueType.PRIORITY);
+        long withoutBacklog = priority.get(0);
+        long largestBacklog = priority.get(priority.size() - 1);
+        long limit = Math.max(4 * withoutBacklog, TimeUnit.MILLISECONDS.toNanos(50));
+        boolean ok = largestBacklog <= limit;
+        System.out.printf("priority p99 at %d resyncs: %.1f ms, limit %.1f ms%n",
+                BACKLOGS[BACKLOGS.length - 1], largestBacklog / 1e6, limit / 1e6);
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static Run run(FakeApiServer server, QueueType queueType, int backlog) throws InterruptedException {
+        Cache<V1MyCrd> myCrds = new Cache<>();
+        Cache<V1ConfigMap> configMaps = new Cache<>();
+        for (int i = 0; i < backlog; i++) {
+            V1MyCrd myCrd = Fixtures.myCrd(i);
+            myCrds.add(myCrd);
+            V1ConfigMap configMap = DesiredResources.createConfigMap(myCrd, ConfigMapNaming.PER_RESOURCE);
+            configMap.getMetadata().namespace(myCrd.getMetadata().getNamespace());
+            configMaps.add(configMap);
+        }
+
+        ExecutorService queueWaitingWorker = Executors.newSingleThreadExecutor();
+        RateLimitingQueue<Request> workQueue = switch (queueType) {
+            case FIFO -> new DefaultRateLimitingQueue<>(queueWaitingWorker);
+            case PRIORITY -> new PriorityWorkQueue<>("simulation", 10, new SimpleMeterRegistry());
+        };
+        MyCrdReconciler myCrdReconciler = Fixtures.reconciler(myCrds,
+                Fixtures.configMapPipeline(configMaps,
+                        Fixtures.configMapWriter(new CoreV1Api(Fixtures.apiClient(server.url(), WORKERS)))),
+                workQueue);
+
+        Map<String, Long> createdAt = new ConcurrentHashMap<>();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch written = new CountDownLatch(CREATES);
+        Reconciler reconciler = request -> {
+            LockSupport.parkNanos(RECONCILE_COST.toNanos());
+            Result result = myCrdReconciler.reconcile(request);
+            Long created = createdAt.get(request.getName());
+            if (created == null) {
+                PriorityWorkQueue.add(workQueue, request, WorkPriority.RESYNC);
+            } else if (!result.isRequeue() && createdAt.remove(request.getName(), created)) {
+                latencies.add(System.nanoTime() - created);
+                written.countDown();
+            }
+            return result;
+        };
+        for (int i = 0; i < backlog; i++) {
+            V1MyCrd myCrd = Fixtures.myCrd(i);
+            PriorityWorkQueue.add(workQueue,
+                    new Request(myCrd.getMetadata().getNamespace(), myCrd.getMetadata().getName()),
+                    WorkPriority.RESYNC);
+        }
+
+        DefaultController controller = new DefaultController("priority-simulation", reconciler, workQueue);
+        controller.setWorkerCount(WORKERS);
+        controller.setWorkerThreadPool(WorkerPools.newWorkerThreadPool(ExecutorType.PLATFORM, WORKERS, "priority-simulation"));
+        Thread runner = new Thread(controller::run);
+        runner.start();
+
+        long interval = TimeUnit.SECONDS.toNanos(1) / CREATES_PER_SECOND;
+        long next = System.nanoTime();
+        for (int i = FIRST_CREATE; i < FIRST_CREATE + CREATES; i++) {
+            LockSupport.parkNanos(next - System.nanoTime());
+            next += interval;
+            V1MyCrd myCrd = Fixtures.myCrd(i);
+            createdAt.put(myCrd.getMetadata().getName(), System.nanoTime());
+            myCrds.add(myCrd);
+            PriorityWorkQueue.add(workQueue,
+                    new Request(myCrd.getMetadata().getNamespace(), myCrd.getMetadata().getName()),
+                    WorkPriority.CHANGE);
+        }
+        boolean converged = written.await(5, TimeUnit.MINUTES);
+        controller.shutdown();
+        runner.join();
+        queueWaitingWorker.shutdownNow();
+        long configMapsWritten = latencies.size();
+        for (int i = FIRST_CREATE; i < FIRST_CREATE + CREATES; i++) {
+            V1MyCrd myCrd = Fixtures.myCrd(i);
+            if (server.get("configmaps", myCrd.getMetadata().getNamespace(),
+                    DesiredResources.configMapName(myCrd.getMetadata().getName(), ConfigMapNaming.PER_RESOURCE)) == null) {
+                configMapsWritten--;
+            }
+        }
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new Run(converged && configMapsWritten == CREATES, sorted);
+    }
+
+    private record Run(boolean converged, List<Long> latencies) {
+
+        long percentile(double percentile) {
+            if (!converged || latencies.isEmpty()) {
+                return Long.MAX_VALUE;
+            }
+            return latencies.get((int) Math.ceil(percentile * latencies.size()) - 1);
+        }
+
+        void print(QueueType queueType, int backlog) {
+            if (!converged) {
+                System.out.printf("%-8s %6d resyncs: did not converge%n", queueType, backlog);
+                return;
+            }
+            System.out.printf("%-8s %6d resyncs: create to ConfigMap p50 %.1f ms, p99 %.1f ms%n",
+                    queueType,
+                    backlog,
+                    percentile(0.5) / 1e6,
+                    percentile(0.99) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.reconciler.ConfigMapNaming;
+import com.amrut.prabhu.reconciler.DesiredResources;
+import com.amrut.prabhu.reconciler.MyCrdReconciler;
+import com.amrut.prabhu.write.ConfigMapWriter;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.controller.reconciler.Result;
+import io.kubernetes.client.extended.workqueue.DefaultRateLimitingQueue;
+import io.kubernetes.client.extended.workqueue.RateLimitingQueue;
+import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full {@link MyCrdReconciler#reconcile} call with the API served by {@link StubApiClient}.
+ * {@code write} starts from an empty ConfigMap cache, so every reconcile creates its ConfigMap;
+ * {@code steadyState} reconciles a key whose ConfigMap is already up to date.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReconcileBenchmark {
+
+    private MyCrdReconciler writingReconciler;
+    private MyCrdReconciler steadyStateReconciler;
+    private Request request;
+    private ExecutorService queueWaitingWorker;
+
+    @Setup
+    public void setUp() {
+        V1MyCrd myCrd = Fixtures.myCrd(42);
+        Cache<V1MyCrd> myCrds = new Cache<>();
+        myCrds.add(myCrd);
+        request = new Request(myCrd.getMetadata().getNamespace(), myCrd.getMetadata().getName());
+        ConfigMapWriter configMapWriter = Fixtures.configMapWriter(new CoreV1Api(StubApiClient.create()));
+        queueWaitingWorker = Executors.newSingleThreadExecutor();
+        RateLimitingQueue<Request> workQueue = new DefaultRateLimitingQueue<>(queueWaitingWorker);
+
+        writingReconciler = Fixtures.reconciler(myCrds,
+                Fixtures.configMapPipeline(new Cache<V1ConfigMap>(), configMapWriter),
+                workQueue);
+
+        V1ConfigMap current = DesiredResources.createConfigMap(myCrd, ConfigMapNaming.PER_RESOURCE);
+        current.getMetadata()
+                .namespace(myCrd.getMetadata().getNamespace())
+                .resourceVersion("1");
+        Cache<V1ConfigMap> configMaps = new Cache<>();
+        configMaps.add(current);
+        steadyStateReconciler = Fixtures.reconciler(myCrds,
+                Fixtures.configMapPipeline(configMaps, configMapWriter),
+                workQueue);
+        steadyStateReconciler.reconcile(request);
+    }
+
+    @Benchmark
+    public Result write() {
+        return writingReconciler.reconcile(request);
+    }
+
+    @Benchmark
+    public Result steadyState() {
+        return steadyStateReconciler.reconcile(request);
+    }
+
+    @TearDown
+    public void tearDown() {
+        queueWaitingWorker.shutdownNow();
+    }
+}
@@ -0,0 +1,391 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.KubernetesControllerApplication;
+import com.amrut.prabhu.reconciler.ConfigMapNaming;
+import com.amrut.prabhu.reconciler.DesiredResources;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the whole controller, {@link KubernetesControllerApplication}, against a {@link FakeApiServer}
+ * seeded with many custom resources, then creates, updates and deletes them at a steady rate. A change has
+ * converged once its ConfigMap data holds the new value, or no longer holds the key of a deleted custom
+ * resource. Every 10 seconds, and at the end, prints:
+ * <ul>
+ * <li>convergence latency percentiles;</li>
+ * <li>API requests per second, and writes among them;</li>
+ * <li>heap in use, and heap left after the last collection;</li>
+ * <li>process CPU.</li>
+ * </ul>
+ * The fake API server and the load run in the same JVM, so heap and CPU include them.
+ * <p>
+ * Options, all optional:
+ * <ul>
+ * <li>{@code --crs=100000}: custom resources to seed;</li>
+ * <li>{@code --rate=500}: changes per second;</li>
+ * <li>{@code --duration=60s}: how long to change them;</li>
+ * <li>{@code --namespaces=100}: namespaces to spread them over;</li>
+ * <li>{@code --latency=0ms}: fake API server latency per call.</li>
+ * </ul>
+ * Other arguments, such as {@code --controller.workers.count=8}, are passed to the controller. Exits
+ * with status 1 if a change has not converged 2 minutes after the load stops.
+ * <pre>
+ * java -Xmx4g -cp kubernetes-controller-benchmarks/target/benchmarks.jar com.amrut.prabhu.benchmarks.ScaleLoadTest --crs=100000 --rate=500
+ * </pre>
+ */
+public class ScaleLoadTest {
+
+    private static final Duration REPORT_INTERVAL = Duration.ofSeconds(10);
+    private static final Duration INITIAL_SYNC_TIMEOUT = Duration.ofMinutes(15);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofMinutes(2);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> controllerArgs = new ArrayList<>();
+        for (String arg : args) {
+            String[] nameAndValue = arg.substring(2).split("=", 2);
+            if (arg.startsWith("--controller.") || arg.startsWith("--spring.")
+                    || arg.startsWith("--logging.") || arg.startsWith("--management.")) {
+                controllerArgs.add(arg);
+            } else {
+                options.put(nameAndValue[0], nameAndValue.length > 1 ? nameAndValue[1] : "");
+            }
+        }
+        int customResources = Integer.parseInt(options.getOrDefault("crs", "100000"));
+        int rate = Integer.parseInt(options.getOrDefault("rate", "500"));
+        Duration duration = Duration.parse("PT" + options.getOrDefault("duration", "60s"));
+        int namespaces = Integer.parseInt(options.getOrDefault("namespaces", "100"));
+        Duration latency = Duration.ofMillis(Long.parseLong(options.getOrDefault("latency", "0ms").replace("ms", "")));
+        ConfigMapNaming naming = controllerArgs.stream()
+                .filter(arg -> arg.startsWith("--controller.config-map.naming="))
+                .map(arg -> ConfigMapNaming.valueOf(arg.substring(arg.indexOf('=') + 1).toUpperCase().replace('-', '_')))
+                .findFirst()
+                .orElse(ConfigMapNaming.SHARED);
+        defaultArg(controllerArgs, "--logging.level.com.amrut.prabhu", "warn");
+        // Reconcile traces are still kept for the endpoint; only the export to a collector is off.
+        defaultArg(controllerArgs, "--management.tracing.enabled", "false");
+
+        try (FakeApiServer server = new FakeApiServer(latency)) {
+            Convergence convergence = new Convergence(naming);
+            server.addListener(convergence::onChange);
+            Load load = new Load(server, convergence, namespaces);
+            for (int i = 0; i < customResources; i++) {
+                load.create();
+            }
+            System.out.printf("seeded %d custom resources in %d namespaces, %s ConfigMaps%n",
+                    customResources, namespaces, naming.name().toLowerCase());
+
+            controllerArgs.add("--controller.api-server-url=" + server.url());
+            controllerArgs.add("--server.port=0");
+            controllerArgs.add("--spring.main.banner-mode=off");
+            Stats stats = new Stats(server);
+            long startedAt = System.nanoTime();
+            ConfigurableApplicationContext controller = SpringApplication.run(KubernetesControllerApplication.class,
+                    controllerArgs.toArray(String[]::new));
+            boolean synced = await(convergence, stats, INITIAL_SYNC_TIMEOUT);
+            System.out.printf("initial sync: %s in %.1fs%n",
+                    synced ? "converged" : "did not converge", (System.nanoTime() - startedAt) / 1e9);
+            stats.print("initial", convergence.drainLatencies());
+
+            long interval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate);
+            long loadStartedAt = System.nanoTime();
+            long loadEndsAt = loadStartedAt + duration.toNanos();
+            long nextReport = loadStartedAt + REPORT_INTERVAL.toNanos();
+            long next = loadStartedAt;
+            int changes = 0;
+            while (System.nanoTime() < loadEndsAt) {
+                LockSupport.parkNanos(next - System.nanoTime());
+                next += interval;
+                load.change();
+                changes++;
+                if (System.nanoTime() >= nextReport) {
+                    stats.print("load", convergence.drainLatencies());
+                    nextReport += REPORT_INTERVAL.toNanos();
+                }
+            }
+            System.out.printf("load: %d changes in %.1fs (%.0f/s)%n",
+                    changes, (System.nanoTime() - loadStartedAt) / 1e9, changes * 1e9 / (System.nanoTime() - loadStartedAt));
+            boolean drained = await(convergence, stats, DRAIN_TIMEOUT);
+            stats.print("drain", convergence.drainLatencies());
+            stats.printTotal(convergence.pending());
+            controller.close();
+            System.exit(synced && drained ? 0 : 1);
+        }
+    }
+
+    private static void defaultArg(List<String> args, String name, String value) {
+        if (args.stream().noneMatch(arg -> arg.startsWith(name + "="))) {
+            args.add(name + "=" + value);
+        }
+    }
+
+    private static boolean await(Convergence convergence, Stats stats, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long nextReport = System.nanoTime() + REPORT_INTERVAL.toNanos();
+        while (convergence.pending() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+            if (System.nanoTime() >= nextReport) {
+                stats.print("waiting", convergence.drainLatencies());
+                nextReport += REPORT_INTERVAL.toNanos();
+            }
+        }
+        return convergence.pending() == 0;
+    }
+
+    /**
+     * Creates, updates and deletes custom resources directly in the fake API server's store, so the
+     * server's request counts are the controller's alone. Runs on one thread.
+     */
+    private static final class Load {
+
+        private final FakeApiServer server;
+        private final Convergence convergence;
+        private final int namespaces;
+        private final List<String[]> live = new ArrayList<>();
+        private int created;
+        private long revision;
+
+        private Load(FakeApiServer server, Convergence convergence, int namespaces) {
+            this.server = server;
+            this.convergence = convergence;
+            this.namespaces = namespaces;
+        }
+
+        // 70% updates, 15% creates, 15% deletes, so the population stays about the same.
+        void change() {
+            double dice = ThreadLocalRandom.current().nextDouble();
+            if (live.isEmpty() || dice < 0.15) {
+                create();
+            } else if (dice < 0.30) {
+                delete();
+            } else {
+                write(live.get(ThreadLocalRandom.current().nextInt(live.size())));
+            }
+        }
+
+        void create() {
+            int i = created++;
+            String[] namespaceAndName = {"namespace-" + (i % namespaces), "my-crd-" + i};
+            live.add(namespaceAndName);
+            write(namespaceAndName);
+        }
+
+        private void delete() {
+            int index = ThreadLocalRandom.current().nextInt(live.size());
+            String[] namespaceAndName = live.get(index);
+            Collections.swap(live, index, live.size() - 1);
+            live.remove(live.size() - 1);
+            convergence.expectDeleted(namespaceAndName[0], namespaceAndName[1]);
+            server.delete("my-crds", namespaceAndName[0], namespaceAndName[1]);
+        }
+
+        private void write(String[] namespaceAndName) {
+            String value = "value-" + ++revision;
+            JsonObject metadata = new JsonObject();
+            metadata.addProperty("name", namespaceAndName[1]);
+            metadata.addProperty("namespace", namespaceAndName[0]);
+            metadata.addProperty("uid", namespaceAndName[0] + "-" + namespaceAndName[1]);
+            JsonObject spec = new JsonObject();
+            spec.addProperty(DesiredResources.MY_OWN_PROPERTY, value);
+            JsonObject myCrd = new JsonObject();
+            myCrd.addProperty("apiVersion", "com.amrut.prabhu/v1");
+            myCrd.addProperty("kind", "my-crd");
+            myCrd.add("metadata", metadata);
+            myCrd.add("spec", spec);
+            convergence.expect(namespaceAndName[0], namespaceAndName[1], value);
+            server.put("my-crds", namespaceAndName[0], myCrd);
+        }
+    }
+
+    /**
+     * Tracks every change until the ConfigMaps written to the fake API server reflect it. Deletes are
+     * only tracked with shared ConfigMaps; a per-resource ConfigMap is left to the garbage collector,
+     * which the fake API server does not have.
+     */
+    private static final class Convergence {
+
+        private final ConfigMapNaming naming;
+        private final Map<String, Expected> pending = new ConcurrentHashMap<>();
+        private final Map<String, Set<String>> pendingDeletes = new ConcurrentHashMap<>();
+        private final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+
+        private Convergence(ConfigMapNaming naming) {
+            this.naming = naming;
+        }
+
+        void expect(String namespace, String name, String value) {
+            pending.put(namespace + "/" + name, new Expected(value, System.nanoTime()));
+        }
+
+        void expectDeleted(String namespace, String name) {
+            if (naming != ConfigMapNaming.SHARED) {
+                pending.remove(namespace + "/" + name);
+                return;
+            }
+            pending.put(namespace + "/" + name, new Expected(null, System.nanoTime()));
+            pendingDeletes.computeIfAbsent(namespace, ns -> ConcurrentHashMap.newKeySet()).add(name);
+        }
+
+        int pending() {
+            return pending.size();
+        }
+
+        List<Long> drainLatencies() {
+            synchronized (latencies) {
+                List<Long> drained = new ArrayList<>(latencies);
+                latencies.clear();
+                return drained;
+            }
+        }
+
+        // Runs on the fake API server's thread that stored the change.
+        void onChange(FakeApiServer.Change change) {
+            if (!"configmaps".equals(change.plural()) || "DELETED".equals(change.type())) {
+                return;
+            }
+            JsonObject metadata = change.object().getAsJsonObject("metadata");
+            String namespace = metadata.get("namespace").getAsString();
+            JsonObject data = change.object().has("data") ? change.object().getAsJsonObject("data") : new JsonObject();
+            if (naming == ConfigMapNaming.PER_RESOURCE) {
+                String configMapName = metadata.get("name").getAsString();
+                String suffix = DesiredResources.configMapName("", naming);
+                if (configMapName.endsWith(suffix)) {
+                    String name = configMapName.substring(0, configMapName.length() - suffix.length());
+                    converged(namespace, name, data.get(DesiredResources.dataKey(name, naming)));
+                }
+                return;
+            }
+            String keySuffix = DesiredResources.dataKey("", naming);
+            for (Map.Entry<String, JsonElement> entry : data.entrySet()) {
+                if (entry.getKey().endsWith(keySuffix)) {
+                    String name = entry.getKey().substring(0, entry.getKey().length() - keySuffix.length());
+                    converged(namespace, name, entry.getValue());
+                }
+            }
+            Set<String> deletes = pendingDeletes.get(namespace);
+            if (deletes != null) {
+                deletes.removeIf(name -> {
+                    if (data.has(DesiredResources.dataKey(name, naming))) {
+                        return false;
+                    }
+                    Expected expected = pending.get(namespace + "/" + name);
+                    if (expected != null && expected.value() == null && pending.remove(namespace + "/" + name, expected)) {
+                        record(expected);
+                    }
+                    return true;
+                });
+            }
+        }
+
+        private void converged(String namespace, String name, JsonElement value) {
+            String key = namespace + "/" + name;
+            Expected expected = pending.get(key);
+            if (expected != null && value != null && !value.isJsonNull()
+                    && value.getAsString().equals(expected.value()) && pending.remove(key, expected)) {
+                record(expected);
+            }
+        }
+
+        private void record(Expected expected) {
+            latencies.add(System.nanoTime() - expected.changedAt());
+        }
+
+        private record Expected(String value, long changedAt) {
+        }
+    }
+
+    /**
+     * Convergence latency, API traffic, heap and CPU since the previous line.
+     */
+    private static final class Stats {
+
+        private final FakeApiServer server;
+        private final com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        private final List<Long> allLatencies = new ArrayList<>();
+        private long lastAt = System.nanoTime();
+        private long lastRequests;
+        private long lastWrites;
+        private long lastCpu = os.getProcessCpuTime();
+
+        private Stats(FakeApiServer server) {
+            this.server = server;
+        }
+
+        void print(String phase, List<Long> latencies) {
+            long now = System.nanoTime();
+            double seconds = Math.max(1e-9, (now - lastAt) / 1e9);
+            long requests = server.requestCount();
+            long writes = server.writeCount();
+            long cpu = os.getProcessCpuTime();
+            Collections.sort(latencies);
+            allLatencies.addAll(latencies);
+            System.out.printf("%-8s converged %6d  p50 %8.1f ms  p99 %8.1f ms  max %8.1f ms | api %7.0f req/s (%6.0f writes/s)"
+                            + " | heap %5d MB used, %5d MB after gc | cpu %5.1f%%%n",
+                    phase,
+                    latencies.size(),
+                    percentile(latencies, 0.5) / 1e6,
+                    percentile(latencies, 0.99) / 1e6,
+                    percentile(latencies, 1.0) / 1e6,
+                    (requests - lastRequests) / seconds,
+                    (writes - lastWrites) / seconds,
+                    heapUsed() >> 20,
+                    heapAfterGc() >> 20,
+                    100.0 * (cpu - lastCpu) / (now - lastAt) / os.getAvailableProcessors());
+            lastAt = now;
+            lastRequests = requests;
+            lastWrites = writes;
+            lastCpu = cpu;
+        }
+
+        void printTotal(int unconverged) {
+            Collections.sort(allLatencies);
+            System.out.printf("total    converged %d, %d not converged  p50 %.1f ms  p95 %.1f ms  p99 %.1f ms  max %.1f ms%n",
+                    allLatencies.size(),
+                    unconverged,
+                    percentile(allLatencies, 0.5) / 1e6,
+                    percentile(allLatencies, 0.95) / 1e6,
+                    percentile(allLatencies, 0.99) / 1e6,
+                    percentile(allLatencies, 1.0) / 1e6);
+        }
+
+        private static long percentile(List<Long> sorted, double percentile) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            return sorted.get(Math.max(0, (int) Math.ceil(percentile * sorted.size()) - 1));
+        }
+
+        private static long heapUsed() {
+            return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+
+        // What the heap pools held after their last collection, close to the live set.
+        private static long heapAfterGc() {
+            long used = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null) {
+                    used += pool.getCollectionUsage().getUsed();
+                }
+            }
+            return used;
+        }
+    }
+}
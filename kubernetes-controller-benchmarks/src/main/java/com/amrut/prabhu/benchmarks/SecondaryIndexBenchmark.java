@@ -0,0 +1,70 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.informer.MyCrdIndex;
+import com.amrut.prabhu.models.V1MyCrd;
+import io.kubernetes.client.informer.cache.Cache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Finding custom resources by namespace (1000 matches each), by {@code team} label (10000 matches) and by
+ * {@code my-own-property} (one match) among 100k cached objects: {@code indexed} asks {@link MyCrdIndex},
+ * {@code scan} filters {@code list()} the way a reconciler without indexes has to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecondaryIndexBenchmark {
+
+    public enum Query {
+        NAMESPACE,
+        LABEL,
+        MY_OWN_PROPERTY
+    }
+
+    private static final int CUSTOM_RESOURCES = 100_000;
+
+    @Param({"NAMESPACE", "LABEL", "MY_OWN_PROPERTY"})
+    public Query query;
+
+    private Cache<V1MyCrd> cache;
+    private MyCrdIndex index;
+
+    @Setup
+    public void fill() {
+        cache = new Cache<>();
+        cache.addIndexers(MyCrdIndex.indexers());
+        for (int i = 0; i < CUSTOM_RESOURCES; i++) {
+            cache.add(Fixtures.servedMyCrd(i));
+        }
+        index = new MyCrdIndex(cache);
+    }
+
+    @Benchmark
+    public List<V1MyCrd> indexed() {
+        int i = ThreadLocalRandom.current().nextInt(CUSTOM_RESOURCES);
+        return switch (query) {
+            case NAMESPACE -> index.inNamespace("namespace-" + (i % 100));
+            case LABEL -> index.withLabel("team", "team-" + (i % 10));
+            case MY_OWN_PROPERTY -> index.withMyOwnProperty("value-" + i);
+        };
+    }
+
+    @Benchmark
+    public List<V1MyCrd> scan() {
+        int i = ThreadLocalRandom.current().nextInt(CUSTOM_RESOURCES);
+        Predicate<V1MyCrd> matches = switch (query) {
+            case NAMESPACE -> myCrd -> ("namespace-" + (i % 100)).equals(myCrd.getMetadata().getNamespace());
+            case LABEL -> myCrd -> ("team-" + (i % 10)).equals(myCrd.getMetadata().getLabels().get("team"));
+            case MY_OWN_PROPERTY -> myCrd -> ("value-" + i).equals(myCrd.getSpec().getMyOwnProperty());
+        };
+        return cache.list().stream().filter(matches).toList();
+    }
+}
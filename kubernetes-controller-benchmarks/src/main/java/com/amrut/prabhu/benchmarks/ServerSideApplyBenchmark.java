@@ -0,0 +1,146 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.reconciler.ConfigMapNaming;
+import com.amrut.prabhu.reconciler.DesiredResources;
+import com.amrut.prabhu.write.ConfigMapWriter;
+import com.amrut.prabhu.write.ServerSideApply;
+import com.amrut.prabhu.write.WriteRateLimiter;
+import io.kubernetes.client.custom.V1Patch;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.util.PatchUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updating one child object of a custom resource on a {@link FakeApiServer} with 1 ms latency.
+ * {@code REPLACE} is the original path: the whole object, sent with {@code pretty=true}.
+ * {@code MERGE_PATCH} is the JSON merge patch {@link ConfigMapWriter} sends. {@code APPLY} is a
+ * {@link ServerSideApply} of the owned fields. The score is the latency of one write; each iteration
+ * prints the request and response bytes per write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerSideApplyBenchmark {
+
+    public enum Child {
+        CONFIG_MAP,
+        DEPLOYMENT
+    }
+
+    public enum WritePath {
+        REPLACE,
+        MERGE_PATCH,
+        APPLY
+    }
+
+    @Param({"CONFIG_MAP", "DEPLOYMENT"})
+    public Child child;
+
+    @Param({"REPLACE", "MERGE_PATCH", "APPLY"})
+    public WritePath path;
+
+    private FakeApiServer server;
+    private CoreV1Api coreV1Api;
+    private AppsV1Api appsV1Api;
+    private ConfigMapWriter configMapWriter;
+    private ServerSideApply serverSideApply;
+    private V1MyCrd myCrd;
+    private String namespace;
+    private V1ConfigMap currentConfigMap;
+    private long revision;
+    private long writes;
+    private long bytesReceived;
+    private long bytesSent;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException, ApiException {
+        server = new FakeApiServer(Duration.ofMillis(1));
+        ApiClient apiClient = new ApiClient().setBasePath(server.url());
+        coreV1Api = new CoreV1Api(apiClient);
+        appsV1Api = new AppsV1Api(apiClient);
+        configMapWriter = Fixtures.configMapWriter(coreV1Api);
+        serverSideApply = new ServerSideApply(apiClient, "my-crd-controller", true,
+                WriteRateLimiter.unlimited(), new SimpleMeterRegistry());
+        myCrd = Fixtures.myCrd(42);
+        namespace = myCrd.getMetadata().getNamespace();
+        currentConfigMap = serverSideApply.configMap(namespace, DesiredResources.createConfigMap(myCrd, ConfigMapNaming.PER_RESOURCE));
+        serverSideApply.deployment(namespace, DesiredResources.createDeployment(myCrd));
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        writes = 0;
+        bytesReceived = server.bytesReceived();
+        bytesSent = server.bytesSent();
+    }
+
+    @Benchmark
+    public Object write() throws ApiException {
+        writes++;
+        String value = "value-" + ++revision;
+        myCrd.getSpec().setMyOwnProperty(value);
+        return child == Child.CONFIG_MAP ? writeConfigMap() : writeDeployment(value);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printBytes() {
+        System.out.printf("%s %s: %d request bytes, %d response bytes per write%n",
+                child,
+                path,
+                (server.bytesReceived() - bytesReceived) / Math.max(1, writes),
+                (server.bytesSent() - bytesSent) / Math.max(1, writes));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        server.close();
+    }
+
+    private V1ConfigMap writeConfigMap() throws ApiException {
+        V1ConfigMap desired = DesiredResources.createConfigMap(myCrd, ConfigMapNaming.PER_RESOURCE);
+        String name = desired.getMetadata().getName();
+        currentConfigMap = switch (path) {
+            case REPLACE -> coreV1Api.replaceNamespacedConfigMap(name, namespace, desired, "true", null, null, null);
+            case MERGE_PATCH -> configMapWriter.patch(namespace, currentConfigMap, desired);
+            case APPLY -> serverSideApply.configMap(namespace, desired);
+        };
+        return currentConfigMap;
+    }
+
+    private V1Deployment writeDeployment(String value) throws ApiException {
+        V1Deployment desired = DesiredResources.createDeployment(myCrd);
+        // Changes the pod template, the way a spec change would.
+        desired.getSpec().getTemplate().getMetadata().putAnnotationsItem("my-own-property", value);
+        String name = desired.getMetadata().getName();
+        return switch (path) {
+            case REPLACE -> appsV1Api.replaceNamespacedDeployment(name, namespace, desired, "true", null, null, null);
+            case MERGE_PATCH -> PatchUtils.patch(V1Deployment.class,
+                    () -> appsV1Api.patchNamespacedDeploymentCall(name,
+                            namespace,
+                            new V1Patch(appsV1Api.getApiClient().getJSON().serialize(desired)),
+                            null,
+                            null,
+                            null,
+                            null,
+                            null,
+                            null),
+                    V1Patch.PATCH_FORMAT_JSON_MERGE_PATCH,
+                    appsV1Api.getApiClient());
+            case APPLY -> serverSideApply.deployment(namespace, desired);
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.sharding.ShardFilter;
+import com.amrut.prabhu.sharding.ShardMembership;
+import com.amrut.prabhu.sharding.ShardingMode;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.apis.CoordinationV1Api;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs several shard replicas against {@link FakeApiServer}, lets replicas join and leave, and checks after
+ * every change that each custom resource is owned by exactly one replica. The informers only hold what
+ * their {@link ShardFilter} owns, so this is also the set each replica reconciles. Exits with status 1 on
+ * a key owned twice or not at all.
+ * <pre>
+ * java -cp kubernetes-controller-benchmarks/target/benchmarks.jar com.amrut.prabhu.benchmarks.ShardingSimulation
+ * </pre>
+ */
+public class ShardingSimulation {
+
+    private static final int CUSTOM_RESOURCES = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        try (FakeApiServer server = new FakeApiServer(Duration.ZERO)) {
+            CoordinationV1Api coordinationV1Api = new CoordinationV1Api(new ApiClient().setBasePath(server.url()));
+            List<Replica> replicas = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                replicas.add(Replica.start(coordinationV1Api, "replica-" + i));
+            }
+            boolean ok = check("3 replicas", replicas);
+
+            replicas.add(Replica.start(coordinationV1Api, "replica-3"));
+            ok &= check("replica-3 joined", replicas);
+
+            replicas.remove(1).membership().stop();
+            ok &= check("replica-1 left", replicas);
+
+            replicas.forEach(replica -> replica.membership().stop());
+            System.exit(ok ? 0 : 1);
+        }
+    }
+
+    private static boolean check(String step, List<Replica> replicas) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!converged(replicas)) {
+            if (System.nanoTime() > deadline) {
+                System.out.printf("%s: membership did not converge%n", step);
+                return false;
+            }
+            Thread.sleep(50);
+        }
+
+        Map<String, Integer> owned = new TreeMap<>();
+        int conflicts = 0;
+        for (int i = 0; i < CUSTOM_RESOURCES; i++) {
+            V1MyCrd myCrd = Fixtures.myCrd(i);
+            myCrd.getMetadata().namespace("namespace-" + i);
+            int owners = 0;
+            for (Replica replica : replicas) {
+                if (replica.filter().owns(myCrd)) {
+                    owners++;
+                    owned.merge(replica.membership().identity(), 1, Integer::sum);
+                }
+            }
+            if (owners != 1) {
+                conflicts++;
+            }
+        }
+        System.out.printf("%s: keys per replica %s, keys with zero or several owners: %d%n", step, owned, conflicts);
+        return conflicts == 0;
+    }
+
+    private static boolean converged(List<Replica> replicas) {
+        List<String> identities = replicas.stream().map(replica -> replica.membership().identity()).sorted().toList();
+        return replicas.stream().allMatch(replica -> replica.membership().ring().members().equals(identities));
+    }
+
+    private record Replica(ShardMembership membership, ShardFilter filter) {
+
+        static Replica start(CoordinationV1Api coordinationV1Api, String identity) throws Exception {
+            ShardMembership membership = new ShardMembership(coordinationV1Api,
+                    "default",
+                    "my-crd-controller",
+                    identity,
+                    Duration.ofSeconds(2),
+                    Duration.ofMillis(200),
+                    64);
+            membership.start();
+            ShardFilter filter = new ShardFilter(ShardingMode.NAMESPACE, 16, identity, membership.ring());
+            membership.addListener(filter::onRingChanged);
+            return new Replica(membership, filter);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.informer.CacheSnapshotter;
+import com.amrut.prabhu.informer.MyCrdListerWatcher;
+import com.amrut.prabhu.json.MyCrdTypeAdapterFactory;
+import com.amrut.prabhu.json.StringInterner;
+import com.amrut.prabhu.metrics.InformerSyncMetrics;
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdList;
+import com.google.gson.Gson;
+import io.kubernetes.client.informer.ListerWatcher;
+import io.kubernetes.client.informer.SharedIndexInformer;
+import io.kubernetes.client.informer.SharedInformerFactory;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.JSON;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from starting the custom resource informer until its cache is current, with 100k custom resources
+ * on a {@link FakeApiServer}. {@code LIST} lists them from the server, {@code SNAPSHOT} restores them from
+ * a {@link CacheSnapshotter} file and only opens a watch, and {@code EXPIRED_SNAPSHOT} restores a snapshot
+ * whose resourceVersion has been compacted, so the watch fails with "410 Gone" and the informer relists.
+ * Each iteration prints the API requests it took.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SnapshotStartupBenchmark {
+
+    private static final int CUSTOM_RESOURCES = 100_000;
+
+    public enum Startup {
+        LIST,
+        SNAPSHOT,
+        EXPIRED_SNAPSHOT
+    }
+
+    @Param({"LIST", "SNAPSHOT", "EXPIRED_SNAPSHOT"})
+    public Startup startup;
+
+    private FakeApiServer server;
+    private ApiClient apiClient;
+    private Path snapshotFile;
+    private SharedInformerFactory informerFactory;
+    private CacheSnapshotter snapshotter;
+    private long requestsBefore;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException, InterruptedException {
+        server = new FakeApiServer(Duration.ofMillis(2));
+        Gson plainGson = new JSON().getGson();
+        for (int i = 0; i < CUSTOM_RESOURCES; i++) {
+            V1MyCrd myCrd = Fixtures.servedMyCrd(i);
+            server.put(MyCrdListerWatcher.PLURAL, myCrd.getMetadata().getNamespace(),
+                    plainGson.toJsonTree(myCrd).getAsJsonObject());
+        }
+        apiClient = new ApiClient().setBasePath(server.url());
+        apiClient.setHttpClient(new OkHttpClient.Builder().readTimeout(Duration.ZERO).build());
+        MyCrdTypeAdapterFactory.register(apiClient.getJSON(), new StringInterner());
+
+        snapshotFile = Files.createTempDirectory("cache-snapshot").resolve("my-crds.snapshot");
+        if (startup != Startup.LIST) {
+            // One start that lists, to write the snapshot the measured starts restore.
+            startInformer();
+            snapshotter.save();
+            stopInformer();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        if (startup == Startup.EXPIRED_SNAPSHOT) {
+            server.compactHistory();
+        }
+        requestsBefore = server.requestCount();
+    }
+
+    @Benchmark
+    public int startUntilCurrent() throws InterruptedException {
+        SharedIndexInformer<V1MyCrd> informer = startInformer();
+        String current = String.valueOf(server.currentResourceVersion());
+        while (!informer.hasSynced() || !current.equals(informer.lastSyncResourceVersion())) {
+            Thread.sleep(1);
+        }
+        return informer.getIndexer().list().size();
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() {
+        System.out.printf("%s: %d API requests%n", startup, server.requestCount() - requestsBefore);
+        stopInformer();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() throws IOException {
+        server.close();
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    private SharedIndexInformer<V1MyCrd> startInformer() throws InterruptedException {
+        informerFactory = new SharedInformerFactory(apiClient);
+        ListerWatcher<V1MyCrd, V1MyCrdList> listerWatcher = new MyCrdListerWatcher(apiClient, 500, false,
+                () -> null, new InformerSyncMetrics(new SimpleMeterRegistry()), false);
+        if (startup != Startup.LIST) {
+            snapshotter = new CacheSnapshotter(snapshotFile, Duration.ofHours(1), apiClient.getJSON().getGson(),
+                    new SimpleMeterRegistry());
+            listerWatcher = snapshotter.wrap(listerWatcher, () -> "benchmark");
+        }
+        SharedIndexInformer<V1MyCrd> informer = informerFactory.sharedIndexInformerFor(listerWatcher, V1MyCrd.class, 0);
+        informerFactory.startAllRegisteredInformers();
+        while (!informer.hasSynced()) {
+            Thread.sleep(1);
+        }
+        return informer;
+    }
+
+    private void stopInformer() {
+        informerFactory.stopAllRegisteredInformers();
+        if (snapshotter != null) {
+            // Saves, so the next EXPIRED_SNAPSHOT start restores the state the relist produced.
+            snapshotter.close();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.reconciler.DesiredResources;
+import com.google.gson.JsonObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToLongFunction;
+
+/**
+ * Starts the controller as a separate process against a {@link FakeApiServer} seeded with custom
+ * resources, once per way of running it, and reports how long it takes to write its first ConfigMap and
+ * to reconcile every custom resource, counted from the process start, and its resident memory at both
+ * points, read from {@code /proc}:
+ * <ul>
+ * <li>{@code jar}: the executable jar on a plain JVM;</li>
+ * <li>{@code cds}: the plain jar with the class data sharing archive of {@code mvn -Pcds package};</li>
+ * <li>{@code native}: the native image of {@code mvn -Pnative native:compile}.</li>
+ * </ul>
+ * A mode whose build output is missing is skipped. The JVM modes run on the JVM running this class, which
+ * must be the one that recorded the archive. Each ConfigMap is written per custom resource, so the first
+ * one is not held back by the shared ConfigMap's coalescing window.
+ * <p>
+ * Options, all optional:
+ * <ul>
+ * <li>{@code --crs=1000}: custom resources to seed;</li>
+ * <li>{@code --runs=5}: starts per mode, of which the median is reported;</li>
+ * <li>{@code --target=kubernetes-controller/target}: the controller module's build output.</li>
+ * </ul>
+ * Exits with status 1 if no mode could run, or a start did not reconcile every custom resource within 2
+ * minutes.
+ * <pre>
+ * java -cp kubernetes-controller-benchmarks/target/benchmarks.jar com.amrut.prabhu.benchmarks.StartupComparison
+ * </pre>
+ */
+public class StartupComparison {
+
+    private static final String JAR = "kubernetes-controller-0.0.1-SNAPSHOT";
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] nameAndValue = arg.substring(2).split("=", 2);
+            options.put(nameAndValue[0], nameAndValue.length > 1 ? nameAndValue[1] : "");
+        }
+        int customResources = Integer.parseInt(options.getOrDefault("crs", "1000"));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        Path target = Path.of(options.getOrDefault("target", "kubernetes-controller/target"));
+        String java = ProcessHandle.current().info().command().orElse("java");
+
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        modes.put("jar", command(target.resolve(JAR + "-exec.jar"),
+                java, "-jar", target.resolve(JAR + "-exec.jar").toString()));
+        modes.put("cds", command(target.resolve("kubernetes-controller.jsa"),
+                java, "-XX:SharedArchiveFile=" + target.resolve("kubernetes-controller.jsa"),
+                "-jar", target.resolve(JAR + ".jar").toString()));
+        modes.put("native", command(target.resolve("kubernetes-controller"),
+                target.resolve("kubernetes-controller").toString()));
+
+        boolean ok = true;
+        boolean ran = false;
+        try (FakeApiServer server = new FakeApiServer(Duration.ZERO)) {
+            AtomicReference<Progress> progress = new AtomicReference<>(new Progress(customResources));
+            server.addListener(change -> {
+                if ("configmaps".equals(change.plural()) && "ADDED".equals(change.type())) {
+                    progress.get().written();
+                }
+            });
+            System.out.printf("%d custom resources, median of %d starts%n", customResources, runs);
+            System.out.printf("%-8s %16s %16s %14s %14s%n",
+                    "mode", "first reconcile", "all reconciled", "RSS at first", "RSS at all");
+            for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+                if (mode.getValue() == null) {
+                    System.out.printf("%-8s skipped, not built%n", mode.getKey());
+                    continue;
+                }
+                ran = true;
+                List<Start> starts = new ArrayList<>();
+                for (int i = 0; i < runs; i++) {
+                    Progress current = new Progress(customResources);
+                    progress.set(current);
+                    Start start = start(server, mode.getValue(), current);
+                    if (start == null) {
+                        ok = false;
+                        break;
+                    }
+                    starts.add(start);
+                }
+                if (starts.size() < runs) {
+                    System.out.printf("%-8s did not reconcile every custom resource within %ds%n",
+                            mode.getKey(), TIMEOUT.toSeconds());
+                    continue;
+                }
+                System.out.printf("%-8s %14.0fms %14.0fms %12s %12s%n",
+                        mode.getKey(),
+                        median(starts, Start::firstNanos) / 1e6,
+                        median(starts, Start::allNanos) / 1e6,
+                        megabytes(median(starts, Start::firstRssKb)),
+                        megabytes(median(starts, Start::allRssKb)));
+            }
+        }
+        System.exit(ok && ran ? 0 : 1);
+    }
+
+    private static List<String> command(Path buildOutput, String... command) {
+        return Files.exists(buildOutput) ? List.of(command) : null;
+    }
+
+    // One start of the controller; null if it did not reconcile everything in time.
+    private static Start start(FakeApiServer server, List<String> command, Progress progress) throws Exception {
+        server.reset();
+        seed(server, progress.customResources);
+        List<String> processCommand = new ArrayList<>(command);
+        processCommand.addAll(Arrays.asList(
+                "--controller.api-server-url=" + server.url(),
+                "--controller.config-map.naming=per-resource",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.com.amrut.prabhu=warn",
+                "--management.tracing.enabled=false"));
+        File log = File.createTempFile("controller-startup-", ".log");
+        long startedAt = System.nanoTime();
+        Process process = new ProcessBuilder(processCommand)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+        try {
+            if (!progress.first.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                System.out.println("no ConfigMap written, see " + log);
+                return null;
+            }
+            long firstRssKb = rssKb(process.pid());
+            if (!progress.all.await(TIMEOUT.toNanos() - (System.nanoTime() - startedAt), TimeUnit.NANOSECONDS)) {
+                System.out.println(progress.written.get() + " ConfigMaps written, see " + log);
+                return null;
+            }
+            long allAt = System.nanoTime();
+            long allRssKb = rssKb(process.pid());
+            log.delete();
+            return new Start(progress.firstAt.get() - startedAt, allAt - startedAt, firstRssKb, allRssKb);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static void seed(FakeApiServer server, int customResources) {
+        for (int i = 0; i < customResources; i++) {
+            String namespace = "namespace-" + (i % 10);
+            String name = "my-crd-" + i;
+            JsonObject metadata = new JsonObject();
+            metadata.addProperty("name", name);
+            metadata.addProperty("namespace", namespace);
+            metadata.addProperty("uid", namespace + "-" + name);
+            JsonObject spec = new JsonObject();
+            spec.addProperty(DesiredResources.MY_OWN_PROPERTY, "value-" + i);
+            JsonObject myCrd = new JsonObject();
+            myCrd.addProperty("apiVersion", "com.amrut.prabhu/v1");
+            myCrd.addProperty("kind", "my-crd");
+            myCrd.add("metadata", metadata);
+            myCrd.add("spec", spec);
+            server.put("my-crds", namespace, myCrd);
+        }
+    }
+
+    // VmRSS of the process in kB, or -1 where there is no /proc.
+    private static long rssKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.substring("VmRSS:".length()).trim().split("\\s+")[0]);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux, or the process is gone.
+        }
+        return -1;
+    }
+
+    private static long median(List<Start> starts, ToLongFunction<Start> value) {
+        return starts.stream().mapToLong(value).sorted().skip(starts.size() / 2).findFirst().orElse(-1);
+    }
+
+    private static String megabytes(long kilobytes) {
+        return kilobytes < 0 ? "n/a" : String.format("%.0f MB", kilobytes / 1024.0);
+    }
+
+    // The ConfigMaps written during one start; the server's listener counts into the current one.
+    private static final class Progress {
+
+        private final int customResources;
+        private final AtomicLong firstAt = new AtomicLong();
+        private final AtomicInteger written = new AtomicInteger();
+        private final CountDownLatch first = new CountDownLatch(1);
+        private final CountDownLatch all = new CountDownLatch(1);
+
+        private Progress(int customResources) {
+            this.customResources = customResources;
+        }
+
+        void written() {
+            firstAt.compareAndSet(0, System.nanoTime());
+            first.countDown();
+            if (written.incrementAndGet() == customResources) {
+                all.countDown();
+            }
+        }
+    }
+
+    private record Start(long firstNanos, long allNanos, long firstRssKb, long allRssKb) {
+    }
+}
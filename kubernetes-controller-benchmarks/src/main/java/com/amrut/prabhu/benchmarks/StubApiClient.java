@@ -0,0 +1,61 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.kubernetes.client.openapi.ApiClient;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ApiClient} whose HTTP calls never leave the process: an OkHttp interceptor answers every write
+ * by echoing the request body back with a fresh resourceVersion. Measures the client-side cost of an
+ * API call (serialization, request building, deserialization) without socket or server time.
+ */
+final class StubApiClient {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private StubApiClient() {
+    }
+
+    static ApiClient create() {
+        ApiClient apiClient = new ApiClient().setBasePath("http://stub.invalid");
+        AtomicLong resourceVersion = new AtomicLong();
+        apiClient.setHttpClient(apiClient.getHttpClient()
+                .newBuilder()
+                .addInterceptor(chain -> echo(chain, resourceVersion))
+                .build());
+        return apiClient;
+    }
+
+    private static Response echo(Interceptor.Chain chain, AtomicLong resourceVersion) throws IOException {
+        Request request = chain.request();
+        JsonObject object = new JsonObject();
+        if (request.body() != null) {
+            Buffer buffer = new Buffer();
+            request.body().writeTo(buffer);
+            object = JsonParser.parseString(buffer.readString(StandardCharsets.UTF_8)).getAsJsonObject();
+        }
+        if (!object.has("metadata")) {
+            object.add("metadata", new JsonObject());
+        }
+        object.getAsJsonObject("metadata")
+                .addProperty("resourceVersion", String.valueOf(resourceVersion.incrementAndGet()));
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code("POST".equals(request.method()) ? 201 : 200)
+                .message("OK")
+                .body(ResponseBody.create(object.toString().getBytes(StandardCharsets.UTF_8), JSON))
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.config.ControllerProperties.ExecutorType;
+import com.amrut.prabhu.config.WorkerPools;
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.reconciler.MyCrdReconciler;
+import com.amrut.prabhu.write.ConfigMapWriter;
+import com.amrut.prabhu.write.WriteRateLimiter;
+import io.kubernetes.client.extended.controller.DefaultController;
+import io.kubernetes.client.extended.controller.reconciler.Reconciler;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.controller.reconciler.Result;
+import io.kubernetes.client.extended.workqueue.DefaultRateLimitingQueue;
+import io.kubernetes.client.extended.workqueue.RateLimitingQueue;
+import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reconciles a batch of custom resources against {@link FakeApiServer} while it answers a third of all
+ * writes with 429 and {@code Retry-After: 1}. Runs once without and once with the client-side write limit,
+ * and reports the write rate the server saw in its busiest second. Exits with status 1 when the limited run
+ * exceeds {@code burst + permitsPerSecond} writes in any second or does not converge.
+ * <pre>
+ * java -cp kubernetes-controller-benchmarks/target/benchmarks.jar com.amrut.prabhu.benchmarks.ThrottlingLoadTest
+ * </pre>
+ */
+public class ThrottlingLoadTest {
+
+    private static final int CUSTOM_RESOURCES = 2_000;
+    private static final int WORKERS = 16;
+    private static final double PERMITS_PER_SECOND = 200;
+    private static final int BURST = 50;
+
+    public static void main(String[] args) throws Exception {
+        Cache<V1MyCrd> myCrds = Fixtures.myCrdCache(CUSTOM_RESOURCES);
+        try (FakeApiServer server = new FakeApiServer(Duration.ofMillis(1))) {
+            server.throttleWrites(0.33, Duration.ofSeconds(1));
+
+            Run unlimited = run(server, myCrds, WriteRateLimiter.unlimited());
+            unlimited.print("unlimited");
+
+            server.reset();
+            Run limited = run(server, myCrds,
+                    new WriteRateLimiter(PERMITS_PER_SECOND, BURST, new SimpleMeterRegistry()));
+            limited.print("limited to %.0f/s, burst %d".formatted(PERMITS_PER_SECOND, BURST));
+
+            boolean ok = limited.converged() && limited.busiestSecond() <= BURST + PERMITS_PER_SECOND;
+            System.exit(ok ? 0 : 1);
+        }
+    }
+
+    private static Run run(FakeApiServer server, Cache<V1MyCrd> myCrds, WriteRateLimiter rateLimiter)
+            throws InterruptedException {
+        Queue<Long> writes = new ConcurrentLinkedQueue<>();
+        AtomicInteger throttled = new AtomicInteger();
+        ApiClient apiClient = Fixtures.apiClient(server.url(), WORKERS);
+        apiClient.setHttpClient(apiClient.getHttpClient()
+                .newBuilder()
+                .addInterceptor(chain -> {
+                    writes.add(System.nanoTime());
+                    okhttp3.Response response = chain.proceed(chain.request());
+                    if (response.code() == 429) {
+                        throttled.incrementAndGet();
+                    }
+                    return response;
+                })
+                .build());
+
+        CountDownLatch reconciled = new CountDownLatch(CUSTOM_RESOURCES);
+        ExecutorService queueWaitingWorker = Executors.newSingleThreadExecutor();
+        RateLimitingQueue<Request> workQueue = new DefaultRateLimitingQueue<>(queueWaitingWorker);
+        MyCrdReconciler myCrdReconciler = Fixtures.reconciler(myCrds,
+                Fixtures.configMapPipeline(new Cache<V1ConfigMap>(), new ConfigMapWriter(new CoreV1Api(apiClient), rateLimiter, null)),
+                workQueue);
+        Reconciler counting = request -> {
+            Result result = myCrdReconciler.reconcile(request);
+            if (!result.isRequeue()) {
+                reconciled.countDown();
+            }
+            return result;
+        };
+
+        for (String key : myCrds.listKeys()) {
+            String[] namespaceAndName = key.split("/");
+            workQueue.add(new Request(namespaceAndName[0], namespaceAndName[1]));
+        }
+        DefaultController controller = new DefaultController("load-test", counting, workQueue);
+        controller.setWorkerCount(WORKERS);
+        controller.setWorkerThreadPool(WorkerPools.newWorkerThreadPool(ExecutorType.PLATFORM, WORKERS, "load-test"));
+
+        long startedAt = System.nanoTime();
+        Thread runner = new Thread(controller::run);
+        runner.start();
+        boolean converged = reconciled.await(5, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - startedAt;
+        controller.shutdown();
+        runner.join();
+        queueWaitingWorker.shutdownNow();
+        return new Run(converged, elapsed, writes.stream().sorted().toList(), throttled.get());
+    }
+
+    private record Run(boolean converged, long elapsedNanos, List<Long> writes, int throttled) {
+
+        // Most writes sent within any one-second window.
+        int busiestSecond() {
+            int busiest = 0;
+            int from = 0;
+            for (int to = 0; to < writes.size(); to++) {
+                while (writes.get(to) - writes.get(from) >= TimeUnit.SECONDS.toNanos(1)) {
+                    from++;
+                }
+                busiest = Math.max(busiest, to - from + 1);
+            }
+            return busiest;
+        }
+
+        void print(String label) {
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("%s: %s in %.1fs, %d writes (%.0f/s average, %d in the busiest second), %d answered 429%n",
+                    label,
+                    converged ? "converged" : "did not converge",
+                    seconds,
+                    writes.size(),
+                    writes.size() / seconds,
+                    busiestSecond(),
+                    throttled);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.informer.MyCrdListerWatcher;
+import com.amrut.prabhu.json.MyCrdTypeAdapterFactory;
+import com.amrut.prabhu.json.StringInterner;
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.reconciler.ConfigMapNaming;
+import com.amrut.prabhu.reconciler.DesiredResources;
+import com.amrut.prabhu.transport.StreamingWatch;
+import com.amrut.prabhu.transport.TransportMode;
+import com.amrut.prabhu.write.ConfigMapWriter;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.apis.CustomObjectsApi;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.util.Watch;
+import io.kubernetes.client.util.Watchable;
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.Okio;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side cost of a watch event and of a ConfigMap write, with the default transport and the tuned
+ * one. An OkHttp interceptor answers every call in process, so the GC profiler's
+ * {@code gc.alloc.rate.norm} is what the client allocates, with no server or socket in it.
+ * <ul>
+ * <li>{@code watchEvent} decodes a stream of 1000 custom resource events. {@code DEFAULT} uses the
+ * client's {@code Watch}, which reads each event into a String first; {@code TUNED} the
+ * {@link StreamingWatch}. Both decode the object with the same registered adapters.</li>
+ * <li>{@code write} sends one JSON merge patch of a ConfigMap. {@code DEFAULT} encodes the patch to a
+ * String that the generated call encodes again; {@code TUNED} streams it into pooled buffers. The tuned
+ * write is asynchronous, so its score includes handing the call to the dispatcher.</li>
+ * </ul>
+ * The tuned connection settings, pooling, HTTP/2 and pings, need a real TLS connection and are not
+ * measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransportAllocationBenchmark {
+
+    private static final int EVENTS = 1_000;
+    private static final MediaType JSON = MediaType.get("application/json");
+    private static final Type WATCH_TYPE = TypeToken.getParameterized(Watch.Response.class, V1MyCrd.class).getType();
+
+    @Param({"DEFAULT", "TUNED"})
+    public TransportMode transport;
+
+    private ApiClient apiClient;
+    private CustomObjectsApi customObjectsApi;
+    private ConfigMapWriter configMapWriter;
+    private byte[] watchStream;
+    private byte[] configMapResponse;
+    private V1ConfigMap current;
+    private V1ConfigMap desired;
+    private long revision;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        apiClient = new ApiClient().setBasePath("http://stub.invalid");
+        MyCrdTypeAdapterFactory.register(apiClient.getJSON(), new StringInterner());
+        Gson gson = apiClient.getJSON().getGson();
+
+        StringBuilder events = new StringBuilder();
+        for (int i = 0; i < EVENTS; i++) {
+            JsonObject event = new JsonObject();
+            event.addProperty("type", "MODIFIED");
+            event.add("object", gson.toJsonTree(Fixtures.servedMyCrd(i)));
+            events.append(event).append('\n');
+        }
+        watchStream = events.toString().getBytes(StandardCharsets.UTF_8);
+
+        V1MyCrd myCrd = Fixtures.servedMyCrd(42);
+        current = DesiredResources.createConfigMap(myCrd, ConfigMapNaming.PER_RESOURCE);
+        current.getMetadata().namespace(myCrd.getMetadata().getNamespace()).resourceVersion("1");
+        desired = DesiredResources.createConfigMap(myCrd, ConfigMapNaming.PER_RESOURCE);
+        configMapResponse = gson.toJson(current).getBytes(StandardCharsets.UTF_8);
+
+        apiClient.setHttpClient(apiClient.getHttpClient()
+                .newBuilder()
+                .addInterceptor(this::respond)
+                .build());
+        customObjectsApi = new CustomObjectsApi(apiClient);
+        configMapWriter = Fixtures.configMapWriter(new CoreV1Api(apiClient));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void watchEvent(Blackhole blackhole) throws ApiException, IOException {
+        Call call = customObjectsApi.listClusterCustomObjectCall(MyCrdListerWatcher.GROUP,
+                MyCrdListerWatcher.VERSION,
+                MyCrdListerWatcher.PLURAL,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                true,
+                null);
+        try (Watchable<V1MyCrd> watch = transport == TransportMode.TUNED
+                ? StreamingWatch.open(call, apiClient.getJSON().getGson(), V1MyCrd.class)
+                : Watch.createWatch(apiClient, call, WATCH_TYPE)) {
+            for (Watch.Response<V1MyCrd> event : watch) {
+                blackhole.consume(event.object);
+            }
+        }
+    }
+
+    @Benchmark
+    public V1ConfigMap write() throws ApiException {
+        desired.setData(Map.of(DesiredResources.MY_OWN_PROPERTY, "value-" + ++revision));
+        String namespace = current.getMetadata().getNamespace();
+        return transport == TransportMode.TUNED
+                ? configMapWriter.writeAsync(namespace, current, desired).join()
+                : configMapWriter.patch(namespace, current, desired);
+    }
+
+    // Sends the request body to a sink that discards it, as a socket would, and answers from memory.
+    private Response respond(Interceptor.Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.body() != null) {
+            try (BufferedSink sink = Okio.buffer(Okio.blackhole())) {
+                request.body().writeTo(sink);
+            }
+        }
+        boolean watch = "true".equals(request.url().queryParameter("watch"));
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(watch ? watchStream : configMapResponse, JSON))
+                .build();
+    }
+}
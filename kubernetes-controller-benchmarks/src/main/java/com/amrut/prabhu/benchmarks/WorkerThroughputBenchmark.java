@@ -0,0 +1,114 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.config.ControllerProperties.ExecutorType;
+import com.amrut.prabhu.config.WorkerPools;
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdSpec;
+import com.amrut.prabhu.reconciler.MyCrdReconciler;
+import io.kubernetes.client.extended.controller.DefaultController;
+import io.kubernetes.client.extended.controller.reconciler.Reconciler;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.controller.reconciler.Result;
+import io.kubernetes.client.extended.workqueue.DefaultRateLimitingQueue;
+import io.kubernetes.client.extended.workqueue.RateLimitingQueue;
+import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconciles a batch of custom resources, each needing one ConfigMap create, through a
+ * {@link DefaultController} against {@link FakeApiServer} with 5ms of latency per call. Scores are
+ * milliseconds per reconcile; compare across worker counts. Pass {@code -p executor=VIRTUAL} on a
+ * Java 21 runtime to compare virtual thread workers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WorkerThroughputBenchmark {
+
+    private static final int CUSTOM_RESOURCES = 2_000;
+
+    @Param({"1", "4", "16", "64"})
+    public int workers;
+
+    @Param({"PLATFORM"})
+    public ExecutorType executor;
+
+    private FakeApiServer server;
+    private CoreV1Api coreV1Api;
+    private Cache<V1MyCrd> myCrds;
+    private ExecutorService queueWaitingWorker;
+    private DefaultController controller;
+    private CountDownLatch reconciled;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        server = new FakeApiServer(Duration.ofMillis(5));
+        coreV1Api = new CoreV1Api(Fixtures.apiClient(server.url(), workers));
+        myCrds = new Cache<>();
+        for (int i = 0; i < CUSTOM_RESOURCES; i++) {
+            myCrds.add(new V1MyCrd()
+                    .apiVersion("com.amrut.prabhu/v1")
+                    .kind("my-crd")
+                    .metadata(new V1ObjectMeta()
+                            .namespace("namespace-" + i)
+                            .name("my-crd")
+                            .uid("uid-" + i)
+                            .generation(1L))
+                    .spec(new V1MyCrdSpec().myOwnProperty("value-" + i)));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareController() {
+        server.reset();
+        reconciled = new CountDownLatch(CUSTOM_RESOURCES);
+        queueWaitingWorker = Executors.newSingleThreadExecutor();
+        RateLimitingQueue<Request> workQueue = new DefaultRateLimitingQueue<>(queueWaitingWorker);
+        MyCrdReconciler myCrdReconciler = Fixtures.reconciler(myCrds,
+                Fixtures.configMapPipeline(new Cache<V1ConfigMap>(), Fixtures.configMapWriter(coreV1Api)),
+                workQueue);
+        Reconciler counting = request -> {
+            Result result = myCrdReconciler.reconcile(request);
+            reconciled.countDown();
+            return result;
+        };
+
+        for (String key : myCrds.listKeys()) {
+            String[] namespaceAndName = key.split("/");
+            workQueue.add(new Request(namespaceAndName[0], namespaceAndName[1]));
+        }
+        controller = new DefaultController("benchmark", counting, workQueue);
+        controller.setWorkerCount(workers);
+        controller.setWorkerThreadPool(WorkerPools.newWorkerThreadPool(executor, workers, "benchmark"));
+        controller.setReadyTimeout(Duration.ofSeconds(30));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CUSTOM_RESOURCES)
+    public void reconcileAll() throws InterruptedException {
+        Thread runner = new Thread(controller::run);
+        runner.start();
+        reconciled.await();
+        controller.shutdown();
+        runner.join();
+        queueWaitingWorker.shutdownNow();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        server.close();
+    }
+}
@@ -0,0 +1,106 @@
+package com.amrut.prabhu.benchmarks;
+
+import com.amrut.prabhu.config.ControllerProperties.ExecutorType;
+import com.amrut.prabhu.config.WorkerPools;
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.reconciler.ChildPipeline;
+import com.amrut.prabhu.reconciler.ConfigMapChild;
+import com.amrut.prabhu.reconciler.ConfigMapNaming;
+import com.amrut.prabhu.reconciler.DesiredResources;
+import com.amrut.prabhu.reconciler.MyCrdReconciler;
+import com.amrut.prabhu.write.ConfigMapCoalescer;
+import com.amrut.prabhu.write.ConfigMapWriter;
+import com.google.gson.JsonObject;
+import io.kubernetes.client.extended.controller.DefaultController;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.workqueue.DefaultRateLimitingQueue;
+import io.kubernetes.client.extended.workqueue.RateLimitingQueue;
+import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconciles 2000 custom resources, 20 per namespace, against {@link FakeApiServer} once per ConfigMap
+ * mode: a ConfigMap per custom resource, a shared ConfigMap written on every reconcile, and a shared
+ * ConfigMap with coalesced writes. Reports the writes sent, the write rate, the 409 conflicts and whether
+ * every custom resource's data reached the server. Exits with status 1 when a mode loses data.
+ * <pre>
+ * java -cp kubernetes-controller-benchmarks/target/benchmarks.jar com.amrut.prabhu.benchmarks.WriteCoalescingComparison
+ * </pre>
+ */
+public class WriteCoalescingComparison {
+
+    private static final int CUSTOM_RESOURCES = 2_000;
+    private static final int WORKERS = 16;
+
+    public static void main(String[] args) throws Exception {
+        Cache<V1MyCrd> myCrds = Fixtures.myCrdCache(CUSTOM_RESOURCES);
+        boolean ok = true;
+        try (FakeApiServer server = new FakeApiServer(Duration.ofMillis(2))) {
+            ok &= run(server, myCrds, ConfigMapNaming.PER_RESOURCE, Duration.ZERO);
+            ok &= run(server, myCrds, ConfigMapNaming.SHARED, Duration.ZERO);
+            ok &= run(server, myCrds, ConfigMapNaming.SHARED, Duration.ofMillis(50));
+        }
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean run(FakeApiServer server, Cache<V1MyCrd> myCrds, ConfigMapNaming naming, Duration window)
+            throws InterruptedException {
+        server.reset();
+        ConfigMapWriter configMapWriter = Fixtures.configMapWriter(new CoreV1Api(Fixtures.apiClient(server.url(), WORKERS)));
+        ExecutorService queueWaitingWorker = Executors.newSingleThreadExecutor();
+        RateLimitingQueue<Request> workQueue = new DefaultRateLimitingQueue<>(queueWaitingWorker);
+        try (ConfigMapCoalescer coalescer = new ConfigMapCoalescer(configMapWriter, window, 4, new SimpleMeterRegistry())) {
+            ChildPipeline pipeline = new ChildPipeline(List.of(
+                    new ConfigMapChild(new Cache<V1ConfigMap>(), configMapWriter, naming, coalescer)), null);
+            MyCrdReconciler reconciler = Fixtures.reconciler(myCrds, pipeline, workQueue);
+            for (String key : myCrds.listKeys()) {
+                String[] namespaceAndName = key.split("/");
+                workQueue.add(new Request(namespaceAndName[0], namespaceAndName[1]));
+            }
+            DefaultController controller = new DefaultController("comparison", reconciler, workQueue);
+            controller.setWorkerCount(WORKERS);
+            controller.setWorkerThreadPool(WorkerPools.newWorkerThreadPool(ExecutorType.PLATFORM, WORKERS, "comparison"));
+
+            long startedAt = System.nanoTime();
+            Thread runner = new Thread(controller::run);
+            runner.start();
+            long deadline = startedAt + TimeUnit.MINUTES.toNanos(2);
+            int missing;
+            while ((missing = missing(server, myCrds, naming)) > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            controller.shutdown();
+            runner.join();
+            queueWaitingWorker.shutdownNow();
+
+            long writes = server.requestCount();
+            System.out.printf("%s, window %dms: %d writes in %.2fs (%.0f/s), %d conflicts, %d custom resources missing%n",
+                    naming, window.toMillis(), writes, seconds, writes / seconds, server.conflictCount(), missing);
+            return missing == 0;
+        }
+    }
+
+    private static int missing(FakeApiServer server, Cache<V1MyCrd> myCrds, ConfigMapNaming naming) {
+        int missing = 0;
+        for (V1MyCrd myCrd : myCrds.list()) {
+            String name = myCrd.getMetadata().getName();
+            JsonObject configMap = server.get("configmaps",
+                    myCrd.getMetadata().getNamespace(),
+                    DesiredResources.configMapName(name, naming));
+            JsonObject data = configMap == null ? null : configMap.getAsJsonObject("data");
+            if (data == null || !data.has(DesiredResources.dataKey(name, naming))) {
+                missing++;
+            }
+        }
+        return missing;
+    }
+}
@@ -1,31 +1,93 @@
 package com.amrut.prabhu;
 
+import com.amrut.prabhu.adaptive.ActiveWorkerLimit;
+import com.amrut.prabhu.adaptive.ApiFeedback;
+import com.amrut.prabhu.adaptive.ResyncGovernor;
+import com.amrut.prabhu.config.ControllerProperties;
+import com.amrut.prabhu.config.WorkerPools;
+import com.amrut.prabhu.informer.CacheSnapshotter;
+import com.amrut.prabhu.informer.LabelSelectorListerWatcher;
+import com.amrut.prabhu.informer.MyCrdIndex;
+import com.amrut.prabhu.informer.MyCrdListerWatcher;
+import com.amrut.prabhu.json.MyCrdTypeAdapterFactory;
+import com.amrut.prabhu.json.StringInterner;
+import com.amrut.prabhu.leader.ControllerLeadership;
+import com.amrut.prabhu.leader.FailoverTracker;
+import com.amrut.prabhu.metrics.ApiCallMetricsInterceptor;
+import com.amrut.prabhu.metrics.InformerEventMetrics;
+import com.amrut.prabhu.metrics.InformerSyncMetrics;
+import com.amrut.prabhu.metrics.InstrumentedWorkQueue;
+import com.amrut.prabhu.metrics.TimedReconciler;
 import com.amrut.prabhu.models.V1MyCrd;
 import com.amrut.prabhu.models.V1MyCrdList;
+import com.amrut.prabhu.reconciler.ChildPipeline;
+import com.amrut.prabhu.reconciler.ChildResource;
+import com.amrut.prabhu.reconciler.ConfigMapChild;
+import com.amrut.prabhu.reconciler.DesiredResources;
+import com.amrut.prabhu.reconciler.MyCrdReconciler;
+import com.amrut.prabhu.reconciler.NamespaceFanOut;
+import com.amrut.prabhu.reconciler.ReconcileSkipCache;
+import com.amrut.prabhu.reconciler.RetryPolicy;
+import com.amrut.prabhu.sharding.ShardFilter;
+import com.amrut.prabhu.sharding.ShardingListerWatcher;
+import com.amrut.prabhu.startup.ControllerRuntimeHints;
+import com.amrut.prabhu.tracing.ReconcileTracer;
+import com.amrut.prabhu.tracing.SlowReconcilesEndpoint;
+import com.amrut.prabhu.transport.TransportMode;
+import com.amrut.prabhu.transport.TunedTransport;
+import com.amrut.prabhu.watch.MyCrdWatch;
+import com.amrut.prabhu.watch.OwnedConfigMapWatch;
+import com.amrut.prabhu.watch.OwnedDeploymentWatch;
+import com.amrut.prabhu.watch.WatchPredicates;
+import com.amrut.prabhu.workqueue.PriorityWorkQueue;
+import com.amrut.prabhu.write.ConfigMapCoalescer;
+import com.amrut.prabhu.write.ConfigMapWriter;
+import com.amrut.prabhu.write.ServerSideApply;
+import com.amrut.prabhu.write.StatusWriter;
+import com.amrut.prabhu.write.WriteRateLimiter;
+import io.kubernetes.client.common.KubernetesListObject;
+import io.kubernetes.client.common.KubernetesObject;
 import io.kubernetes.client.extended.controller.Controller;
+import io.kubernetes.client.extended.controller.DefaultController;
 import io.kubernetes.client.extended.controller.builder.ControllerBuilder;
+import io.kubernetes.client.extended.controller.builder.DefaultControllerBuilder;
 import io.kubernetes.client.extended.controller.reconciler.Reconciler;
-import io.kubernetes.client.extended.controller.reconciler.Result;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.workqueue.DefaultRateLimitingQueue;
+import io.kubernetes.client.extended.workqueue.RateLimitingQueue;
+import io.kubernetes.client.informer.ListerWatcher;
 import io.kubernetes.client.informer.SharedIndexInformer;
 import io.kubernetes.client.informer.SharedInformerFactory;
 import io.kubernetes.client.openapi.ApiClient;
-import io.kubernetes.client.openapi.ApiException;
 import io.kubernetes.client.openapi.apis.CoreV1Api;
-import io.kubernetes.client.openapi.models.*;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1ConfigMapList;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.util.ClientBuilder;
 import io.kubernetes.client.util.generic.GenericKubernetesApi;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.tracing.Tracer;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
 
+import java.io.IOException;
 import java.time.Duration;
-import java.time.temporal.ChronoUnit;
-import java.util.Arrays;
-import java.util.Map;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 @SpringBootApplication
+@EnableConfigurationProperties(ControllerProperties.class)
+@ImportRuntimeHints(ControllerRuntimeHints.class)
 public class KubernetesControllerApplication {
 
     public static void main(String[] args) {
@@ -33,46 +95,226 @@ public class KubernetesControllerApplication {
     }
 
     @Bean
-    SharedIndexInformer<V1MyCrd> sharedIndexInformer(SharedInformerFactory sharedInformerFactory, ApiClient apiClient) {
-        GenericKubernetesApi<V1MyCrd, V1MyCrdList> api = new GenericKubernetesApi<>(V1MyCrd.class,
-                V1MyCrdList.class,
-                "com.amrut.prabhu",
+    StringInterner stringInterner() {
+        return new StringInterner();
+    }
+
+    @Bean
+    ApiClient apiClient(StringInterner stringInterner,
+                        ControllerProperties properties,
+                        ObjectProvider<ApiFeedback> apiFeedback,
+                        MeterRegistry meterRegistry) throws IOException {
+        ApiClient apiClient = properties.getApiServerUrl() == null
+                ? ClientBuilder.defaultClient()
+                : new ClientBuilder().setBasePath(properties.getApiServerUrl()).build();
+        // Watches are long-lived, so the read timeout stays disabled as in the autoconfigured client.
+        OkHttpClient.Builder httpClient = apiClient.getHttpClient()
+                .newBuilder()
+                .readTimeout(Duration.ZERO)
+                .dispatcher(WorkerPools.newHttpDispatcher(properties.workerThreads()));
+        ControllerProperties.Transport transport = properties.getTransport();
+        if (transport.getMode() == TransportMode.TUNED) {
+            new TunedTransport(WorkerPools.maxHttpRequests(properties.workerThreads()),
+                    transport.getKeepAlive(),
+                    transport.getPingInterval())
+                    .configure(httpClient);
+        }
+        if (properties.getMetrics().isEnabled()) {
+            httpClient.addInterceptor(new ApiCallMetricsInterceptor(meterRegistry));
+        }
+        apiFeedback.ifAvailable(httpClient::addInterceptor);
+        apiClient.setHttpClient(httpClient.build());
+        // The annotation selector is evaluated on cached objects, so a compact cache must keep annotations for it.
+        MyCrdTypeAdapterFactory.register(apiClient.getJSON(),
+                stringInterner,
+                properties.getInformer().getCacheMode(),
+                properties.getWatch().getAnnotationSelector() != null);
+        return apiClient;
+    }
+
+    @Bean
+    InformerSyncMetrics informerSyncMetrics(MeterRegistry meterRegistry) {
+        return new InformerSyncMetrics(meterRegistry);
+    }
+
+    @Bean
+    SharedIndexInformer<V1MyCrd> sharedIndexInformer(SharedInformerFactory sharedInformerFactory,
+                                                     ApiClient apiClient,
+                                                     ControllerProperties properties,
+                                                     InformerSyncMetrics informerSyncMetrics,
+                                                     ObjectProvider<ShardFilter> shardFilterProvider,
+                                                     ObjectProvider<CacheSnapshotter> cacheSnapshotter,
+                                                     MeterRegistry meterRegistry) {
+        ControllerProperties.Informer informer = properties.getInformer();
+        ShardFilter shardFilter = shardFilterProvider.getIfAvailable();
+        MyCrdListerWatcher listerWatcher = new MyCrdListerWatcher(apiClient,
+                informer.getPageSize(),
+                informer.isInitialListFromWatchCache(),
+                () -> shardFilter == null ? null : shardFilter.labelSelector(),
+                informerSyncMetrics,
+                properties.getTransport().getMode() == TransportMode.TUNED);
+        ListerWatcher<V1MyCrd, V1MyCrdList> source = sharded(listerWatcher, shardFilter);
+        CacheSnapshotter snapshotter = cacheSnapshotter.getIfAvailable();
+        if (snapshotter != null) {
+            // Outside the shard filter, so a snapshot only holds this replica's slice.
+            source = snapshotter.wrap(source, () -> "cacheMode=" + informer.getCacheMode()
+                    + ";annotations=" + (properties.getWatch().getAnnotationSelector() != null)
+                    + ";shard=" + (shardFilter == null ? null : shardFilter.describe()));
+        }
+        SharedIndexInformer<V1MyCrd> sharedIndexInformer = sharedInformerFactory
+                .sharedIndexInformerFor(source, V1MyCrd.class, 0);
+        sharedIndexInformer.addIndexers(MyCrdIndex.indexers());
+        if (properties.getMetrics().isEnabled()) {
+            InformerEventMetrics.register(sharedIndexInformer, MyCrdListerWatcher.PLURAL, meterRegistry);
+        }
+        return sharedIndexInformer;
+    }
+
+    @Bean
+    MyCrdIndex myCrdIndex(SharedIndexInformer<V1MyCrd> sharedIndexInformer) {
+        return new MyCrdIndex(sharedIndexInformer.getIndexer());
+    }
+
+    @Bean
+    SharedIndexInformer<V1ConfigMap> configMapInformer(SharedInformerFactory sharedInformerFactory,
+                                                       ApiClient apiClient,
+                                                       ControllerProperties properties,
+                                                       ObjectProvider<ShardFilter> shardFilterProvider,
+                                                       MeterRegistry meterRegistry) {
+        GenericKubernetesApi<V1ConfigMap, V1ConfigMapList> api = new GenericKubernetesApi<>(V1ConfigMap.class,
+                V1ConfigMapList.class,
+                "",
                 "v1",
-                "my-crds",
+                "configmaps",
                 apiClient);
-        return sharedInformerFactory.sharedIndexInformerFor(api, V1MyCrd.class, 0);
+        ShardFilter shardFilter = shardFilterProvider.getIfAvailable();
+        LabelSelectorListerWatcher<V1ConfigMap, V1ConfigMapList> listerWatcher = new LabelSelectorListerWatcher<>(api,
+                () -> shardFilter == null || shardFilter.labelSelector() == null
+                        ? DesiredResources.MANAGED_SELECTOR
+                        : DesiredResources.MANAGED_SELECTOR + "," + shardFilter.labelSelector());
+        SharedIndexInformer<V1ConfigMap> configMapInformer = sharedInformerFactory
+                .sharedIndexInformerFor(sharded(listerWatcher, shardFilter), V1ConfigMap.class, 0);
+        if (properties.getMetrics().isEnabled()) {
+            InformerEventMetrics.register(configMapInformer, "configmaps", meterRegistry);
+        }
+        return configMapInformer;
     }
 
+    private static <ApiType extends KubernetesObject, ApiListType extends KubernetesListObject>
+    ListerWatcher<ApiType, ApiListType> sharded(ListerWatcher<ApiType, ApiListType> listerWatcher, ShardFilter shardFilter) {
+        return shardFilter == null ? listerWatcher : new ShardingListerWatcher<>(listerWatcher, shardFilter);
+    }
+
+
+    @Bean
+    RateLimitingQueue<Request> workQueue(ControllerProperties properties, MeterRegistry meterRegistry) {
+        ControllerProperties.Workers workers = properties.getWorkers();
+        if (workers.getQueue() == ControllerProperties.QueueType.PRIORITY) {
+            // Records its own per-tier metrics, so it is not wrapped.
+            return new PriorityWorkQueue<>("my-controller",
+                    workers.getStarvationLimit(),
+                    properties.getMetrics().isEnabled() ? meterRegistry : new SimpleMeterRegistry());
+        }
+        RateLimitingQueue<Request> workQueue = new DefaultRateLimitingQueue<>(Executors.newSingleThreadExecutor());
+        return properties.getMetrics().isEnabled()
+                ? new InstrumentedWorkQueue<>(workQueue, "my-controller", meterRegistry)
+                : workQueue;
+    }
 
     @Bean
     Controller controller(SharedInformerFactory shareformerFactory,
                           Reconciler reconsiler,
-                          SharedIndexInformer<V1MyCrd> shareIndexInformer) {
-        return ControllerBuilder
+                          SharedIndexInformer<V1MyCrd> shareIndexInformer,
+                          SharedIndexInformer<V1ConfigMap> configMapInformer,
+                          ObjectProvider<SharedIndexInformer<V1Deployment>> deploymentInformer,
+                          ControllerProperties properties,
+                          RateLimitingQueue<Request> workQueue,
+                          ObjectProvider<FailoverTracker> failoverTracker,
+                          ReconcileTracer reconcileTracer,
+                          ObjectProvider<ActiveWorkerLimit> activeWorkerLimit,
+                          ObjectProvider<ResyncGovernor> resyncGovernor,
+                          MeterRegistry meterRegistry) {
+        ControllerProperties.Workers workers = properties.getWorkers();
+        ControllerProperties.Watch watch = properties.getWatch();
+        Reconciler reconciler = failoverTracker.getIfAvailable() == null
+                ? reconsiler
+                : failoverTracker.getIfAvailable().recordFirstReconcile(reconsiler);
+        if (properties.getMetrics().isEnabled()) {
+            reconciler = new TimedReconciler(reconciler, meterRegistry);
+        }
+        ActiveWorkerLimit workerLimit = activeWorkerLimit.getIfAvailable();
+        if (workerLimit != null) {
+            // Outside the timer, so waiting for a permit does not count as reconcile time.
+            reconciler = workerLimit.limit(reconciler);
+        }
+        ResyncGovernor governor = resyncGovernor.getIfAvailable();
+        // The informer resyncs at the shortest period the governor may need; it drops the surplus.
+        Duration resyncPeriod = governor == null ? watch.getResyncPeriod() : properties.getAdaptive().getMinResyncPeriod();
+        DefaultControllerBuilder builder = ControllerBuilder
                 .defaultBuilder(shareformerFactory)
-                .watch(contrWatchQueue -> ControllerBuilder
-                        .controllerWatchBuilder(V1MyCrd.class, contrWatchQueue)
-                        .withResyncPeriod(Duration.of(1, ChronoUnit.SECONDS))
-                        .build())
-                // .withWorkerCount(2)
-                .withReconciler(reconsiler)
+                // Set before watch(), which hands the builder's current queue to the watch.
+                .withWorkQueue(workQueue)
+                .watch(contrWatchQueue -> new MyCrdWatch(contrWatchQueue,
+                        WatchPredicates.onAdd(watch.getLabelSelector(), watch.getAnnotationSelector()),
+                        WatchPredicates.onUpdate(watch.getUpdateTrigger(),
+                                watch.getLabelSelector(),
+                                watch.getAnnotationSelector()),
+                        resyncPeriod,
+                        reconcileTracer,
+                        governor == null ? ResyncGovernor.admitAll() : governor))
+                .watch(contrWatchQueue -> new OwnedConfigMapWatch(contrWatchQueue, properties.getConfigMap().getNaming()))
+                .withWorkerCount(properties.workerThreads())
+                .withReconciler(reconciler)
                 .withReadyFunc(shareIndexInformer::hasSynced)
-                .withName("My controller")
-                .build();
+                .withReadyFunc(configMapInformer::hasSynced)
+                .withName("My controller");
+        SharedIndexInformer<V1Deployment> deployments = deploymentInformer.getIfAvailable();
+        if (deployments != null) {
+            builder.watch(contrWatchQueue -> new OwnedDeploymentWatch(contrWatchQueue))
+                    .withReadyFunc(deployments::hasSynced);
+        }
+        Controller controller = builder.build();
+        // The builder always creates platform worker threads; swap the pool so the executor type applies.
+        ((DefaultController) controller).setWorkerThreadPool(
+                WorkerPools.newWorkerThreadPool(workers.getExecutor(), properties.workerThreads(), "my-controller"));
+        return controller;
     }
 
     @Bean
-    ExecutorService executorService() {
-        return Executors.newCachedThreadPool();
+    ExecutorService executorService(ControllerProperties properties) {
+        return WorkerPools.newExecutorService(properties.getWorkers().getExecutor());
     }
 
     @Bean
     ApplicationRunner runner(ExecutorService executorService,
                              SharedInformerFactory sharedInformerFactory,
-                             Controller controller) {
+                             SharedIndexInformer<V1MyCrd> shareIndexInformer,
+                             SharedIndexInformer<V1ConfigMap> configMapInformer,
+                             ObjectProvider<SharedIndexInformer<V1Deployment>> deploymentInformer,
+                             InformerSyncMetrics informerSyncMetrics,
+                             Controller controller,
+                             ObjectProvider<ControllerLeadership> controllerLeadership) {
         return args -> executorService.execute(() -> {
+            long startedAt = System.nanoTime();
+            informerSyncMetrics.startTracking();
             sharedInformerFactory.startAllRegisteredInformers();
-            controller.run();
+            try {
+                SharedIndexInformer<V1Deployment> deployments = deploymentInformer.getIfAvailable();
+                if (deployments == null) {
+                    informerSyncMetrics.awaitSynced(startedAt, shareIndexInformer, configMapInformer);
+                } else {
+                    informerSyncMetrics.awaitSynced(startedAt, shareIndexInformer, configMapInformer, deployments);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            ControllerLeadership leadership = controllerLeadership.getIfAvailable();
+            if (leadership == null) {
+                controller.run();
+            } else {
+                leadership.run(controller);
+            }
         });
     }
 
@@ -82,77 +324,121 @@ public class KubernetesControllerApplication {
     }
 
     @Bean
-    Reconciler reconciler(SharedIndexInformer<V1MyCrd> shareIndexInformer,
-                               CoreV1Api coreV1Api) {
-        return request -> {
-            String key = request.getNamespace() + "/" + request.getName();
-
-            V1MyCrd resourceInstance = shareIndexInformer
-                    .getIndexer()
-                    .getByKey(key);
-
-            if (resourceInstance != null) {
-
-                V1ConfigMap v1ConfigMap = createConfigMap(resourceInstance);
-                System.out.println("Creating resource...");
-
-                try {
-                    coreV1Api.createNamespacedConfigMap(request.getNamespace(),
-                            v1ConfigMap,
-                            "true",
-                            null,
-                            "",
-                            "");
-                } catch (ApiException e) {
-                    System.out.println("Creating resource failed");
-                    if (e.getCode() == 409) {
-                        System.out.println("Updating resource...");
-                        try {
-                            coreV1Api.replaceNamespacedConfigMap("my-config-map",
-                                    request.getNamespace(),
-                                    v1ConfigMap,
-                                    "true",
-                                    null,
-                                    "",
-                                    "");
-                        } catch (ApiException ex) {
-                            throw new RuntimeException(ex);
-                        }
-                    } else {
-                        throw new RuntimeException(e);
-                    }
-                }
-                return new Result(false);
-            }
-            return new Result(false);
-
-        };
-    }
-
-    private V1ConfigMap createConfigMap(V1MyCrd resourceInstance) {
-        return new V1ConfigMap()
-                .metadata(new V1ObjectMeta()
-                        .name("my-config-map")
-                        .addOwnerReferencesItem(new V1OwnerReference()
-                                .apiVersion(resourceInstance.getApiVersion())
-                                .kind(resourceInstance.getKind())
-                                .name(resourceInstance.getMetadata().getName())
-                                .uid(resourceInstance.getMetadata().getUid())))
-                .data(Map.of("my-own-property", resourceInstance
-                        .getSpec()
-                        .getMyOwnProperty()));
-    }
-
-    private static V1Deployment createDeployment() {
-        return new V1Deployment()
-                .metadata(new V1ObjectMeta().name("nginx-deploy"))
-                .spec(new V1DeploymentSpec()
-                        .template(new V1PodTemplateSpec()
-                                .metadata(new V1ObjectMeta()
-                                        .labels(Map.of("app", "nginx")))
-                                .spec(new V1PodSpec()
-                                        .containers(Arrays.asList(new V1Container().name("nginx")
-                                                .image("nginx:latest"))))));
+    WriteRateLimiter writeRateLimiter(ControllerProperties properties, MeterRegistry meterRegistry) {
+        ControllerProperties.WriteRate writeRate = properties.getWriteRate();
+        return new WriteRateLimiter(writeRate.getPermitsPerSecond(), writeRate.getBurst(), meterRegistry);
+    }
+
+    @Bean
+    ServerSideApply serverSideApply(ApiClient apiClient,
+                                    ControllerProperties properties,
+                                    WriteRateLimiter writeRateLimiter,
+                                    MeterRegistry meterRegistry) {
+        ControllerProperties.Apply apply = properties.getApply();
+        return new ServerSideApply(apiClient, apply.getFieldManager(), apply.isForce(), writeRateLimiter, meterRegistry);
+    }
+
+    @Bean
+    ConfigMapWriter configMapWriter(CoreV1Api coreV1Api,
+                                    WriteRateLimiter writeRateLimiter,
+                                    ServerSideApply serverSideApply,
+                                    ControllerProperties properties) {
+        return new ConfigMapWriter(coreV1Api,
+                writeRateLimiter,
+                properties.getApply().isEnabled() ? serverSideApply : null);
+    }
+
+    @Bean
+    ConfigMapCoalescer configMapCoalescer(ConfigMapWriter configMapWriter,
+                                          ControllerProperties properties,
+                                          MeterRegistry meterRegistry) {
+        ControllerProperties.ConfigMap configMap = properties.getConfigMap();
+        return new ConfigMapCoalescer(configMapWriter,
+                configMap.getCoalesceWindow(),
+                configMap.getWriterThreads(),
+                meterRegistry);
+    }
+
+    @Bean
+    RetryPolicy retryPolicy(ControllerProperties properties, MeterRegistry meterRegistry) {
+        ControllerProperties.Retry retry = properties.getRetry();
+        return new RetryPolicy(retry.getBaseDelay(), retry.getMaxDelay(), retry.getJitter(), meterRegistry);
+    }
 
+    @Bean
+    ReconcileTracer reconcileTracer(ControllerProperties properties, ObjectProvider<Tracer> tracer) {
+        ControllerProperties.Tracing tracing = properties.getTracing();
+        if (!tracing.isEnabled()) {
+            return ReconcileTracer.disabled();
+        }
+        return new ReconcileTracer(tracing.getSamplingProbability(),
+                tracing.isLog(),
+                tracing.getSlowest(),
+                tracing.getWindow(),
+                tracer.getIfAvailable());
+    }
+
+    // Scrapes would otherwise be traced at the probability reconcile traces need to be exported.
+    @Bean
+    ObservationPredicate actuatorRequestsNotObserved() {
+        return (name, context) -> !(context instanceof ServerRequestObservationContext request
+                && request.getCarrier().getRequestURI().startsWith("/actuator"));
+    }
+
+    @Bean
+    SlowReconcilesEndpoint slowReconcilesEndpoint(ReconcileTracer reconcileTracer) {
+        return new SlowReconcilesEndpoint(reconcileTracer);
+    }
+
+    @Bean
+    ReconcileSkipCache reconcileSkipCache(MeterRegistry meterRegistry) {
+        return new ReconcileSkipCache(meterRegistry);
+    }
+
+    @Bean
+    StatusWriter statusWriter(ApiClient apiClient,
+                              WriteRateLimiter writeRateLimiter,
+                              ControllerProperties properties,
+                              MeterRegistry meterRegistry) {
+        return new StatusWriter(apiClient,
+                writeRateLimiter,
+                properties.getStatus().getCoalesceWindow(),
+                meterRegistry);
+    }
+
+    @Bean
+    ConfigMapChild configMapChild(SharedIndexInformer<V1ConfigMap> configMapInformer,
+                                  ConfigMapWriter configMapWriter,
+                                  ConfigMapCoalescer configMapCoalescer,
+                                  ControllerProperties properties) {
+        return new ConfigMapChild(configMapInformer.getIndexer(),
+                configMapWriter,
+                properties.getConfigMap().getNaming(),
+                configMapCoalescer);
+    }
+
+    @Bean
+    ChildPipeline childPipeline(List<ChildResource<?>> children, ObjectProvider<NamespaceFanOut> namespaceFanOut) {
+        return new ChildPipeline(children, namespaceFanOut.getIfAvailable());
+    }
+
+    @Bean
+    Reconciler reconciler(SharedIndexInformer<V1MyCrd> shareIndexInformer,
+                               ChildPipeline childPipeline,
+                               ReconcileSkipCache reconcileSkipCache,
+                               RetryPolicy retryPolicy,
+                               RateLimitingQueue<Request> workQueue,
+                               StatusWriter statusWriter,
+                               ReconcileTracer reconcileTracer,
+                               ObjectProvider<ShardFilter> shardFilter,
+                               ControllerProperties properties) {
+        return new MyCrdReconciler(shareIndexInformer.getIndexer(),
+                childPipeline,
+                reconcileSkipCache,
+                retryPolicy,
+                workQueue,
+                properties.getStatus().isEnabled() ? statusWriter : null,
+                reconcileTracer,
+                shardFilter.getIfAvailable());
     }
 }
@@ -0,0 +1,67 @@
+package com.amrut.prabhu.adaptive;
+
+import io.kubernetes.client.extended.controller.reconciler.Reconciler;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.controller.reconciler.Result;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps how many workers reconcile at once. The controller starts its full ceiling of worker threads,
+ * since the client cannot add workers to a running controller, and every reconcile takes a permit here
+ * first. Lowering the limit takes effect as running reconciles finish.
+ */
+public class ActiveWorkerLimit {
+
+    private final AdjustableSemaphore permits;
+    private int limit;
+
+    public ActiveWorkerLimit(int limit) {
+        this.limit = limit;
+        this.permits = new AdjustableSemaphore(limit);
+    }
+
+    public synchronized int limit() {
+        return limit;
+    }
+
+    public synchronized void setLimit(int limit) {
+        if (limit > this.limit) {
+            permits.release(limit - this.limit);
+        } else if (limit < this.limit) {
+            permits.reducePermits(this.limit - limit);
+        }
+        this.limit = limit;
+    }
+
+    public Reconciler limit(Reconciler delegate) {
+        return request -> reconcile(delegate, request);
+    }
+
+    private Result reconcile(Reconciler delegate, Request request) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(true);
+        }
+        try {
+            return delegate.reconcile(request);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Exposes reducePermits, which may take the count below zero while reconciles hold permits.
+    private static final class AdjustableSemaphore extends Semaphore {
+
+        AdjustableSemaphore(int permits) {
+            super(permits);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
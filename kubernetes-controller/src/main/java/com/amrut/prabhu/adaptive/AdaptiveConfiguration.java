@@ -0,0 +1,60 @@
+package com.amrut.prabhu.adaptive;
+
+import com.amrut.prabhu.config.ControllerProperties;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.workqueue.RateLimitingQueue;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "controller.adaptive", name = "enabled", havingValue = "true")
+public class AdaptiveConfiguration {
+
+    @Bean
+    ApiFeedback apiFeedback() {
+        return new ApiFeedback();
+    }
+
+    @Bean
+    ActiveWorkerLimit activeWorkerLimit(ControllerProperties properties) {
+        ControllerProperties.Adaptive adaptive = properties.getAdaptive();
+        return new ActiveWorkerLimit(Math.max(adaptive.getMinWorkers(),
+                Math.min(adaptive.getMaxWorkers(), properties.getWorkers().getCount())));
+    }
+
+    @Bean
+    ResyncGovernor resyncGovernor(ControllerProperties properties) {
+        ControllerProperties.Adaptive adaptive = properties.getAdaptive();
+        Duration configured = properties.getWatch().getResyncPeriod();
+        return new ResyncGovernor(adaptive.getMinResyncPeriod(),
+                configured.compareTo(adaptive.getMinResyncPeriod()) < 0 ? adaptive.getMinResyncPeriod()
+                        : configured.compareTo(adaptive.getMaxResyncPeriod()) > 0 ? adaptive.getMaxResyncPeriod()
+                        : configured);
+    }
+
+    @Bean
+    AdaptiveTuner adaptiveTuner(RateLimitingQueue<Request> workQueue,
+                                ApiFeedback apiFeedback,
+                                ActiveWorkerLimit activeWorkerLimit,
+                                ResyncGovernor resyncGovernor,
+                                ControllerProperties properties,
+                                MeterRegistry meterRegistry) {
+        ControllerProperties.Adaptive adaptive = properties.getAdaptive();
+        return new AdaptiveTuner(workQueue,
+                apiFeedback,
+                activeWorkerLimit,
+                resyncGovernor,
+                new AdaptiveTuner.Limits(adaptive.getMinWorkers(),
+                        adaptive.getMaxWorkers(),
+                        adaptive.getMinResyncPeriod(),
+                        adaptive.getMaxResyncPeriod(),
+                        adaptive.getTargetLatency(),
+                        adaptive.getMaxThrottledRatio()),
+                adaptive.getInterval(),
+                meterRegistry);
+    }
+}
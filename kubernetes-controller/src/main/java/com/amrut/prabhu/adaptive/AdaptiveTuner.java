@@ -0,0 +1,133 @@
+package com.amrut.prabhu.adaptive;
+
+import io.kubernetes.client.extended.workqueue.WorkQueue;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sets the number of active workers and the resync period from what the API server reports back, once
+ * per {@code interval}:
+ * <ul>
+ * <li>Overloaded, when the p99 latency of API calls is above the target or more than
+ * {@code maxThrottledRatio} of them were answered 429: a quarter of the workers are stopped and the
+ * resync period is doubled. Workers are not added again for {@code COOLDOWN_INTERVALS}.</li>
+ * <li>Backlogged, when more keys are queued than there are active workers: one worker is added if the
+ * p99 latency is below {@code HEADROOM} of the target, and the resync period is doubled, since resyncs
+ * only add to the backlog.</li>
+ * <li>Idle, with an empty queue and a p99 latency below half the target: the resync period is halved.</li>
+ * </ul>
+ * Workers are added one at a time and removed by a quarter, and between the headroom and the target
+ * nothing changes, so the worker count settles where the API server's latency enters that band instead
+ * of swinging around it. Both values stay within their configured floors and ceilings.
+ */
+public class AdaptiveTuner implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveTuner.class);
+
+    static final double HEADROOM = 0.7;
+    static final int COOLDOWN_INTERVALS = 3;
+
+    private final WorkQueue<?> workQueue;
+    private final ApiFeedback feedback;
+    private final ActiveWorkerLimit workers;
+    private final ResyncGovernor resync;
+    private final Limits limits;
+    private final ScheduledExecutorService scheduler;
+    private int cooldown;
+
+    public AdaptiveTuner(WorkQueue<?> workQueue,
+                         ApiFeedback feedback,
+                         ActiveWorkerLimit workers,
+                         ResyncGovernor resync,
+                         Limits limits,
+                         Duration interval,
+                         MeterRegistry meterRegistry) {
+        this.workQueue = workQueue;
+        this.feedback = feedback;
+        this.workers = workers;
+        this.resync = resync;
+        this.limits = limits;
+        Gauge.builder("controller.adaptive.workers", workers, ActiveWorkerLimit::limit)
+                .description("Workers allowed to reconcile at once")
+                .register(meterRegistry);
+        TimeGauge.builder("controller.adaptive.resync.period", resync, TimeUnit.SECONDS,
+                        governor -> governor.period().toSeconds())
+                .description("Effective resync period")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "adaptive-tuner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = interval.toNanos();
+        scheduler.scheduleAtFixedRate(this::tune, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Adjusts the workers and the resync period once. Called every interval.
+     */
+    public void tune() {
+        try {
+            ApiFeedback.Sample sample = feedback.drain();
+            int depth = workQueue.length();
+            int active = workers.limit();
+            long target = limits.targetLatency().toNanos();
+            if (sample.p99Nanos() > target || sample.throttledRatio() > limits.maxThrottledRatio()) {
+                setWorkers(Math.max(limits.minWorkers(), Math.min(active - 1, active * 3 / 4)), sample, depth);
+                setResync(resync.period().multipliedBy(2));
+                cooldown = COOLDOWN_INTERVALS;
+            } else if (cooldown > 0) {
+                cooldown--;
+            } else if (depth > active) {
+                if (sample.p99Nanos() < target * HEADROOM) {
+                    setWorkers(Math.min(limits.maxWorkers(), active + 1), sample, depth);
+                }
+                setResync(resync.period().multipliedBy(2));
+            } else if (depth == 0 && sample.p99Nanos() < target / 2) {
+                setResync(resync.period().dividedBy(2));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Adaptive tuning failed", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void setWorkers(int count, ApiFeedback.Sample sample, int depth) {
+        int active = workers.limit();
+        if (count != active) {
+            log.debug("Active workers {} -> {}: p99 {} ms, {} of {} calls throttled, {} queued",
+                    active, count, sample.p99Nanos() / 1_000_000, sample.throttled(), sample.calls(), depth);
+            workers.setLimit(count);
+        }
+    }
+
+    private void setResync(Duration period) {
+        Duration bounded = period.compareTo(limits.minResyncPeriod()) < 0 ? limits.minResyncPeriod()
+                : period.compareTo(limits.maxResyncPeriod()) > 0 ? limits.maxResyncPeriod()
+                : period;
+        resync.setPeriod(bounded);
+    }
+
+    /**
+     * Floors, ceilings and targets of the tuner.
+     */
+    public record Limits(int minWorkers,
+                         int maxWorkers,
+                         Duration minResyncPeriod,
+                         Duration maxResyncPeriod,
+                         Duration targetLatency,
+                         double maxThrottledRatio) {
+    }
+}
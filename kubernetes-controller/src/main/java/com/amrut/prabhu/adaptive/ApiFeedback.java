@@ -0,0 +1,71 @@
+package com.amrut.prabhu.adaptive;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Collects what the {@link AdaptiveTuner} steers by: the latency of every API call except watches, and
+ * how many calls were answered with 429 Too Many Requests. Latencies go into a fixed-size reservoir per
+ * interval, so a busy interval costs no more memory than a quiet one.
+ */
+public class ApiFeedback implements Interceptor {
+
+    private static final int RESERVOIR_SIZE = 4096;
+
+    private final long[] latencies = new long[RESERVOIR_SIZE];
+    private long calls;
+    private long throttled;
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if ("true".equals(request.url().queryParameter("watch"))) {
+            return chain.proceed(request);
+        }
+        long startedAt = System.nanoTime();
+        Response response = chain.proceed(request);
+        record(System.nanoTime() - startedAt, response.code() == 429);
+        return response;
+    }
+
+    synchronized void record(long latencyNanos, boolean tooManyRequests) {
+        if (calls < RESERVOIR_SIZE) {
+            latencies[(int) calls] = latencyNanos;
+        } else {
+            long slot = ThreadLocalRandom.current().nextLong(calls + 1);
+            if (slot < RESERVOIR_SIZE) {
+                latencies[(int) slot] = latencyNanos;
+            }
+        }
+        calls++;
+        if (tooManyRequests) {
+            throttled++;
+        }
+    }
+
+    /**
+     * Returns what was recorded since the previous call and starts a new interval.
+     */
+    public synchronized Sample drain() {
+        int sampled = (int) Math.min(calls, RESERVOIR_SIZE);
+        long[] sorted = Arrays.copyOf(latencies, sampled);
+        Arrays.sort(sorted);
+        long p99 = sampled == 0 ? 0 : sorted[Math.max(0, (int) Math.ceil(0.99 * sampled) - 1)];
+        Sample sample = new Sample(calls, throttled, p99);
+        calls = 0;
+        throttled = 0;
+        return sample;
+    }
+
+    public record Sample(long calls, long throttled, long p99Nanos) {
+
+        public double throttledRatio() {
+            return calls == 0 ? 0 : (double) throttled / calls;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.amrut.prabhu.adaptive;
+
+import java.time.Duration;
+
+/**
+ * Stretches the resync period without touching the informer, whose period is fixed once it starts. The
+ * informer resyncs every {@code basePeriod}, delivering all its objects in one burst; the governor lets a
+ * whole burst through only when the current period has passed since the last one it let through, and
+ * drops the others. Needs no state per object.
+ */
+public class ResyncGovernor {
+
+    private final long basePeriodNanos;
+    private volatile long periodNanos;
+    private long lastResyncAt;
+    private long lastAdmittedAt;
+    private boolean admitting;
+
+    public ResyncGovernor(Duration basePeriod, Duration period) {
+        this.basePeriodNanos = basePeriod.toNanos();
+        this.periodNanos = period.toNanos();
+        this.lastResyncAt = System.nanoTime();
+        this.lastAdmittedAt = lastResyncAt;
+    }
+
+    /**
+     * A governor that lets every resync through.
+     */
+    public static ResyncGovernor admitAll() {
+        return new ResyncGovernor(Duration.ZERO, Duration.ZERO);
+    }
+
+    public Duration period() {
+        return Duration.ofNanos(periodNanos);
+    }
+
+    public void setPeriod(Duration period) {
+        this.periodNanos = period.toNanos();
+    }
+
+    /**
+     * Called for every resync event. A resync more than half a base period after the previous one starts
+     * a new burst, which is admitted or dropped as a whole.
+     */
+    public synchronized boolean admit() {
+        if (periodNanos <= basePeriodNanos) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (now - lastResyncAt > basePeriodNanos / 2) {
+            admitting = now - lastAdmittedAt >= periodNanos - basePeriodNanos / 2;
+            if (admitting) {
+                lastAdmittedAt = now;
+            }
+        }
+        lastResyncAt = now;
+        return admitting;
+    }
+}
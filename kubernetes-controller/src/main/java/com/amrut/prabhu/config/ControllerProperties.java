@@ -0,0 +1,986 @@
+package com.amrut.prabhu.config;
+
+import com.amrut.prabhu.json.CacheMode;
+import com.amrut.prabhu.reconciler.ConfigMapNaming;
+import com.amrut.prabhu.sharding.ShardingMode;
+import com.amrut.prabhu.transport.TransportMode;
+import com.amrut.prabhu.watch.UpdateTrigger;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@ConfigurationProperties(prefix = "controller")
+public class ControllerProperties {
+
+    /**
+     * Unique name of this replica in shard groups and leader elections; defaults to the pod's hostname.
+     */
+    private String identity;
+
+    /**
+     * Plain HTTP URL of an API server that needs no credentials, such as {@code kubectl proxy} or the fake
+     * API server of the benchmarks; unset uses the kubeconfig or the in-cluster service account.
+     */
+    private String apiServerUrl;
+
+    /**
+     * Exit as soon as the context is refreshed, before any informer starts; the {@code cds} build profile
+     * records its class data sharing archive from such a run.
+     */
+    private boolean trainingRun = false;
+
+    private final Workers workers = new Workers();
+    private final Informer informer = new Informer();
+    private final Watch watch = new Watch();
+    private final Sharding sharding = new Sharding();
+    private final LeaderElection leaderElection = new LeaderElection();
+    private final Metrics metrics = new Metrics();
+    private final Retry retry = new Retry();
+    private final ConfigMap configMap = new ConfigMap();
+    private final WriteRate writeRate = new WriteRate();
+    private final Apply apply = new Apply();
+    private final Children children = new Children();
+    private final Status status = new Status();
+    private final FanOut fanOut = new FanOut();
+    private final Transport transport = new Transport();
+    private final Tracing tracing = new Tracing();
+    private final Adaptive adaptive = new Adaptive();
+
+    public String resolveIdentity() {
+        if (identity != null && !identity.isBlank()) {
+            return identity;
+        }
+        String hostname = System.getenv("HOSTNAME");
+        return hostname != null && !hostname.isBlank() ? hostname : UUID.randomUUID().toString();
+    }
+
+    public String getIdentity() {
+        return identity;
+    }
+
+    public void setIdentity(String identity) {
+        this.identity = identity;
+    }
+
+    public String getApiServerUrl() {
+        return apiServerUrl;
+    }
+
+    public void setApiServerUrl(String apiServerUrl) {
+        this.apiServerUrl = apiServerUrl;
+    }
+
+    public boolean isTrainingRun() {
+        return trainingRun;
+    }
+
+    public void setTrainingRun(boolean trainingRun) {
+        this.trainingRun = trainingRun;
+    }
+
+    public Workers getWorkers() {
+        return workers;
+    }
+
+    public Informer getInformer() {
+        return informer;
+    }
+
+    public Watch getWatch() {
+        return watch;
+    }
+
+    public Sharding getSharding() {
+        return sharding;
+    }
+
+    public LeaderElection getLeaderElection() {
+        return leaderElection;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public Retry getRetry() {
+        return retry;
+    }
+
+    public ConfigMap getConfigMap() {
+        return configMap;
+    }
+
+    public WriteRate getWriteRate() {
+        return writeRate;
+    }
+
+    public Apply getApply() {
+        return apply;
+    }
+
+    public Children getChildren() {
+        return children;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public FanOut getFanOut() {
+        return fanOut;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public Tracing getTracing() {
+        return tracing;
+    }
+
+    public Adaptive getAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Worker threads the controller starts: the configured count, or the adaptive ceiling.
+     */
+    public int workerThreads() {
+        return adaptive.isEnabled() ? adaptive.getMaxWorkers() : workers.getCount();
+    }
+
+    public static class Workers {
+
+        /**
+         * Number of reconcile workers. The work queue never hands the same key to two workers at once,
+         * whatever this is set to.
+         */
+        private int count = 2;
+
+        /**
+         * Kind of threads the workers and the bootstrap executor run on.
+         */
+        private ExecutorType executor = ExecutorType.PLATFORM;
+
+        /**
+         * Order in which queued keys reach the workers.
+         */
+        private QueueType queue = QueueType.FIFO;
+
+        /**
+         * With the priority queue, how many times in a row a waiting lower tier may be passed over before
+         * it is served anyway.
+         */
+        private int starvationLimit = 10;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public ExecutorType getExecutor() {
+            return executor;
+        }
+
+        public void setExecutor(ExecutorType executor) {
+            this.executor = executor;
+        }
+
+        public QueueType getQueue() {
+            return queue;
+        }
+
+        public void setQueue(QueueType queue) {
+            this.queue = queue;
+        }
+
+        public int getStarvationLimit() {
+            return starvationLimit;
+        }
+
+        public void setStarvationLimit(int starvationLimit) {
+            this.starvationLimit = starvationLimit;
+        }
+    }
+
+    public static class Informer {
+
+        /**
+         * Maximum number of custom resources per LIST page; 0 lists everything in one response.
+         */
+        private int pageSize = 500;
+
+        /**
+         * Start with resourceVersion=0 so the API server answers the first LIST from its watch cache
+         * instead of etcd. The watch cache does not paginate, so the page size is ignored for that LIST.
+         */
+        private boolean initialListFromWatchCache = false;
+
+        /**
+         * How much of each custom resource the informer cache keeps; the compact modes drop the metadata
+         * the controller never reads and cut heap per cached object.
+         */
+        private CacheMode cacheMode = CacheMode.FULL;
+
+        /**
+         * File the custom resource cache is snapshotted to, on a persistent volume. On restart the cache
+         * is loaded from it and the watch resumes from the saved resourceVersion; unset disables snapshots.
+         */
+        private String snapshotPath;
+
+        /**
+         * How often the snapshot is rewritten; nothing is written while the cache is unchanged.
+         */
+        private Duration snapshotInterval = Duration.ofMinutes(1);
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public boolean isInitialListFromWatchCache() {
+            return initialListFromWatchCache;
+        }
+
+        public void setInitialListFromWatchCache(boolean initialListFromWatchCache) {
+            this.initialListFromWatchCache = initialListFromWatchCache;
+        }
+
+        public CacheMode getCacheMode() {
+            return cacheMode;
+        }
+
+        public void setCacheMode(CacheMode cacheMode) {
+            this.cacheMode = cacheMode;
+        }
+
+        public String getSnapshotPath() {
+            return snapshotPath;
+        }
+
+        public void setSnapshotPath(String snapshotPath) {
+            this.snapshotPath = snapshotPath;
+        }
+
+        public Duration getSnapshotInterval() {
+            return snapshotInterval;
+        }
+
+        public void setSnapshotInterval(Duration snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+        }
+    }
+
+    public static class Metrics {
+
+        /**
+         * Instrument the work queue, the reconciler, API calls and informer events. When off, none of the
+         * instrumenting wrappers are installed, so the reconcile path is the uninstrumented one.
+         */
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class ConfigMap {
+
+        /**
+         * Whether custom resources share one ConfigMap per namespace or each own one.
+         */
+        private ConfigMapNaming naming = ConfigMapNaming.SHARED;
+
+        /**
+         * How long changes to a shared ConfigMap are gathered before they are written as one patch; 0
+         * writes every change on its own.
+         */
+        private Duration coalesceWindow = Duration.ofMillis(50);
+
+        /**
+         * Threads sending coalesced writes, so batches for different namespaces go out in parallel.
+         */
+        private int writerThreads = 4;
+
+        public ConfigMapNaming getNaming() {
+            return naming;
+        }
+
+        public void setNaming(ConfigMapNaming naming) {
+            this.naming = naming;
+        }
+
+        public Duration getCoalesceWindow() {
+            return coalesceWindow;
+        }
+
+        public void setCoalesceWindow(Duration coalesceWindow) {
+            this.coalesceWindow = coalesceWindow;
+        }
+
+        public int getWriterThreads() {
+            return writerThreads;
+        }
+
+        public void setWriterThreads(int writerThreads) {
+            this.writerThreads = writerThreads;
+        }
+    }
+
+    public static class Retry {
+
+        /**
+         * Delay before the first retry of a failed reconcile; doubles with every further failure.
+         */
+        private Duration baseDelay = Duration.ofMillis(200);
+
+        private Duration maxDelay = Duration.ofSeconds(60);
+
+        /**
+         * Fraction by which each delay is randomly lengthened or shortened.
+         */
+        private double jitter = 0.2;
+
+        public Duration getBaseDelay() {
+            return baseDelay;
+        }
+
+        public void setBaseDelay(Duration baseDelay) {
+            this.baseDelay = baseDelay;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public double getJitter() {
+            return jitter;
+        }
+
+        public void setJitter(double jitter) {
+            this.jitter = jitter;
+        }
+    }
+
+    public static class WriteRate {
+
+        /**
+         * Sustained writes per second across all workers; 0 disables the limit.
+         */
+        private double permitsPerSecond = 20;
+
+        /**
+         * Writes allowed back to back before the sustained rate applies.
+         */
+        private int burst = 40;
+
+        public double getPermitsPerSecond() {
+            return permitsPerSecond;
+        }
+
+        public void setPermitsPerSecond(double permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+
+    public static class Apply {
+
+        /**
+         * Write per-resource ConfigMaps and Deployments with server-side apply instead of create and
+         * patch. The shared ConfigMap keeps its coalesced strategic merge patches.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Field manager the applied fields are recorded under.
+         */
+        private String fieldManager = "my-crd-controller";
+
+        /**
+         * Take over fields another manager has changed. When off, such an apply fails with 409 Conflict
+         * and is retried with backoff, leaving the other manager's value in place.
+         */
+        private boolean force = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getFieldManager() {
+            return fieldManager;
+        }
+
+        public void setFieldManager(String fieldManager) {
+            this.fieldManager = fieldManager;
+        }
+
+        public boolean isForce() {
+            return force;
+        }
+
+        public void setForce(boolean force) {
+            this.force = force;
+        }
+    }
+
+    public static class Children {
+
+        /**
+         * Manage an nginx Deployment per custom resource next to its ConfigMap. Both are written in
+         * parallel, so a reconcile waits for the slower write rather than for both in turn.
+         */
+        private boolean deployment = true;
+
+        public boolean isDeployment() {
+            return deployment;
+        }
+
+        public void setDeployment(boolean deployment) {
+            this.deployment = deployment;
+        }
+    }
+
+    public static class Status {
+
+        /**
+         * Report observedGeneration, a Ready condition and the last applied hash in the status
+         * subresource of each custom resource.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How long status updates for one custom resource are gathered; only the latest is written.
+         * {@code 0} writes each update on its own.
+         */
+        private Duration coalesceWindow = Duration.ofMillis(500);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getCoalesceWindow() {
+            return coalesceWindow;
+        }
+
+        public void setCoalesceWindow(Duration coalesceWindow) {
+            this.coalesceWindow = coalesceWindow;
+        }
+    }
+
+    public static class FanOut {
+
+        /**
+         * Copy the ConfigMap of each custom resource into the namespaces listed in its
+         * {@code target-namespaces}. Cannot be combined with sharding.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Fan-out writes in flight at once, across all custom resources. Further writes wait for a
+         * response, so one custom resource listing many namespaces cannot flood the API server.
+         */
+        private int maxInFlight = 32;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+    }
+
+    public static class Transport {
+
+        /**
+         * How the client talks to the API server: the autoconfigured OkHttp client, or tuned connection
+         * settings with streamed custom resource watch events.
+         */
+        private TransportMode mode = TransportMode.DEFAULT;
+
+        /**
+         * How long an idle connection is kept in the tuned mode's pool.
+         */
+        private Duration keepAlive = Duration.ofMinutes(5);
+
+        /**
+         * Interval of HTTP/2 pings in the tuned mode; a connection that misses one is closed.
+         */
+        private Duration pingInterval = Duration.ofSeconds(30);
+
+        public TransportMode getMode() {
+            return mode;
+        }
+
+        public void setMode(TransportMode mode) {
+            this.mode = mode;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public Duration getPingInterval() {
+            return pingInterval;
+        }
+
+        public void setPingInterval(Duration pingInterval) {
+            this.pingInterval = pingInterval;
+        }
+    }
+
+    public static class Tracing {
+
+        /**
+         * Time every custom resource from its watch event to the end of its reconcile, broken down by
+         * phase, and keep the slowest for the {@code reconciles} actuator endpoint.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Fraction of traces exported as spans and, if enabled, written to the log. The slowest traces are
+         * kept whether they are sampled or not.
+         */
+        private double samplingProbability = 0.1;
+
+        /**
+         * Write each sampled trace to the log as one line.
+         */
+        private boolean log = false;
+
+        /**
+         * How many of the slowest traces the endpoint lists.
+         */
+        private int slowest = 100;
+
+        /**
+         * How long a trace counts as recent.
+         */
+        private Duration window = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSamplingProbability() {
+            return samplingProbability;
+        }
+
+        public void setSamplingProbability(double samplingProbability) {
+            this.samplingProbability = samplingProbability;
+        }
+
+        public boolean isLog() {
+            return log;
+        }
+
+        public void setLog(boolean log) {
+            this.log = log;
+        }
+
+        public int getSlowest() {
+            return slowest;
+        }
+
+        public void setSlowest(int slowest) {
+            this.slowest = slowest;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+    }
+
+    public static class Adaptive {
+
+        /**
+         * Set the number of active workers and the resync period from queue depth, API latency and 429
+         * responses, within the limits below. Off, both stay as configured.
+         */
+        private boolean enabled = false;
+
+        private int minWorkers = 1;
+
+        /**
+         * Worker threads started in adaptive mode; at most this many reconcile at once.
+         */
+        private int maxWorkers = 32;
+
+        /**
+         * Shortest effective resync period, and the period the informer resyncs with in adaptive mode.
+         */
+        private Duration minResyncPeriod = Duration.ofMinutes(1);
+
+        private Duration maxResyncPeriod = Duration.ofHours(1);
+
+        /**
+         * p99 latency of API calls, watches excepted, above which the API server counts as overloaded.
+         */
+        private Duration targetLatency = Duration.ofSeconds(1);
+
+        /**
+         * Fraction of API calls answered 429 above which the API server counts as overloaded.
+         */
+        private double maxThrottledRatio = 0.01;
+
+        /**
+         * How often the workers and the resync period are adjusted.
+         */
+        private Duration interval = Duration.ofSeconds(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMinWorkers() {
+            return minWorkers;
+        }
+
+        public void setMinWorkers(int minWorkers) {
+            this.minWorkers = minWorkers;
+        }
+
+        public int getMaxWorkers() {
+            return maxWorkers;
+        }
+
+        public void setMaxWorkers(int maxWorkers) {
+            this.maxWorkers = maxWorkers;
+        }
+
+        public Duration getMinResyncPeriod() {
+            return minResyncPeriod;
+        }
+
+        public void setMinResyncPeriod(Duration minResyncPeriod) {
+            this.minResyncPeriod = minResyncPeriod;
+        }
+
+        public Duration getMaxResyncPeriod() {
+            return maxResyncPeriod;
+        }
+
+        public void setMaxResyncPeriod(Duration maxResyncPeriod) {
+            this.maxResyncPeriod = maxResyncPeriod;
+        }
+
+        public Duration getTargetLatency() {
+            return targetLatency;
+        }
+
+        public void setTargetLatency(Duration targetLatency) {
+            this.targetLatency = targetLatency;
+        }
+
+        public double getMaxThrottledRatio() {
+            return maxThrottledRatio;
+        }
+
+        public void setMaxThrottledRatio(double maxThrottledRatio) {
+            this.maxThrottledRatio = maxThrottledRatio;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+    }
+
+    public static class Watch {
+
+        /**
+         * How often every custom resource is reconciled regardless of events; 0 turns the resync off.
+         * Changes to owned ConfigMaps are watched, so drift is repaired without it.
+         */
+        private Duration resyncPeriod = Duration.ofMinutes(10);
+
+        /**
+         * Which custom resource updates are reconciled.
+         */
+        private UpdateTrigger updateTrigger = UpdateTrigger.GENERATION;
+
+        /**
+         * Only reconcile custom resources whose labels match, e.g. {@code tier=backend,track!=canary}.
+         */
+        private String labelSelector;
+
+        /**
+         * Only reconcile custom resources whose annotations match, with the label selector's syntax.
+         */
+        private String annotationSelector;
+
+        public Duration getResyncPeriod() {
+            return resyncPeriod;
+        }
+
+        public void setResyncPeriod(Duration resyncPeriod) {
+            this.resyncPeriod = resyncPeriod;
+        }
+
+        public UpdateTrigger getUpdateTrigger() {
+            return updateTrigger;
+        }
+
+        public void setUpdateTrigger(UpdateTrigger updateTrigger) {
+            this.updateTrigger = updateTrigger;
+        }
+
+        public String getLabelSelector() {
+            return labelSelector;
+        }
+
+        public void setLabelSelector(String labelSelector) {
+            this.labelSelector = labelSelector;
+        }
+
+        public String getAnnotationSelector() {
+            return annotationSelector;
+        }
+
+        public void setAnnotationSelector(String annotationSelector) {
+            this.annotationSelector = annotationSelector;
+        }
+    }
+
+    public static class Sharding {
+
+        /**
+         * Split the custom resources between replicas instead of every replica watching all of them.
+         */
+        private boolean enabled = false;
+
+        private ShardingMode mode = ShardingMode.NAMESPACE;
+
+        /**
+         * Number of label buckets in label mode; custom resources are labelled with a bucket from 0 to
+         * this count minus one.
+         */
+        private int shardCount = 16;
+
+        /**
+         * Namespace holding the membership Leases.
+         */
+        private String leaseNamespace = "default";
+
+        /**
+         * Name shared by the replicas that split the work; used for the Lease names and labels.
+         */
+        private String group = "my-crd-controller";
+
+        private Duration leaseDuration = Duration.ofSeconds(15);
+
+        private Duration renewInterval = Duration.ofSeconds(5);
+
+        /**
+         * Points per replica on the hash ring; more points spread the slices more evenly.
+         */
+        private int virtualNodes = 64;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public ShardingMode getMode() {
+            return mode;
+        }
+
+        public void setMode(ShardingMode mode) {
+            this.mode = mode;
+        }
+
+        public int getShardCount() {
+            return shardCount;
+        }
+
+        public void setShardCount(int shardCount) {
+            this.shardCount = shardCount;
+        }
+
+        public String getLeaseNamespace() {
+            return leaseNamespace;
+        }
+
+        public void setLeaseNamespace(String leaseNamespace) {
+            this.leaseNamespace = leaseNamespace;
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        public void setGroup(String group) {
+            this.group = group;
+        }
+
+        public Duration getLeaseDuration() {
+            return leaseDuration;
+        }
+
+        public void setLeaseDuration(Duration leaseDuration) {
+            this.leaseDuration = leaseDuration;
+        }
+
+        public Duration getRenewInterval() {
+            return renewInterval;
+        }
+
+        public void setRenewInterval(Duration renewInterval) {
+            this.renewInterval = renewInterval;
+        }
+
+        public int getVirtualNodes() {
+            return virtualNodes;
+        }
+
+        public void setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+        }
+    }
+
+    public static class LeaderElection {
+
+        /**
+         * Reconcile only on the replica holding the leader Lease; the others keep warm caches as standbys.
+         */
+        private boolean enabled = false;
+
+        private String leaseNamespace = "default";
+
+        private String leaseName = "my-crd-controller-leader";
+
+        private Duration leaseDuration = Duration.ofSeconds(15);
+
+        private Duration renewDeadline = Duration.ofSeconds(10);
+
+        private Duration retryPeriod = Duration.ofSeconds(2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getLeaseNamespace() {
+            return leaseNamespace;
+        }
+
+        public void setLeaseNamespace(String leaseNamespace) {
+            this.leaseNamespace = leaseNamespace;
+        }
+
+        public String getLeaseName() {
+            return leaseName;
+        }
+
+        public void setLeaseName(String leaseName) {
+            this.leaseName = leaseName;
+        }
+
+        public Duration getLeaseDuration() {
+            return leaseDuration;
+        }
+
+        public void setLeaseDuration(Duration leaseDuration) {
+            this.leaseDuration = leaseDuration;
+        }
+
+        public Duration getRenewDeadline() {
+            return renewDeadline;
+        }
+
+        public void setRenewDeadline(Duration renewDeadline) {
+            this.renewDeadline = renewDeadline;
+        }
+
+        public Duration getRetryPeriod() {
+            return retryPeriod;
+        }
+
+        public void setRetryPeriod(Duration retryPeriod) {
+            this.retryPeriod = retryPeriod;
+        }
+    }
+
+    public enum ExecutorType {
+        PLATFORM,
+        /**
+         * One virtual thread per worker. Needs a Java 21 runtime.
+         */
+        VIRTUAL
+    }
+
+    public enum QueueType {
+        /**
+         * The client's default queue: keys are served in the order they were added.
+         */
+        FIFO,
+        /**
+         * Changed custom resources first, then repairs of drifted children, then resyncs.
+         */
+        PRIORITY
+    }
+}
@@ -0,0 +1,75 @@
+package com.amrut.prabhu.config;
+
+import com.amrut.prabhu.config.ControllerProperties.ExecutorType;
+import okhttp3.Dispatcher;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the thread pools the controller runs on. Virtual threads are looked up reflectively so the
+ * project still builds with {@code java.version} 17 and only needs Java 21 when they are selected.
+ */
+public final class WorkerPools {
+
+    private WorkerPools() {
+    }
+
+    public static ScheduledExecutorService newWorkerThreadPool(ExecutorType type, int workerCount, String name) {
+        return Executors.newScheduledThreadPool(workerCount, threadFactory(type, name + "-worker-"));
+    }
+
+    public static ExecutorService newExecutorService(ExecutorType type) {
+        if (type == ExecutorType.VIRTUAL) {
+            try {
+                return (ExecutorService) Executors.class
+                        .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                        .invoke(null, virtualThreadFactory("controller-"));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Virtual thread executors need a Java 21 runtime", e);
+            }
+        }
+        return Executors.newCachedThreadPool();
+    }
+
+    /**
+     * The OkHttp dispatcher async API calls run on. Its default of 5 calls per host would cap the child
+     * writes all workers have in flight, so it allows a few per worker.
+     */
+    public static Dispatcher newHttpDispatcher(int workerCount) {
+        Dispatcher dispatcher = new Dispatcher();
+        int maxRequests = maxHttpRequests(workerCount);
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequests);
+        return dispatcher;
+    }
+
+    /**
+     * Calls the dispatcher of {@link #newHttpDispatcher} allows in flight.
+     */
+    public static int maxHttpRequests(int workerCount) {
+        return Math.max(64, 4 * workerCount);
+    }
+
+    private static ThreadFactory threadFactory(ExecutorType type, String prefix) {
+        if (type == ExecutorType.VIRTUAL) {
+            return virtualThreadFactory(prefix);
+        }
+        AtomicInteger index = new AtomicInteger();
+        return runnable -> new Thread(runnable, prefix + index.getAndIncrement());
+    }
+
+    private static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual thread workers need a Java 21 runtime", e);
+        }
+    }
+}
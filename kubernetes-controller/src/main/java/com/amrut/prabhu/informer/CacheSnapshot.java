@@ -0,0 +1,13 @@
+package com.amrut.prabhu.informer;
+
+import com.amrut.prabhu.models.V1MyCrd;
+
+import java.util.List;
+
+/**
+ * The custom resources an informer held and the resourceVersion they are current to. {@code scope}
+ * describes what the informer was watching; a snapshot is only restored into an informer with the same
+ * scope.
+ */
+public record CacheSnapshot(String scope, String resourceVersion, List<V1MyCrd> items) {
+}
@@ -0,0 +1,167 @@
+package com.amrut.prabhu.informer;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdList;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import io.kubernetes.client.informer.ListerWatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Periodically writes the custom resource cache to a file and restores it on the next start, see
+ * {@link SnapshotListerWatcher}. The file is a small header (format version, scope, resourceVersion,
+ * item count) followed by one length-prefixed record per custom resource, encoded with the client's Gson
+ * so it holds exactly what the configured cache mode keeps. It is written to a temporary file and moved
+ * into place, so a crash mid-write leaves the previous snapshot intact.
+ */
+public class CacheSnapshotter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheSnapshotter.class);
+    private static final int MAGIC = 0x4d435253;
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path file;
+    private final Duration interval;
+    private final TypeAdapter<V1MyCrd> adapter;
+    private final Timer writes;
+    private ScheduledExecutorService scheduler;
+    private volatile SnapshotListerWatcher source;
+    private String savedResourceVersion;
+
+    public CacheSnapshotter(Path file, Duration interval, Gson gson, MeterRegistry meterRegistry) {
+        this.file = file;
+        this.interval = interval;
+        this.adapter = gson.getAdapter(V1MyCrd.class);
+        this.writes = Timer.builder("controller.informer.snapshot.write")
+                .description("Time spent writing the custom resource cache snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Wraps the informer's list-watch so it restores from, and is saved to, the snapshot file. Call once.
+     */
+    public synchronized ListerWatcher<V1MyCrd, V1MyCrdList> wrap(ListerWatcher<V1MyCrd, V1MyCrdList> delegate,
+                                                                  Supplier<String> scope) {
+        SnapshotListerWatcher listerWatcher = new SnapshotListerWatcher(delegate, scope, () -> read(scope.get()));
+        source = listerWatcher;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::saveQuietly, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        return listerWatcher;
+    }
+
+    /**
+     * Writes the current cache unless it is unchanged since the last write.
+     */
+    public synchronized void save() throws IOException {
+        CacheSnapshot snapshot = source == null ? null : source.snapshot();
+        if (snapshot == null || snapshot.resourceVersion().equals(savedResourceVersion)) {
+            return;
+        }
+        Timer.Sample sample = Timer.start();
+        write(snapshot);
+        long nanos = sample.stop(writes);
+        savedResourceVersion = snapshot.resourceVersion();
+        log.debug("Wrote {} custom resources at resourceVersion {} to {} in {} ms",
+                snapshot.items().size(), snapshot.resourceVersion(), file, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    /**
+     * Reads the snapshot, or returns null when there is none, it cannot be read or it was taken for a
+     * different scope.
+     */
+    public CacheSnapshot read(String scope) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                log.warn("Ignoring snapshot {}: unknown format", file);
+                return null;
+            }
+            String snapshotScope = in.readUTF();
+            if (!Objects.equals(snapshotScope, scope)) {
+                log.info("Ignoring snapshot {}: taken for '{}', now watching '{}'", file, snapshotScope, scope);
+                return null;
+            }
+            String resourceVersion = in.readUTF();
+            int count = in.readInt();
+            List<V1MyCrd> items = new ArrayList<>(count);
+            byte[] buffer = new byte[4096];
+            for (int i = 0; i < count; i++) {
+                int length = in.readInt();
+                if (length > buffer.length) {
+                    buffer = new byte[Math.max(length, buffer.length * 2)];
+                }
+                in.readFully(buffer, 0, length);
+                items.add(adapter.fromJson(new String(buffer, 0, length, StandardCharsets.UTF_8)));
+            }
+            return new CacheSnapshot(snapshotScope, resourceVersion, items);
+        } catch (IOException | JsonParseException e) {
+            log.warn("Ignoring snapshot {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        saveQuietly();
+    }
+
+    private void write(CacheSnapshot snapshot) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(snapshot.scope());
+            out.writeUTF(snapshot.resourceVersion());
+            out.writeInt(snapshot.items().size());
+            for (V1MyCrd item : snapshot.items()) {
+                byte[] record = adapter.toJson(item).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(record.length);
+                out.write(record);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Writing snapshot {} failed: {}", file, e.toString());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.amrut.prabhu.informer;
+
+import io.kubernetes.client.common.KubernetesListObject;
+import io.kubernetes.client.common.KubernetesObject;
+import io.kubernetes.client.informer.ListerWatcher;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.util.CallGeneratorParams;
+import io.kubernetes.client.util.Watchable;
+import io.kubernetes.client.util.generic.GenericKubernetesApi;
+import io.kubernetes.client.util.generic.options.ListOptions;
+
+import java.util.function.Supplier;
+
+/**
+ * Cluster-wide list-watch that only asks the API server for objects matching a label selector. The
+ * selector is read again on every list and watch, so it can follow a changing shard slice.
+ */
+public class LabelSelectorListerWatcher<ApiType extends KubernetesObject, ApiListType extends KubernetesListObject>
+        implements ListerWatcher<ApiType, ApiListType> {
+
+    private final GenericKubernetesApi<ApiType, ApiListType> api;
+    private final Supplier<String> labelSelector;
+
+    public LabelSelectorListerWatcher(GenericKubernetesApi<ApiType, ApiListType> api, Supplier<String> labelSelector) {
+        this.api = api;
+        this.labelSelector = labelSelector;
+    }
+
+    @Override
+    public ApiListType list(CallGeneratorParams params) throws ApiException {
+        return api.list(listOptions(params))
+                .throwsApiException()
+                .getObject();
+    }
+
+    @Override
+    public Watchable<ApiType> watch(CallGeneratorParams params) throws ApiException {
+        return api.watch(listOptions(params));
+    }
+
+    private ListOptions listOptions(CallGeneratorParams params) {
+        ListOptions listOptions = new ListOptions();
+        listOptions.setLabelSelector(labelSelector.get());
+        listOptions.setResourceVersion(params.resourceVersion);
+        listOptions.setTimeoutSeconds(params.timeoutSeconds);
+        return listOptions;
+    }
+}
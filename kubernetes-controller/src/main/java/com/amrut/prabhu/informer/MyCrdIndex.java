@@ -0,0 +1,81 @@
+package com.amrut.prabhu.informer;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import io.kubernetes.client.informer.cache.Caches;
+import io.kubernetes.client.informer.cache.Indexer;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Typed lookups on the custom resource cache through named indexes, so finding every custom resource in a
+ * namespace, with a given {@code my-own-property}, label or owner is a map lookup instead of a scan. The
+ * indexes are kept up to date by the informer as objects arrive.
+ */
+public class MyCrdIndex {
+
+    public static final String NAMESPACE = Caches.NAMESPACE_INDEX;
+    public static final String MY_OWN_PROPERTY = "spec.my-own-property";
+    public static final String LABEL = "label";
+    public static final String OWNER = "owner-uid";
+
+    private final Indexer<V1MyCrd> indexer;
+
+    public MyCrdIndex(Indexer<V1MyCrd> indexer) {
+        this.indexer = indexer;
+    }
+
+    /**
+     * Index functions to add to the informer before it starts. The namespace index is built into every
+     * cache already.
+     */
+    public static Map<String, Function<V1MyCrd, List<String>>> indexers() {
+        return Map.of(
+                MY_OWN_PROPERTY, MyCrdIndex::myOwnProperty,
+                LABEL, MyCrdIndex::labels,
+                OWNER, MyCrdIndex::ownerUids);
+    }
+
+    public List<V1MyCrd> inNamespace(String namespace) {
+        return indexer.byIndex(NAMESPACE, namespace);
+    }
+
+    public List<V1MyCrd> withMyOwnProperty(String value) {
+        return indexer.byIndex(MY_OWN_PROPERTY, value);
+    }
+
+    public List<V1MyCrd> withLabel(String key, String value) {
+        return indexer.byIndex(LABEL, labelValue(key, value));
+    }
+
+    public List<V1MyCrd> ownedBy(String uid) {
+        return indexer.byIndex(OWNER, uid);
+    }
+
+    private static List<String> myOwnProperty(V1MyCrd myCrd) {
+        String value = myCrd.getSpec() == null ? null : myCrd.getSpec().getMyOwnProperty();
+        return value == null ? List.of() : List.of(value);
+    }
+
+    private static List<String> labels(V1MyCrd myCrd) {
+        Map<String, String> labels = myCrd.getMetadata().getLabels();
+        if (labels == null) {
+            return List.of();
+        }
+        return labels.entrySet().stream().map(label -> labelValue(label.getKey(), label.getValue())).toList();
+    }
+
+    private static List<String> ownerUids(V1MyCrd myCrd) {
+        List<V1OwnerReference> owners = myCrd.getMetadata().getOwnerReferences();
+        if (owners == null) {
+            return List.of();
+        }
+        return owners.stream().map(V1OwnerReference::getUid).toList();
+    }
+
+    private static String labelValue(String key, String value) {
+        return key + "=" + value;
+    }
+}
@@ -0,0 +1,171 @@
+package com.amrut.prabhu.informer;
+
+import com.amrut.prabhu.metrics.InformerSyncMetrics;
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdList;
+import com.amrut.prabhu.transport.StreamingWatch;
+import com.google.gson.stream.JsonReader;
+import io.kubernetes.client.informer.ListerWatcher;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CustomObjectsApi;
+import io.kubernetes.client.util.CallGeneratorParams;
+import io.kubernetes.client.util.Watchable;
+import io.kubernetes.client.util.generic.GenericKubernetesApi;
+import io.kubernetes.client.util.generic.options.ListOptions;
+import okhttp3.Call;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * List-watch for {@code my-crds}. Lists are decoded straight from the response stream instead of
+ * through {@link ApiClient#deserialize}, which first reads the whole body into one String; the items
+ * are then built one at a time by the registered {@code MyCrdTypeAdapterFactory}.
+ * <p>
+ * With a page size set, a LIST is fetched in pages with {@code limit}/{@code continue}, so no single
+ * response holds every custom resource. Each page is decoded as it arrives and only its items are kept;
+ * the reflector still receives one list, because it replaces its store in a single step.
+ */
+public class MyCrdListerWatcher implements ListerWatcher<V1MyCrd, V1MyCrdList> {
+
+    public static final String GROUP = "com.amrut.prabhu";
+    public static final String VERSION = "v1";
+    public static final String PLURAL = "my-crds";
+
+    private final ApiClient apiClient;
+    private final CustomObjectsApi customObjectsApi;
+    private final GenericKubernetesApi<V1MyCrd, V1MyCrdList> api;
+    private final int pageSize;
+    private final boolean initialListFromWatchCache;
+    private final Supplier<String> labelSelector;
+    private final InformerSyncMetrics syncMetrics;
+    private final boolean streamingWatch;
+
+    /**
+     * With {@code streamingWatch} set, watch events are decoded by a {@link StreamingWatch} instead of the
+     * client's line-by-line {@code Watch}.
+     */
+    public MyCrdListerWatcher(ApiClient apiClient,
+                              int pageSize,
+                              boolean initialListFromWatchCache,
+                              Supplier<String> labelSelector,
+                              InformerSyncMetrics syncMetrics,
+                              boolean streamingWatch) {
+        this.apiClient = apiClient;
+        this.customObjectsApi = new CustomObjectsApi(apiClient);
+        this.api = new GenericKubernetesApi<>(V1MyCrd.class,
+                V1MyCrdList.class,
+                GROUP,
+                VERSION,
+                PLURAL,
+                apiClient);
+        this.pageSize = pageSize;
+        this.initialListFromWatchCache = initialListFromWatchCache;
+        this.labelSelector = labelSelector;
+        this.syncMetrics = syncMetrics;
+        this.streamingWatch = streamingWatch;
+    }
+
+    @Override
+    public V1MyCrdList list(CallGeneratorParams params) throws ApiException {
+        long startedAt = System.nanoTime();
+        V1MyCrdList list = listPage(listResourceVersion(params.resourceVersion), null, params.timeoutSeconds);
+        int pages = 1;
+        String continueToken = continueToken(list);
+        while (continueToken != null) {
+            // The continue token pins the snapshot; a resourceVersion must not be sent with it.
+            V1MyCrdList page = listPage(null, continueToken, params.timeoutSeconds);
+            list.getItems().addAll(page.getItems());
+            continueToken = continueToken(page);
+            pages++;
+        }
+        if (list.getMetadata() != null) {
+            list.getMetadata().setContinue(null);
+        }
+        syncMetrics.recordList(PLURAL, System.nanoTime() - startedAt, pages, list.getItems().size());
+        return list;
+    }
+
+    @Override
+    public Watchable<V1MyCrd> watch(CallGeneratorParams params) throws ApiException {
+        if (streamingWatch) {
+            Call call = customObjectsApi.listClusterCustomObjectCall(GROUP,
+                    VERSION,
+                    PLURAL,
+                    null,
+                    null,
+                    null,
+                    null,
+                    labelSelector.get(),
+                    null,
+                    params.resourceVersion,
+                    null,
+                    params.timeoutSeconds,
+                    true,
+                    null);
+            return StreamingWatch.open(call, apiClient.getJSON().getGson(), V1MyCrd.class);
+        }
+        ListOptions listOptions = new ListOptions();
+        listOptions.setLabelSelector(labelSelector.get());
+        listOptions.setResourceVersion(params.resourceVersion);
+        listOptions.setTimeoutSeconds(params.timeoutSeconds);
+        return api.watch(listOptions);
+    }
+
+    /**
+     * The reflector asks for resourceVersion "0" on its first LIST, which the API server answers from its
+     * watch cache in one unpaginated response. Unless that is wanted, ask for a consistent, paginated
+     * read instead.
+     */
+    private String listResourceVersion(String requested) {
+        if ("0".equals(requested) && !initialListFromWatchCache && pageSize > 0) {
+            return null;
+        }
+        if (initialListFromWatchCache && (requested == null || requested.isEmpty())) {
+            return "0";
+        }
+        return requested;
+    }
+
+    private V1MyCrdList listPage(String resourceVersion, String continueToken, Integer timeoutSeconds)
+            throws ApiException {
+        Call call = customObjectsApi.listClusterCustomObjectCall(GROUP,
+                VERSION,
+                PLURAL,
+                null,
+                null,
+                continueToken,
+                null,
+                labelSelector.get(),
+                pageSize > 0 ? pageSize : null,
+                resourceVersion,
+                null,
+                timeoutSeconds,
+                false,
+                null);
+        try (Response response = call.execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful()) {
+                throw new ApiException(response.code(),
+                        response.headers().toMultimap(),
+                        body == null ? null : body.string());
+            }
+            try (JsonReader reader = new JsonReader(body.charStream())) {
+                return apiClient.getJSON().getGson().getAdapter(V1MyCrdList.class).read(reader);
+            }
+        } catch (IOException e) {
+            throw new ApiException(e);
+        }
+    }
+
+    private static String continueToken(V1MyCrdList list) {
+        if (list.getMetadata() == null) {
+            return null;
+        }
+        String continueToken = list.getMetadata().getContinue();
+        return continueToken == null || continueToken.isEmpty() ? null : continueToken;
+    }
+}
@@ -0,0 +1,24 @@
+package com.amrut.prabhu.informer;
+
+import com.amrut.prabhu.config.ControllerProperties;
+import io.kubernetes.client.openapi.ApiClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(prefix = "controller.informer", name = "snapshot-path")
+public class SnapshotConfiguration {
+
+    @Bean(destroyMethod = "close")
+    CacheSnapshotter cacheSnapshotter(ApiClient apiClient, ControllerProperties properties, MeterRegistry meterRegistry) {
+        ControllerProperties.Informer informer = properties.getInformer();
+        return new CacheSnapshotter(Path.of(informer.getSnapshotPath()),
+                informer.getSnapshotInterval(),
+                apiClient.getJSON().getGson(),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,159 @@
+package com.amrut.prabhu.informer;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdList;
+import io.kubernetes.client.informer.EventType;
+import io.kubernetes.client.informer.ListerWatcher;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1ListMeta;
+import io.kubernetes.client.util.CallGeneratorParams;
+import io.kubernetes.client.util.Watch;
+import io.kubernetes.client.util.Watchable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Answers the reflector's first LIST from a {@link CacheSnapshot}, so the informer starts with the saved
+ * objects and watches from the saved resourceVersion without listing the API server. If that
+ * resourceVersion has been compacted away the watch ends with "410 Gone" and the reflector relists, which
+ * goes to the API server as usual.
+ * <p>
+ * Also keeps the state the reflector has been handed: the last LIST plus every watch event read since,
+ * and the resourceVersion of the last of them. That state is consistent at any point, unlike the
+ * informer's indexer, which trails the reflector by whatever is still queued.
+ */
+public class SnapshotListerWatcher implements ListerWatcher<V1MyCrd, V1MyCrdList> {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotListerWatcher.class);
+
+    private final ListerWatcher<V1MyCrd, V1MyCrdList> delegate;
+    private final Supplier<String> scope;
+    private final Supplier<CacheSnapshot> restore;
+    private final Map<String, V1MyCrd> objects = new HashMap<>();
+    private String resourceVersion;
+    private boolean restorePending = true;
+    private volatile boolean restored;
+
+    public SnapshotListerWatcher(ListerWatcher<V1MyCrd, V1MyCrdList> delegate,
+                                 Supplier<String> scope,
+                                 Supplier<CacheSnapshot> restore) {
+        this.delegate = delegate;
+        this.scope = scope;
+        this.restore = restore;
+    }
+
+    @Override
+    public V1MyCrdList list(CallGeneratorParams params) throws ApiException {
+        CacheSnapshot snapshot = takeRestore();
+        if (snapshot != null) {
+            replace(snapshot.items(), snapshot.resourceVersion());
+            restored = true;
+            log.info("Restored {} custom resources from snapshot at resourceVersion {}",
+                    snapshot.items().size(), snapshot.resourceVersion());
+            return new V1MyCrdList()
+                    .metadata(new V1ListMeta().resourceVersion(snapshot.resourceVersion()))
+                    .items(new ArrayList<>(snapshot.items()));
+        }
+        restored = false;
+        V1MyCrdList list = delegate.list(params);
+        replace(list.getItems(), list.getMetadata() == null ? null : list.getMetadata().getResourceVersion());
+        return list;
+    }
+
+    @Override
+    public Watchable<V1MyCrd> watch(CallGeneratorParams params) throws ApiException {
+        return new RecordingWatch(delegate.watch(params));
+    }
+
+    /**
+     * Returns what the reflector has been handed so far, or null before the first LIST.
+     */
+    public synchronized CacheSnapshot snapshot() {
+        if (resourceVersion == null) {
+            return null;
+        }
+        return new CacheSnapshot(scope.get(), resourceVersion, List.copyOf(objects.values()));
+    }
+
+    private synchronized CacheSnapshot takeRestore() {
+        if (!restorePending) {
+            return null;
+        }
+        restorePending = false;
+        return restore.get();
+    }
+
+    private synchronized void replace(List<V1MyCrd> items, String listResourceVersion) {
+        objects.clear();
+        items.forEach(item -> objects.put(key(item), item));
+        resourceVersion = listResourceVersion;
+    }
+
+    private synchronized void record(Watch.Response<V1MyCrd> event) {
+        if (event.object == null || event.object.getMetadata() == null) {
+            return;
+        }
+        if (EventType.DELETED.name().equals(event.type)) {
+            objects.remove(key(event.object));
+        } else if (!EventType.BOOKMARK.name().equals(event.type)) {
+            objects.put(key(event.object), event.object);
+        }
+        resourceVersion = event.object.getMetadata().getResourceVersion();
+    }
+
+    private synchronized String resourceVersionForLog() {
+        return resourceVersion;
+    }
+
+    private static String key(V1MyCrd item) {
+        return item.getMetadata().getNamespace() + "/" + item.getMetadata().getName();
+    }
+
+    private class RecordingWatch implements Watchable<V1MyCrd> {
+
+        private final Watchable<V1MyCrd> watch;
+
+        RecordingWatch(Watchable<V1MyCrd> watch) {
+            this.watch = watch;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return watch.hasNext();
+        }
+
+        @Override
+        public Watch.Response<V1MyCrd> next() {
+            Watch.Response<V1MyCrd> event = watch.next();
+            if (EventType.ERROR.name().equals(event.type)) {
+                if (restored && event.status != null && event.status.getCode() != null
+                        && event.status.getCode() == HttpURLConnection.HTTP_GONE) {
+                    log.info("Snapshot resourceVersion {} has expired, relisting", resourceVersionForLog());
+                }
+                return event;
+            }
+            restored = false;
+            record(event);
+            return event;
+        }
+
+        @Override
+        public Iterator<Watch.Response<V1MyCrd>> iterator() {
+            return this;
+        }
+
+        @Override
+        public void close() throws IOException {
+            watch.close();
+        }
+    }
+}
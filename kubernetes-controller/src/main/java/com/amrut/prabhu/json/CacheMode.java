@@ -0,0 +1,18 @@
+package com.amrut.prabhu.json;
+
+public enum CacheMode {
+    /**
+     * Custom resources are cached as the API server sends them.
+     */
+    FULL,
+    /**
+     * Only name, namespace, uid, resourceVersion, generation, labels and owner references are kept from
+     * the metadata; managedFields, annotations, timestamps and the rest are skipped while decoding.
+     */
+    COMPACT,
+    /**
+     * {@link #COMPACT}, and the spec is kept as its encoded JSON bytes and decoded on every
+     * {@code getSpec()}.
+     */
+    COMPACT_LAZY_SPEC
+}
@@ -0,0 +1,57 @@
+package com.amrut.prabhu.json;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdSpec;
+
+import java.util.Objects;
+
+/**
+ * A {@link V1MyCrd} that holds its spec as UTF-8 JSON and decodes it on each {@link #getSpec()} call,
+ * trading a decode per read for not keeping the spec object graph on the heap. Equality and hash code
+ * compare decoded specs, so it behaves like a plain {@link V1MyCrd}.
+ */
+public class LazySpecMyCrd extends V1MyCrd {
+
+    private byte[] specJson;
+
+    void setSpecJson(byte[] specJson) {
+        this.specJson = specJson;
+    }
+
+    @Override
+    public V1MyCrdSpec getSpec() {
+        return specJson == null ? super.getSpec() : MyCrdTypeAdapterFactory.decodeSpec(specJson);
+    }
+
+    @Override
+    public void setSpec(V1MyCrdSpec spec) {
+        specJson = null;
+        super.setSpec(spec);
+    }
+
+    @Override
+    public V1MyCrd spec(V1MyCrdSpec spec) {
+        setSpec(spec);
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof V1MyCrd other)) {
+            return false;
+        }
+        return Objects.equals(getApiVersion(), other.getApiVersion())
+                && Objects.equals(getKind(), other.getKind())
+                && Objects.equals(getMetadata(), other.getMetadata())
+                && Objects.equals(getSpec(), other.getSpec())
+                && Objects.equals(getStatus(), other.getStatus());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getApiVersion(), getKind(), getMetadata(), getSpec(), getStatus());
+    }
+}
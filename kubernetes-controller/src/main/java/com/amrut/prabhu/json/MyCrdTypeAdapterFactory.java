@@ -0,0 +1,340 @@
+package com.amrut.prabhu.json;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdList;
+import com.amrut.prabhu.models.V1MyCrdSpec;
+import com.amrut.prabhu.models.V1MyCrdStatus;
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1ListMeta;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written Gson adapters for the CRD models, replacing reflective decoding. Lists are read item by
+ * item straight from the stream, and apiVersion, kind and namespace are interned so that thousands of
+ * cached objects share one copy of each. In the compact {@link CacheMode}s, metadata the controller never
+ * reads is skipped while decoding, so it is never allocated.
+ */
+public class MyCrdTypeAdapterFactory implements TypeAdapterFactory {
+
+    private static final SpecAdapter SPEC_ADAPTER = new SpecAdapter();
+
+    private final StringInterner interner;
+    private final CacheMode cacheMode;
+    private final boolean keepAnnotations;
+
+    public MyCrdTypeAdapterFactory(StringInterner interner, CacheMode cacheMode, boolean keepAnnotations) {
+        this.interner = interner;
+        this.cacheMode = cacheMode;
+        this.keepAnnotations = keepAnnotations;
+    }
+
+    /**
+     * Registers the adapters on top of the adapters the client already configured for dates, quantities
+     * and the other Kubernetes types.
+     */
+    public static void register(JSON json, StringInterner interner) {
+        register(json, interner, CacheMode.FULL, true);
+    }
+
+    /**
+     * As {@link #register(JSON, StringInterner)}, decoding custom resources in the given cache mode.
+     * Annotations survive a compact mode only if {@code keepAnnotations} is set.
+     */
+    public static void register(JSON json, StringInterner interner, CacheMode cacheMode, boolean keepAnnotations) {
+        json.setGson(json.getGson()
+                .newBuilder()
+                .registerTypeAdapterFactory(new MyCrdTypeAdapterFactory(interner, cacheMode, keepAnnotations))
+                .create());
+    }
+
+    static V1MyCrdSpec decodeSpec(byte[] specJson) {
+        try {
+            return SPEC_ADAPTER.fromJson(new String(specJson, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == V1MyCrdSpec.class) {
+            return (TypeAdapter<T>) SPEC_ADAPTER.nullSafe();
+        }
+        if (V1MyCrd.class.isAssignableFrom(rawType)) {
+            return (TypeAdapter<T>) new MyCrdAdapter(gson.getAdapter(V1ObjectMeta.class),
+                    gson.getAdapter(new TypeToken<List<V1OwnerReference>>() {
+                    }),
+                    gson.getAdapter(V1MyCrdSpec.class),
+                    gson.getAdapter(V1MyCrdStatus.class)).nullSafe();
+        }
+        if (rawType == V1MyCrdList.class) {
+            return (TypeAdapter<T>) new MyCrdListAdapter(gson.getAdapter(V1ListMeta.class),
+                    gson.getAdapter(V1MyCrd.class)).nullSafe();
+        }
+        return null;
+    }
+
+    private static String nextStringOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static class SpecAdapter extends TypeAdapter<V1MyCrdSpec> {
+
+        @Override
+        public void write(JsonWriter out, V1MyCrdSpec spec) throws IOException {
+            out.beginObject();
+            if (spec.getMyOwnProperty() != null) {
+                out.name(V1MyCrdSpec.SERIALIZED_NAME_MY_OWN_PROPERTY).value(spec.getMyOwnProperty());
+            }
+            if (spec.getTargetNamespaces() != null) {
+                out.name(V1MyCrdSpec.SERIALIZED_NAME_TARGET_NAMESPACES).beginArray();
+                for (String namespace : spec.getTargetNamespaces()) {
+                    out.value(namespace);
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public V1MyCrdSpec read(JsonReader in) throws IOException {
+            V1MyCrdSpec spec = new V1MyCrdSpec();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (V1MyCrdSpec.SERIALIZED_NAME_MY_OWN_PROPERTY.equals(name)) {
+                    spec.setMyOwnProperty(nextStringOrNull(in));
+                } else if (V1MyCrdSpec.SERIALIZED_NAME_TARGET_NAMESPACES.equals(name) && in.peek() == JsonToken.BEGIN_ARRAY) {
+                    List<String> namespaces = new ArrayList<>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        namespaces.add(nextStringOrNull(in));
+                    }
+                    in.endArray();
+                    spec.setTargetNamespaces(namespaces);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return spec;
+        }
+    }
+
+    private class MyCrdAdapter extends TypeAdapter<V1MyCrd> {
+
+        private final TypeAdapter<V1ObjectMeta> metadataAdapter;
+        private final TypeAdapter<List<V1OwnerReference>> ownerReferencesAdapter;
+        private final TypeAdapter<V1MyCrdSpec> specAdapter;
+        private final TypeAdapter<V1MyCrdStatus> statusAdapter;
+
+        MyCrdAdapter(TypeAdapter<V1ObjectMeta> metadataAdapter,
+                     TypeAdapter<List<V1OwnerReference>> ownerReferencesAdapter,
+                     TypeAdapter<V1MyCrdSpec> specAdapter,
+                     TypeAdapter<V1MyCrdStatus> statusAdapter) {
+            this.metadataAdapter = metadataAdapter;
+            this.ownerReferencesAdapter = ownerReferencesAdapter;
+            this.specAdapter = specAdapter;
+            this.statusAdapter = statusAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, V1MyCrd myCrd) throws IOException {
+            out.beginObject();
+            if (myCrd.getApiVersion() != null) {
+                out.name(V1MyCrd.SERIALIZED_NAME_API_VERSION).value(myCrd.getApiVersion());
+            }
+            if (myCrd.getKind() != null) {
+                out.name(V1MyCrd.SERIALIZED_NAME_KIND).value(myCrd.getKind());
+            }
+            if (myCrd.getMetadata() != null) {
+                out.name(V1MyCrd.SERIALIZED_NAME_METADATA);
+                metadataAdapter.write(out, myCrd.getMetadata());
+            }
+            if (myCrd.getSpec() != null) {
+                out.name(V1MyCrd.SERIALIZED_NAME_SPEC);
+                specAdapter.write(out, myCrd.getSpec());
+            }
+            if (myCrd.getStatus() != null) {
+                out.name(V1MyCrd.SERIALIZED_NAME_STATUS);
+                statusAdapter.write(out, myCrd.getStatus());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public V1MyCrd read(JsonReader in) throws IOException {
+            V1MyCrd myCrd = cacheMode == CacheMode.COMPACT_LAZY_SPEC ? new LazySpecMyCrd() : new V1MyCrd();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case V1MyCrd.SERIALIZED_NAME_API_VERSION -> myCrd.setApiVersion(interner.intern(nextStringOrNull(in)));
+                    case V1MyCrd.SERIALIZED_NAME_KIND -> myCrd.setKind(interner.intern(nextStringOrNull(in)));
+                    case V1MyCrd.SERIALIZED_NAME_METADATA -> {
+                        V1ObjectMeta metadata = cacheMode == CacheMode.FULL ? metadataAdapter.read(in) : readCompactMetadata(in);
+                        if (metadata != null) {
+                            metadata.setNamespace(interner.intern(metadata.getNamespace()));
+                        }
+                        myCrd.setMetadata(metadata);
+                    }
+                    case V1MyCrd.SERIALIZED_NAME_SPEC -> {
+                        if (myCrd instanceof LazySpecMyCrd lazy) {
+                            lazy.setSpecJson(JsonParser.parseReader(in).toString().getBytes(StandardCharsets.UTF_8));
+                        } else {
+                            myCrd.setSpec(specAdapter.read(in));
+                        }
+                    }
+                    // Kept in every cache mode: the reconciler compares it before writing a new one.
+                    case V1MyCrd.SERIALIZED_NAME_STATUS -> myCrd.setStatus(statusAdapter.read(in));
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return myCrd;
+        }
+
+        private V1ObjectMeta readCompactMetadata(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            V1ObjectMeta metadata = new V1ObjectMeta();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case V1ObjectMeta.SERIALIZED_NAME_NAME -> metadata.setName(nextStringOrNull(in));
+                    case V1ObjectMeta.SERIALIZED_NAME_NAMESPACE -> metadata.setNamespace(nextStringOrNull(in));
+                    case V1ObjectMeta.SERIALIZED_NAME_UID -> metadata.setUid(nextStringOrNull(in));
+                    case V1ObjectMeta.SERIALIZED_NAME_RESOURCE_VERSION -> metadata.setResourceVersion(nextStringOrNull(in));
+                    case V1ObjectMeta.SERIALIZED_NAME_GENERATION -> {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else {
+                            metadata.setGeneration(in.nextLong());
+                        }
+                    }
+                    case V1ObjectMeta.SERIALIZED_NAME_LABELS -> metadata.setLabels(readStringMap(in));
+                    // Rare on custom resources, and MyCrdIndex looks owners up by them.
+                    case V1ObjectMeta.SERIALIZED_NAME_OWNER_REFERENCES -> metadata.setOwnerReferences(ownerReferencesAdapter.read(in));
+                    case V1ObjectMeta.SERIALIZED_NAME_ANNOTATIONS -> {
+                        if (keepAnnotations) {
+                            metadata.setAnnotations(readStringMap(in));
+                        } else {
+                            in.skipValue();
+                        }
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return metadata;
+        }
+
+        // Keys are interned, they repeat on nearly every object; the map is immutable and sized to fit.
+        private Map<String, String> readStringMap(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Map<String, String> values = new HashMap<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = interner.intern(in.nextName());
+                String value = nextStringOrNull(in);
+                if (value != null) {
+                    values.put(key, value);
+                }
+            }
+            in.endObject();
+            return Map.copyOf(values);
+        }
+    }
+
+    private class MyCrdListAdapter extends TypeAdapter<V1MyCrdList> {
+
+        private final TypeAdapter<V1ListMeta> metadataAdapter;
+        private final TypeAdapter<V1MyCrd> itemAdapter;
+
+        MyCrdListAdapter(TypeAdapter<V1ListMeta> metadataAdapter, TypeAdapter<V1MyCrd> itemAdapter) {
+            this.metadataAdapter = metadataAdapter;
+            this.itemAdapter = itemAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, V1MyCrdList list) throws IOException {
+            out.beginObject();
+            if (list.getApiVersion() != null) {
+                out.name(V1MyCrdList.SERIALIZED_NAME_API_VERSION).value(list.getApiVersion());
+            }
+            if (list.getKind() != null) {
+                out.name(V1MyCrdList.SERIALIZED_NAME_KIND).value(list.getKind());
+            }
+            if (list.getMetadata() != null) {
+                out.name(V1MyCrdList.SERIALIZED_NAME_METADATA);
+                metadataAdapter.write(out, list.getMetadata());
+            }
+            out.name(V1MyCrdList.SERIALIZED_NAME_ITEMS).beginArray();
+            if (list.getItems() != null) {
+                for (V1MyCrd item : list.getItems()) {
+                    itemAdapter.write(out, item);
+                }
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        @Override
+        public V1MyCrdList read(JsonReader in) throws IOException {
+            V1MyCrdList list = new V1MyCrdList();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case V1MyCrdList.SERIALIZED_NAME_API_VERSION -> list.setApiVersion(interner.intern(nextStringOrNull(in)));
+                    case V1MyCrdList.SERIALIZED_NAME_KIND -> list.setKind(interner.intern(nextStringOrNull(in)));
+                    case V1MyCrdList.SERIALIZED_NAME_METADATA -> list.setMetadata(metadataAdapter.read(in));
+                    case V1MyCrdList.SERIALIZED_NAME_ITEMS -> list.setItems(readItems(in));
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return list;
+        }
+
+        private List<V1MyCrd> readItems(JsonReader in) throws IOException {
+            List<V1MyCrd> items = new ArrayList<>();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return items;
+            }
+            in.beginArray();
+            while (in.hasNext()) {
+                items.add(itemAdapter.read(in));
+            }
+            in.endArray();
+            return items;
+        }
+    }
+}
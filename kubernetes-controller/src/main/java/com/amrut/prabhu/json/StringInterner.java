@@ -0,0 +1,21 @@
+package com.amrut.prabhu.json;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplicates low-cardinality strings (apiVersion, kind, namespace) that otherwise arrive as a new copy
+ * on every decoded object. Only use it for values drawn from a small set; entries are never evicted.
+ */
+public class StringInterner {
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = strings.putIfAbsent(value, value);
+        return existing == null ? value : existing;
+    }
+}
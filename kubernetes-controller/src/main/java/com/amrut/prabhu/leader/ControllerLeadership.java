@@ -0,0 +1,49 @@
+package com.amrut.prabhu.leader;
+
+import io.kubernetes.client.extended.controller.Controller;
+import io.kubernetes.client.extended.leaderelection.LeaderElector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Runs the controller only while this replica holds the leader Lease. Informers are started before the
+ * election regardless of the outcome, so a standby keeps a synced cache and starts reconciling as soon as
+ * it is elected, without a cold LIST.
+ */
+public class ControllerLeadership {
+
+    private static final Logger log = LoggerFactory.getLogger(ControllerLeadership.class);
+
+    private final LeaderElector leaderElector;
+    private final FailoverTracker failoverTracker;
+    private final ConfigurableApplicationContext applicationContext;
+
+    public ControllerLeadership(LeaderElector leaderElector,
+                                FailoverTracker failoverTracker,
+                                ConfigurableApplicationContext applicationContext) {
+        this.leaderElector = leaderElector;
+        this.failoverTracker = failoverTracker;
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Blocks while campaigning and leading. A controller cannot be restarted once shut down, so losing the
+     * lease exits the process and the replica comes back as a standby.
+     */
+    public void run(Controller controller) {
+        leaderElector.run(
+                () -> {
+                    log.info("{} became the leader", failoverTracker.identity());
+                    failoverTracker.startedLeading();
+                    controller.run();
+                },
+                () -> {
+                    log.warn("{} lost the leader lease, shutting down", failoverTracker.identity());
+                    failoverTracker.stoppedLeading();
+                    controller.shutdown();
+                    System.exit(SpringApplication.exit(applicationContext, () -> 1));
+                });
+    }
+}
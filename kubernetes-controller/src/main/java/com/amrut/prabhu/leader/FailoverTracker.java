@@ -0,0 +1,95 @@
+package com.amrut.prabhu.leader;
+
+import io.kubernetes.client.extended.controller.reconciler.Reconciler;
+import io.kubernetes.client.extended.leaderelection.LeaderElectionRecord;
+import io.kubernetes.client.extended.leaderelection.Lock;
+import io.kubernetes.client.openapi.ApiException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures failover: the time from the previous leader's lease expiring to this replica's first
+ * reconcile. Wraps the election {@link Lock} to remember the last record held by another replica, which
+ * gives the moment that lease ran out.
+ */
+public class FailoverTracker implements Lock {
+
+    private final Lock delegate;
+    private final Timer failover;
+    private final AtomicBoolean leading = new AtomicBoolean();
+    private final AtomicBoolean awaitingFirstReconcile = new AtomicBoolean();
+    private volatile LeaderElectionRecord previousLeaderRecord;
+    private volatile long previousLeaseExpiredAtMillis;
+
+    public FailoverTracker(Lock delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.failover = Timer.builder("controller.leader.failover")
+                .description("Time from the previous leader's lease expiring to the first reconcile on the new leader")
+                .register(meterRegistry);
+        Gauge.builder("controller.leader.leading", leading, value -> value.get() ? 1 : 0)
+                .description("1 while this replica is the leader")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public LeaderElectionRecord get() throws ApiException {
+        LeaderElectionRecord record = delegate.get();
+        if (record != null
+                && record.getHolderIdentity() != null
+                && !record.getHolderIdentity().isEmpty()
+                && !record.getHolderIdentity().equals(identity())) {
+            previousLeaderRecord = record;
+        }
+        return record;
+    }
+
+    @Override
+    public boolean create(LeaderElectionRecord record) {
+        return delegate.create(record);
+    }
+
+    @Override
+    public boolean update(LeaderElectionRecord record) {
+        return delegate.update(record);
+    }
+
+    @Override
+    public String identity() {
+        return delegate.identity();
+    }
+
+    @Override
+    public String describe() {
+        return delegate.describe();
+    }
+
+    public void startedLeading() {
+        leading.set(true);
+        LeaderElectionRecord previous = previousLeaderRecord;
+        if (previous == null || previous.getRenewTime() == null) {
+            // First leader of a fresh lease; there was nothing to fail over from.
+            return;
+        }
+        previousLeaseExpiredAtMillis = previous.getRenewTime().getTime()
+                + TimeUnit.SECONDS.toMillis(previous.getLeaseDurationSeconds());
+        awaitingFirstReconcile.set(true);
+    }
+
+    public void stoppedLeading() {
+        leading.set(false);
+    }
+
+    public Reconciler recordFirstReconcile(Reconciler reconciler) {
+        return request -> {
+            if (awaitingFirstReconcile.get() && awaitingFirstReconcile.compareAndSet(true, false)) {
+                failover.record(Math.max(0, System.currentTimeMillis() - previousLeaseExpiredAtMillis),
+                        TimeUnit.MILLISECONDS);
+            }
+            return reconciler.reconcile(request);
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.amrut.prabhu.leader;
+
+import com.amrut.prabhu.config.ControllerProperties;
+import io.kubernetes.client.extended.leaderelection.LeaderElectionConfig;
+import io.kubernetes.client.extended.leaderelection.LeaderElector;
+import io.kubernetes.client.extended.leaderelection.resourcelock.LeaseLock;
+import io.kubernetes.client.openapi.ApiClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "controller.leader-election", name = "enabled", havingValue = "true")
+public class LeaderElectionConfiguration {
+
+    @Bean
+    FailoverTracker failoverTracker(ApiClient apiClient, ControllerProperties properties, MeterRegistry meterRegistry) {
+        ControllerProperties.LeaderElection leaderElection = properties.getLeaderElection();
+        return new FailoverTracker(new LeaseLock(leaderElection.getLeaseNamespace(),
+                leaderElection.getLeaseName(),
+                properties.resolveIdentity(),
+                apiClient),
+                meterRegistry);
+    }
+
+    @Bean
+    ControllerLeadership controllerLeadership(FailoverTracker failoverTracker,
+                                              ControllerProperties properties,
+                                              ConfigurableApplicationContext applicationContext) {
+        if (properties.getSharding().isEnabled()) {
+            // Each replica's informers only hold its own slice, but only the lease holder reconciles: the
+            // standbys' slices would go unreconciled until they win the lease.
+            throw new IllegalStateException("controller.leader-election.enabled cannot be combined with controller.sharding.enabled");
+        }
+        ControllerProperties.LeaderElection leaderElection = properties.getLeaderElection();
+        LeaderElector leaderElector = new LeaderElector(new LeaderElectionConfig(failoverTracker,
+                leaderElection.getLeaseDuration(),
+                leaderElection.getRenewDeadline(),
+                leaderElection.getRetryPeriod()));
+        return new ControllerLeadership(leaderElector, failoverTracker, applicationContext);
+    }
+}
@@ -0,0 +1,113 @@
+package com.amrut.prabhu.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call the {@code ApiClient} makes to the API server, tagged with the Kubernetes verb, the
+ * resource and the status code, and records the size of each request body. For a watch the time is until
+ * the response headers arrive, not the lifetime of the stream. Server-side apply is tagged {@code apply}
+ * rather than {@code patch} so it can be compared with the other write paths. Meters are registered once
+ * per verb, resource and code, and looked up from a local map on later calls.
+ */
+public class ApiCallMetricsInterceptor implements Interceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Key, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<Key, DistributionSummary> requestBytes = new ConcurrentHashMap<>();
+
+    public ApiCallMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        long startedAt = System.nanoTime();
+        String code = "IO_ERROR";
+        try {
+            Response response = chain.proceed(request);
+            code = Integer.toString(response.code());
+            return response;
+        } finally {
+            List<String> resourceSegments = resourceSegments(request.url().pathSegments());
+            String verb = verb(request, resourceSegments);
+            String resource = resourceSegments.isEmpty() ? "none" : resourceSegments.get(0);
+            timers.computeIfAbsent(new Key(verb, resource, code), this::timer)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            RequestBody body = request.body();
+            if (body != null && body.contentLength() >= 0) {
+                requestBytes.computeIfAbsent(new Key(verb, resource, null), this::requestBytes)
+                        .record(body.contentLength());
+            }
+        }
+    }
+
+    private Timer timer(Key key) {
+        return Timer.builder("controller.api.requests")
+                .description("Latency of calls to the Kubernetes API server")
+                .tag("verb", key.verb())
+                .tag("resource", key.resource())
+                .tag("code", key.code())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary requestBytes(Key key) {
+        return DistributionSummary.builder("controller.api.request.bytes")
+                .description("Size of request bodies sent to the Kubernetes API server")
+                .baseUnit("bytes")
+                .tag("verb", key.verb())
+                .tag("resource", key.resource())
+                .register(meterRegistry);
+    }
+
+    private static String verb(Request request, List<String> resource) {
+        return switch (request.method()) {
+            case "GET" -> {
+                if ("true".equals(request.url().queryParameter("watch"))) {
+                    yield "watch";
+                }
+                yield resource.size() > 1 ? "get" : "list";
+            }
+            case "POST" -> "create";
+            case "PUT" -> "update";
+            case "PATCH" -> {
+                RequestBody body = request.body();
+                MediaType contentType = body == null ? null : body.contentType();
+                yield contentType != null && "apply-patch+yaml".equals(contentType.subtype()) ? "apply" : "patch";
+            }
+            case "DELETE" -> resource.size() > 1 ? "delete" : "deletecollection";
+            default -> request.method().toLowerCase();
+        };
+    }
+
+    // /api/v1/[namespaces/{ns}/]{plural}[/{name}[/{subresource}]]
+    // /apis/{group}/{version}/[namespaces/{ns}/]{plural}[/{name}[/{subresource}]]
+    private static List<String> resourceSegments(List<String> path) {
+        if (path.isEmpty()) {
+            return path;
+        }
+        int from = "api".equals(path.get(0)) ? 2 : 3;
+        if (path.size() > from + 2 && "namespaces".equals(path.get(from))) {
+            from += 2;
+        }
+        return from < path.size() ? path.subList(from, path.size()) : List.of();
+    }
+
+    // code is null for request sizes, which are not tagged with it.
+    private record Key(String verb, String resource, String code) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.amrut.prabhu.metrics;
+
+import io.kubernetes.client.informer.SharedInformer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records how long the initial LIST takes and how much heap the controller peaks at until every informer
+ * has synced.
+ */
+public class InformerSyncMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong startupMillis = new AtomicLong(-1);
+    private final AtomicLong startupPeakHeapBytes = new AtomicLong(-1);
+
+    public InformerSyncMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        TimeGauge.builder("controller.informer.startup.duration", startupMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time from starting the informers until all of them had synced")
+                .register(meterRegistry);
+        Gauge.builder("controller.informer.startup.peak.heap", startupPeakHeapBytes, AtomicLong::get)
+                .description("Peak heap used while the informers were syncing")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void recordList(String resource, long durationNanos, int pages, int items) {
+        Timer.builder("controller.informer.list")
+                .description("Duration of a full, possibly paginated, LIST")
+                .tag("resource", resource)
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("controller.informer.list.pages")
+                .tag("resource", resource)
+                .register(meterRegistry)
+                .record(pages);
+        DistributionSummary.builder("controller.informer.list.items")
+                .tag("resource", resource)
+                .register(meterRegistry)
+                .record(items);
+    }
+
+    /**
+     * Resets the heap peak; call right before starting the informers.
+     */
+    public void startTracking() {
+        heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    /**
+     * Blocks until every informer has synced, then publishes the startup duration and peak heap.
+     */
+    public void awaitSynced(long startedAtNanos, SharedInformer<?>... informers) throws InterruptedException {
+        for (SharedInformer<?> informer : informers) {
+            while (!informer.hasSynced()) {
+                Thread.sleep(100);
+            }
+        }
+        startupMillis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtNanos));
+        startupPeakHeapBytes.set(heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum());
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans()
+                .stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+    }
+}
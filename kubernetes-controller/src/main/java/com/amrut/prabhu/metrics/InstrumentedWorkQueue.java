@@ -0,0 +1,109 @@
+package com.amrut.prabhu.metrics;
+
+import io.kubernetes.client.extended.workqueue.RateLimitingQueue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records depth, adds, retries and the time an item waits before a worker picks it up. The wait starts
+ * when the item becomes ready: on {@link #add}, or when the delay of {@link #addAfter} has passed.
+ * Rate-limited retries are counted but not timed, since their backoff is chosen inside the delegate.
+ */
+public class InstrumentedWorkQueue<T> implements RateLimitingQueue<T> {
+
+    private final RateLimitingQueue<T> delegate;
+    private final Map<T, Long> readyAt = new ConcurrentHashMap<>();
+    private final Counter adds;
+    private final Counter retries;
+    private final Timer queueWait;
+
+    public InstrumentedWorkQueue(RateLimitingQueue<T> delegate, String name, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.adds = Counter.builder("controller.workqueue.adds")
+                .description("Items added to the work queue")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.retries = Counter.builder("controller.workqueue.retries")
+                .description("Items re-added with a rate-limited backoff")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("controller.workqueue.wait")
+                .description("Time an item waits in the queue before a worker takes it")
+                .tag("name", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("controller.workqueue.depth", delegate, RateLimitingQueue::length)
+                .description("Items waiting in the work queue")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void add(T item) {
+        adds.increment();
+        readyAt.putIfAbsent(item, System.nanoTime());
+        delegate.add(item);
+    }
+
+    @Override
+    public void addAfter(T item, Duration duration) {
+        adds.increment();
+        readyAt.putIfAbsent(item, System.nanoTime() + duration.toNanos());
+        delegate.addAfter(item, duration);
+    }
+
+    @Override
+    public void addRateLimited(T item) {
+        retries.increment();
+        delegate.addRateLimited(item);
+    }
+
+    @Override
+    public T get() throws InterruptedException {
+        T item = delegate.get();
+        if (item != null) {
+            Long ready = readyAt.remove(item);
+            if (ready != null) {
+                queueWait.record(Math.max(0, System.nanoTime() - ready), TimeUnit.NANOSECONDS);
+            }
+        }
+        return item;
+    }
+
+    @Override
+    public void done(T item) {
+        delegate.done(item);
+    }
+
+    @Override
+    public void forget(T item) {
+        delegate.forget(item);
+    }
+
+    @Override
+    public int numRequeues(T item) {
+        return delegate.numRequeues(item);
+    }
+
+    @Override
+    public int length() {
+        return delegate.length();
+    }
+
+    @Override
+    public void shutDown() {
+        delegate.shutDown();
+    }
+
+    @Override
+    public boolean isShuttingDown() {
+        return delegate.isShuttingDown();
+    }
+}
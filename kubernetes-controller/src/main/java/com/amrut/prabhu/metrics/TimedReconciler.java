@@ -0,0 +1,49 @@
+package com.amrut.prabhu.metrics;
+
+import io.kubernetes.client.extended.controller.reconciler.Reconciler;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.controller.reconciler.Result;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every reconcile into a histogram tagged with its result: {@code success}, {@code requeue} or
+ * {@code error}. The three timers are registered up front so a reconcile only reads the clock twice.
+ */
+public class TimedReconciler implements Reconciler {
+
+    private final Reconciler delegate;
+    private final Timer success;
+    private final Timer requeue;
+    private final Timer error;
+
+    public TimedReconciler(Reconciler delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.success = timer("success", meterRegistry);
+        this.requeue = timer("requeue", meterRegistry);
+        this.error = timer("error", meterRegistry);
+    }
+
+    @Override
+    public Result reconcile(Request request) {
+        long startedAt = System.nanoTime();
+        try {
+            Result result = delegate.reconcile(request);
+            (result.isRequeue() ? requeue : success).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            error.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static Timer timer(String result, MeterRegistry meterRegistry) {
+        return Timer.builder("controller.reconcile")
+                .description("Duration of a reconcile")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
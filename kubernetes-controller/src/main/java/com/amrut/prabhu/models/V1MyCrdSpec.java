@@ -23,6 +23,8 @@ import com.google.gson.stream.JsonWriter;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * V1MyCrdSpec
@@ -33,6 +35,10 @@ public class V1MyCrdSpec {
   @SerializedName(SERIALIZED_NAME_MY_OWN_PROPERTY)
   private String myOwnProperty;
 
+  public static final String SERIALIZED_NAME_TARGET_NAMESPACES = "target-namespaces";
+  @SerializedName(SERIALIZED_NAME_TARGET_NAMESPACES)
+  private List<String> targetNamespaces = null;
+
 
   public V1MyCrdSpec myOwnProperty(String myOwnProperty) {
     
@@ -57,6 +63,37 @@ public class V1MyCrdSpec {
   }
 
 
+  public V1MyCrdSpec targetNamespaces(List<String> targetNamespaces) {
+    
+    this.targetNamespaces = targetNamespaces;
+    return this;
+  }
+
+  public V1MyCrdSpec addTargetNamespacesItem(String targetNamespacesItem) {
+    if (this.targetNamespaces == null) {
+      this.targetNamespaces = new ArrayList<>();
+    }
+    this.targetNamespaces.add(targetNamespacesItem);
+    return this;
+  }
+
+   /**
+   * Namespaces that get a copy of the ConfigMap, next to the custom resource&#39;s own
+   * @return targetNamespaces
+  **/
+  @javax.annotation.Nullable
+  @ApiModelProperty(value = "Namespaces that get a copy of the ConfigMap, next to the custom resource's own")
+
+  public List<String> getTargetNamespaces() {
+    return targetNamespaces;
+  }
+
+
+  public void setTargetNamespaces(List<String> targetNamespaces) {
+    this.targetNamespaces = targetNamespaces;
+  }
+
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -66,12 +103,13 @@ public class V1MyCrdSpec {
       return false;
     }
     V1MyCrdSpec v1MyCrdSpec = (V1MyCrdSpec) o;
-    return Objects.equals(this.myOwnProperty, v1MyCrdSpec.myOwnProperty);
+    return Objects.equals(this.myOwnProperty, v1MyCrdSpec.myOwnProperty) &&
+        Objects.equals(this.targetNamespaces, v1MyCrdSpec.targetNamespaces);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(myOwnProperty);
+    return Objects.hash(myOwnProperty, targetNamespaces);
   }
 
 
@@ -80,6 +118,7 @@ public class V1MyCrdSpec {
     StringBuilder sb = new StringBuilder();
     sb.append("class V1MyCrdSpec {\n");
     sb.append("    myOwnProperty: ").append(toIndentedString(myOwnProperty)).append("\n");
+    sb.append("    targetNamespaces: ").append(toIndentedString(targetNamespaces)).append("\n");
     sb.append("}");
     return sb.toString();
   }
@@ -0,0 +1,138 @@
+package com.amrut.prabhu.reconciler;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.tracing.ReconcileTrace;
+import io.kubernetes.client.common.KubernetesObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reconciles all {@link ChildResource}s of a custom resource together. {@link #plan} builds every desired
+ * object and diffs it against the informer cache; {@link Plan#write} then starts the writes of all
+ * out-of-date children at once, so a reconcile takes as long as its slowest write, not the sum of them.
+ * With a {@link NamespaceFanOut}, the copies in other namespaces are planned and written alongside, as a
+ * deferred write.
+ */
+public class ChildPipeline {
+
+    private final List<ChildResource<?>> children;
+    private final NamespaceFanOut fanOut;
+
+    /**
+     * {@code fanOut} may be null, in which case nothing is copied to other namespaces.
+     */
+    public ChildPipeline(List<ChildResource<?>> children, NamespaceFanOut fanOut) {
+        this.children = List.copyOf(children);
+        this.fanOut = fanOut;
+    }
+
+    public Plan plan(V1MyCrd owner) {
+        String namespace = owner.getMetadata().getNamespace();
+        return new Plan(children.stream()
+                .<Planned<?>>map(child -> Planned.of(child, owner, namespace))
+                .toList(),
+                fanOut == null ? null : fanOut.plan(owner));
+    }
+
+    public CompletableFuture<Void> ownerDeleted(String namespace, String ownerName) {
+        Stream<CompletableFuture<?>> deleted = children.stream().map(child -> child.ownerDeleted(namespace, ownerName));
+        if (fanOut != null) {
+            deleted = Stream.concat(deleted, Stream.of(fanOut.ownerDeleted(namespace, ownerName)));
+        }
+        return CompletableFuture.allOf(deleted.toArray(CompletableFuture[]::new));
+    }
+
+    public static final class Plan {
+
+        private final List<Planned<?>> children;
+        private final NamespaceFanOut.Plan fanOut;
+
+        private Plan(List<Planned<?>> children, NamespaceFanOut.Plan fanOut) {
+            this.children = children;
+            this.fanOut = fanOut;
+        }
+
+        public List<KubernetesObject> desired() {
+            return children.stream().<KubernetesObject>map(Planned::desired).toList();
+        }
+
+        /**
+         * The resourceVersions of the cached children, in child order, followed by the digest of the
+         * fanned-out copies.
+         */
+        public String currentVersion() {
+            String versions = children.stream().map(child -> Planned.version(child.current())).collect(Collectors.joining(","));
+            return fanOut == null ? versions : versions + "," + fanOut.currentVersion();
+        }
+
+        public boolean stale() {
+            return children.stream().anyMatch(Planned::stale) || fanOut != null && fanOut.stale();
+        }
+
+        /**
+         * Starts the writes of all out-of-date children, recording each write as a phase of {@code trace}.
+         */
+        public Writes write(ReconcileTrace trace) {
+            List<CompletableFuture<String>> versions = new ArrayList<>(children.size() + 1);
+            children.forEach(child -> versions.add(child.write(trace)));
+            if (fanOut != null) {
+                versions.add(fanOut.stale() ? trace.time("fan-out", fanOut.write()) : fanOut.write());
+            }
+            CompletableFuture<Void> awaited = CompletableFuture.allOf(futures(versions, false));
+            CompletableFuture<Void> deferred = CompletableFuture.allOf(futures(versions, true));
+            CompletableFuture<String> written = CompletableFuture.allOf(versions.toArray(CompletableFuture[]::new))
+                    .thenApply(done -> versions.stream().map(CompletableFuture::join).collect(Collectors.joining(",")));
+            return new Writes(awaited, deferred, written);
+        }
+
+        // The fan-out, last in the list, is always deferred.
+        private CompletableFuture<?>[] futures(List<CompletableFuture<String>> versions, boolean deferred) {
+            CompletableFuture<?>[] selected = new CompletableFuture<?>[versions.size()];
+            int count = 0;
+            for (int i = 0; i < versions.size(); i++) {
+                if ((i >= children.size() || children.get(i).child().deferred()) == deferred) {
+                    selected[count++] = versions.get(i);
+                }
+            }
+            return Arrays.copyOf(selected, count);
+        }
+    }
+
+    /**
+     * {@code awaited} completes with the writes a reconcile waits for, {@code deferred} with the ones it
+     * does not. {@code written} completes with the resourceVersions of all children once both are done.
+     */
+    public record Writes(CompletableFuture<Void> awaited,
+                         CompletableFuture<Void> deferred,
+                         CompletableFuture<String> written) {
+    }
+
+    private record Planned<T extends KubernetesObject>(ChildResource<T> child,
+                                                       String namespace,
+                                                       T desired,
+                                                       T current,
+                                                       boolean stale) {
+
+        static <T extends KubernetesObject> Planned<T> of(ChildResource<T> child, V1MyCrd owner, String namespace) {
+            T desired = child.desired(owner);
+            T current = child.current(namespace, desired);
+            return new Planned<>(child, namespace, desired, current, current == null || child.differs(current, desired));
+        }
+
+        CompletableFuture<String> write(ReconcileTrace trace) {
+            if (!stale) {
+                return CompletableFuture.completedFuture(version(current));
+            }
+            return trace.time("write " + child.name(), child.write(namespace, current, desired)).thenApply(Planned::version);
+        }
+
+        static String version(KubernetesObject object) {
+            return object == null ? null : object.getMetadata().getResourceVersion();
+        }
+    }
+}
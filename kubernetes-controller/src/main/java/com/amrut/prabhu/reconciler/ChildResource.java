@@ -0,0 +1,49 @@
+package com.amrut.prabhu.reconciler;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import io.kubernetes.client.common.KubernetesObject;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One kind of object a custom resource owns: how to build it, where its cached copy is, when the cached
+ * copy is out of date and how to write it.
+ */
+public interface ChildResource<T extends KubernetesObject> {
+
+    /**
+     * Names the child's write phase in reconcile traces.
+     */
+    default String name() {
+        return getClass().getSimpleName();
+    }
+
+    T desired(V1MyCrd owner);
+
+    /**
+     * Returns the informer's copy of the desired object, or null when there is none.
+     */
+    T current(String namespace, T desired);
+
+    boolean differs(T current, T desired);
+
+    /**
+     * Starts the write and returns without waiting for the API server.
+     */
+    CompletableFuture<T> write(String namespace, T current, T desired);
+
+    /**
+     * Returns true when the write completes later than the reconcile that asked for it, as for coalesced
+     * writes; the reconcile then does not wait for it.
+     */
+    default boolean deferred() {
+        return false;
+    }
+
+    /**
+     * Cleans up after a deleted owner. Objects with an owner reference are left to the garbage collector.
+     */
+    default CompletableFuture<?> ownerDeleted(String namespace, String ownerName) {
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,84 @@
+package com.amrut.prabhu.reconciler;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.write.ConfigMapCoalescer;
+import com.amrut.prabhu.write.ConfigMapWriter;
+import io.kubernetes.client.informer.cache.Indexer;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The ConfigMap of a custom resource, either its own or its data key in the namespace's shared one.
+ * Shared ConfigMaps are written through the coalescer, so their writes are {@link #deferred()}.
+ */
+public class ConfigMapChild implements ChildResource<V1ConfigMap> {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigMapChild.class);
+
+    private final Indexer<V1ConfigMap> configMapIndexer;
+    private final ConfigMapWriter configMapWriter;
+    private final ConfigMapNaming naming;
+    private final ConfigMapCoalescer coalescer;
+
+    public ConfigMapChild(Indexer<V1ConfigMap> configMapIndexer,
+                          ConfigMapWriter configMapWriter,
+                          ConfigMapNaming naming,
+                          ConfigMapCoalescer coalescer) {
+        this.configMapIndexer = configMapIndexer;
+        this.configMapWriter = configMapWriter;
+        this.naming = naming;
+        this.coalescer = coalescer;
+    }
+
+    @Override
+    public String name() {
+        return "configmap";
+    }
+
+    @Override
+    public V1ConfigMap desired(V1MyCrd owner) {
+        return DesiredResources.createConfigMap(owner, naming);
+    }
+
+    @Override
+    public V1ConfigMap current(String namespace, V1ConfigMap desired) {
+        return configMapIndexer.getByKey(namespace + "/" + desired.getMetadata().getName());
+    }
+
+    @Override
+    public boolean differs(V1ConfigMap current, V1ConfigMap desired) {
+        // Keys another field manager applied next to ours are theirs to keep.
+        boolean exclusive = naming == ConfigMapNaming.PER_RESOURCE && !configMapWriter.applies();
+        return ConfigMapWriter.differs(current, desired, exclusive);
+    }
+
+    @Override
+    public CompletableFuture<V1ConfigMap> write(String namespace, V1ConfigMap current, V1ConfigMap desired) {
+        if (naming == ConfigMapNaming.SHARED) {
+            return coalescer.submit(namespace, desired);
+        }
+        log.info("{} ConfigMap {}/{}", current == null ? "Creating" : "Updating", namespace, desired.getMetadata().getName());
+        return configMapWriter.writeAsync(namespace, current, desired);
+    }
+
+    @Override
+    public boolean deferred() {
+        return naming == ConfigMapNaming.SHARED;
+    }
+
+    @Override
+    public CompletableFuture<?> ownerDeleted(String namespace, String ownerName) {
+        if (naming != ConfigMapNaming.SHARED) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String dataKey = DesiredResources.dataKey(ownerName, naming);
+        V1ConfigMap shared = configMapIndexer.getByKey(namespace + "/" + DesiredResources.CONFIG_MAP_NAME);
+        if (shared == null || shared.getData() == null || !shared.getData().containsKey(dataKey)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return coalescer.remove(namespace, DesiredResources.CONFIG_MAP_NAME, dataKey);
+    }
+}
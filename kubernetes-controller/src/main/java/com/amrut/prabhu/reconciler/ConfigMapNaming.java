@@ -0,0 +1,13 @@
+package com.amrut.prabhu.reconciler;
+
+public enum ConfigMapNaming {
+    /**
+     * All custom resources in a namespace share {@code my-config-map}, each under its own data key. Writes
+     * to it are coalesced into one patch per window.
+     */
+    SHARED,
+    /**
+     * Every custom resource owns a ConfigMap named after itself.
+     */
+    PER_RESOURCE
+}
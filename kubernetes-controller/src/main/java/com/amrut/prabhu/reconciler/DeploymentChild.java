@@ -0,0 +1,52 @@
+package com.amrut.prabhu.reconciler;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.write.DeploymentWriter;
+import io.kubernetes.client.informer.cache.Indexer;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The nginx Deployment of a custom resource, see {@link DesiredResources#createDeployment}.
+ */
+public class DeploymentChild implements ChildResource<V1Deployment> {
+
+    private static final Logger log = LoggerFactory.getLogger(DeploymentChild.class);
+
+    private final Indexer<V1Deployment> deploymentIndexer;
+    private final DeploymentWriter deploymentWriter;
+
+    public DeploymentChild(Indexer<V1Deployment> deploymentIndexer, DeploymentWriter deploymentWriter) {
+        this.deploymentIndexer = deploymentIndexer;
+        this.deploymentWriter = deploymentWriter;
+    }
+
+    @Override
+    public String name() {
+        return "deployment";
+    }
+
+    @Override
+    public V1Deployment desired(V1MyCrd owner) {
+        return DesiredResources.createDeployment(owner);
+    }
+
+    @Override
+    public V1Deployment current(String namespace, V1Deployment desired) {
+        return deploymentIndexer.getByKey(namespace + "/" + desired.getMetadata().getName());
+    }
+
+    @Override
+    public boolean differs(V1Deployment current, V1Deployment desired) {
+        return DeploymentWriter.differs(current, desired);
+    }
+
+    @Override
+    public CompletableFuture<V1Deployment> write(String namespace, V1Deployment current, V1Deployment desired) {
+        log.info("{} Deployment {}/{}", current == null ? "Creating" : "Updating", namespace, desired.getMetadata().getName());
+        return deploymentWriter.writeAsync(namespace, current, desired);
+    }
+}
@@ -0,0 +1,70 @@
+package com.amrut.prabhu.reconciler;
+
+import com.amrut.prabhu.config.ControllerProperties;
+import com.amrut.prabhu.informer.LabelSelectorListerWatcher;
+import com.amrut.prabhu.metrics.InformerEventMetrics;
+import com.amrut.prabhu.sharding.ShardFilter;
+import com.amrut.prabhu.sharding.ShardingListerWatcher;
+import com.amrut.prabhu.write.DeploymentWriter;
+import com.amrut.prabhu.write.ServerSideApply;
+import com.amrut.prabhu.write.WriteRateLimiter;
+import io.kubernetes.client.informer.SharedIndexInformer;
+import io.kubernetes.client.informer.SharedInformerFactory;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentList;
+import io.kubernetes.client.util.generic.GenericKubernetesApi;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "controller.children", name = "deployment", havingValue = "true", matchIfMissing = true)
+public class DeploymentChildConfiguration {
+
+    @Bean
+    SharedIndexInformer<V1Deployment> deploymentInformer(SharedInformerFactory sharedInformerFactory,
+                                                         ApiClient apiClient,
+                                                         ControllerProperties properties,
+                                                         ObjectProvider<ShardFilter> shardFilterProvider,
+                                                         MeterRegistry meterRegistry) {
+        GenericKubernetesApi<V1Deployment, V1DeploymentList> api = new GenericKubernetesApi<>(V1Deployment.class,
+                V1DeploymentList.class,
+                "apps",
+                "v1",
+                "deployments",
+                apiClient);
+        ShardFilter shardFilter = shardFilterProvider.getIfAvailable();
+        LabelSelectorListerWatcher<V1Deployment, V1DeploymentList> listerWatcher = new LabelSelectorListerWatcher<>(api,
+                () -> shardFilter == null || shardFilter.labelSelector() == null
+                        ? DesiredResources.MANAGED_SELECTOR
+                        : DesiredResources.MANAGED_SELECTOR + "," + shardFilter.labelSelector());
+        SharedIndexInformer<V1Deployment> deploymentInformer = sharedInformerFactory.sharedIndexInformerFor(
+                shardFilter == null ? listerWatcher : new ShardingListerWatcher<>(listerWatcher, shardFilter),
+                V1Deployment.class,
+                0);
+        if (properties.getMetrics().isEnabled()) {
+            InformerEventMetrics.register(deploymentInformer, "deployments", meterRegistry);
+        }
+        return deploymentInformer;
+    }
+
+    @Bean
+    DeploymentWriter deploymentWriter(ApiClient apiClient,
+                                      WriteRateLimiter writeRateLimiter,
+                                      ServerSideApply serverSideApply,
+                                      ControllerProperties properties) {
+        return new DeploymentWriter(new AppsV1Api(apiClient),
+                writeRateLimiter,
+                properties.getApply().isEnabled() ? serverSideApply : null);
+    }
+
+    @Bean
+    DeploymentChild deploymentChild(SharedIndexInformer<V1Deployment> deploymentInformer,
+                                    DeploymentWriter deploymentWriter) {
+        return new DeploymentChild(deploymentInformer.getIndexer(), deploymentWriter);
+    }
+}
@@ -0,0 +1,131 @@
+package com.amrut.prabhu.reconciler;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.sharding.ShardFilter;
+import io.kubernetes.client.openapi.models.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Builds the child objects a {@link V1MyCrd} should own.
+ */
+public final class DesiredResources {
+
+    public static final String CONFIG_MAP_NAME = "my-config-map";
+    public static final String MY_OWN_PROPERTY = "my-own-property";
+    public static final String MANAGED_BY_LABEL = "app.kubernetes.io/managed-by";
+    public static final String MANAGED_BY = "my-crd-controller";
+    public static final String MANAGED_SELECTOR = MANAGED_BY_LABEL + "=" + MANAGED_BY;
+    public static final String INSTANCE_LABEL = "app.kubernetes.io/instance";
+    /**
+     * Names the custom resource, as {@code namespace/name}, on ConfigMaps it fans out to other namespaces.
+     * An owner reference cannot point across namespaces.
+     */
+    public static final String FAN_OUT_OWNER_ANNOTATION = "com.amrut.prabhu/fan-out-owner";
+
+    private DesiredResources() {
+    }
+
+    /**
+     * Builds the ConfigMap content this custom resource is responsible for. With {@link ConfigMapNaming#SHARED}
+     * that is one data key in the namespace's shared ConfigMap, plus an owner reference.
+     */
+    public static V1ConfigMap createConfigMap(V1MyCrd resourceInstance, ConfigMapNaming naming) {
+        String name = resourceInstance.getMetadata().getName();
+        V1ObjectMeta metadata = new V1ObjectMeta()
+                .name(configMapName(name, naming))
+                .putLabelsItem(MANAGED_BY_LABEL, MANAGED_BY);
+        Map<String, String> labels = resourceInstance.getMetadata().getLabels();
+        if (naming == ConfigMapNaming.PER_RESOURCE && labels != null && labels.containsKey(ShardFilter.SHARD_LABEL)) {
+            // Keeps the ConfigMap in the same label shard as its owner.
+            metadata.putLabelsItem(ShardFilter.SHARD_LABEL, labels.get(ShardFilter.SHARD_LABEL));
+        }
+        return new V1ConfigMap()
+                .metadata(metadata
+                        .addOwnerReferencesItem(ownerReference(resourceInstance)))
+                .data(Map.of(dataKey(name, naming), resourceInstance
+                        .getSpec()
+                        .getMyOwnProperty()));
+    }
+
+    /**
+     * Builds the copy of a custom resource's ConfigMap for one of its {@link #targetNamespaces}. It is
+     * named after the owner's namespace as well as its name, so custom resources of the same name in two
+     * namespaces do not write the same ConfigMap.
+     */
+    public static V1ConfigMap createFanOutConfigMap(V1MyCrd resourceInstance, String targetNamespace) {
+        V1ObjectMeta owner = resourceInstance.getMetadata();
+        V1ObjectMeta metadata = new V1ObjectMeta()
+                .name(fanOutConfigMapName(owner.getNamespace(), owner.getName()))
+                .namespace(targetNamespace)
+                .putLabelsItem(MANAGED_BY_LABEL, MANAGED_BY)
+                .putAnnotationsItem(FAN_OUT_OWNER_ANNOTATION, owner.getNamespace() + "/" + owner.getName());
+        Map<String, String> labels = owner.getLabels();
+        if (labels != null && labels.containsKey(ShardFilter.SHARD_LABEL)) {
+            metadata.putLabelsItem(ShardFilter.SHARD_LABEL, labels.get(ShardFilter.SHARD_LABEL));
+        }
+        return new V1ConfigMap()
+                .metadata(metadata)
+                .data(Map.of(MY_OWN_PROPERTY, resourceInstance.getSpec().getMyOwnProperty()));
+    }
+
+    public static String fanOutConfigMapName(String ownerNamespace, String ownerName) {
+        return ownerNamespace + "." + ownerName + "-config";
+    }
+
+    /**
+     * The distinct namespaces the spec lists, in the order listed.
+     */
+    public static List<String> targetNamespaces(V1MyCrd resourceInstance) {
+        List<String> listed = resourceInstance.getSpec() == null ? null : resourceInstance.getSpec().getTargetNamespaces();
+        if (listed == null || listed.isEmpty()) {
+            return List.of();
+        }
+        return listed.stream().filter(Objects::nonNull).distinct().toList();
+    }
+
+    public static String configMapName(String resourceName, ConfigMapNaming naming) {
+        return naming == ConfigMapNaming.SHARED ? CONFIG_MAP_NAME : resourceName + "-config";
+    }
+
+    public static String dataKey(String resourceName, ConfigMapNaming naming) {
+        return naming == ConfigMapNaming.SHARED ? resourceName + "." + MY_OWN_PROPERTY : MY_OWN_PROPERTY;
+    }
+
+    /**
+     * Builds the nginx Deployment this custom resource owns, named after it. Only the fields this
+     * controller manages are set, so the object can be sent as a server-side apply.
+     */
+    public static V1Deployment createDeployment(V1MyCrd resourceInstance) {
+        String name = resourceInstance.getMetadata().getName();
+        Map<String, String> selector = Map.of("app", "nginx", INSTANCE_LABEL, name);
+        return new V1Deployment()
+                .metadata(new V1ObjectMeta()
+                        .name(deploymentName(name))
+                        .putLabelsItem(MANAGED_BY_LABEL, MANAGED_BY)
+                        .addOwnerReferencesItem(ownerReference(resourceInstance)))
+                .spec(new V1DeploymentSpec()
+                        .replicas(1)
+                        .selector(new V1LabelSelector().matchLabels(selector))
+                        .template(new V1PodTemplateSpec()
+                                .metadata(new V1ObjectMeta()
+                                        .labels(selector))
+                                .spec(new V1PodSpec()
+                                        .containers(List.of(new V1Container().name("nginx")
+                                                .image("nginx:latest"))))));
+    }
+
+    public static String deploymentName(String resourceName) {
+        return resourceName + "-nginx";
+    }
+
+    private static V1OwnerReference ownerReference(V1MyCrd resourceInstance) {
+        return new V1OwnerReference()
+                .apiVersion(resourceInstance.getApiVersion())
+                .kind(resourceInstance.getKind())
+                .name(resourceInstance.getMetadata().getName())
+                .uid(resourceInstance.getMetadata().getUid());
+    }
+}
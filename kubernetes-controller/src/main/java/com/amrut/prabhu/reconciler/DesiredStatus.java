@@ -0,0 +1,127 @@
+package com.amrut.prabhu.reconciler;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdStatus;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Condition;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Builds the status a {@link V1MyCrd} should report: the generation that was reconciled, a {@code Ready}
+ * condition, the hash of the desired state last applied and, for a custom resource fanned out to other
+ * namespaces, how many of them hold an up-to-date copy. Conditions of other types are kept, and a
+ * {@code Ready} condition whose status did not change keeps its lastTransitionTime, so an unchanged
+ * status compares equal to the cached one.
+ */
+public final class DesiredStatus {
+
+    public static final String READY = "Ready";
+
+    private DesiredStatus() {
+    }
+
+    public static V1MyCrdStatus reconciled(V1MyCrd resourceInstance, String appliedHash) {
+        int targets = DesiredResources.targetNamespaces(resourceInstance).size();
+        return status(resourceInstance, appliedHash, "True", "Reconciled", "All child resources are up to date")
+                .targetNamespaces(fanOutCount(resourceInstance, targets))
+                .appliedNamespaces(fanOutCount(resourceInstance, targets));
+    }
+
+    /**
+     * The status while a fan-out is under way. The last applied hash stays until every namespace has it.
+     */
+    public static V1MyCrdStatus fanningOut(V1MyCrd resourceInstance, int applied, int total) {
+        V1MyCrdStatus current = resourceInstance.getStatus();
+        return status(resourceInstance,
+                current == null ? null : current.getLastAppliedHash(),
+                "False",
+                "FanningOut",
+                "Applied the ConfigMap in " + applied + " of " + total + " namespaces")
+                .targetNamespaces(total)
+                .appliedNamespaces(applied);
+    }
+
+    /**
+     * The status after a failed write. The last applied hash stays, since the children still hold it.
+     */
+    public static V1MyCrdStatus failed(V1MyCrd resourceInstance, ApiException e) {
+        V1MyCrdStatus current = resourceInstance.getStatus();
+        return status(resourceInstance,
+                current == null ? null : current.getLastAppliedHash(),
+                "False",
+                "WriteFailed",
+                "Writing child resources failed with HTTP status " + e.getCode())
+                .targetNamespaces(current == null ? null : current.getTargetNamespaces())
+                .appliedNamespaces(current == null ? null : current.getAppliedNamespaces());
+    }
+
+    /**
+     * Returns true when the status already reports the current generation as reconciled with
+     * {@code appliedHash}.
+     */
+    public static boolean isObserved(V1MyCrd resourceInstance, String appliedHash) {
+        V1MyCrdStatus status = resourceInstance.getStatus();
+        if (status == null
+                || !Objects.equals(status.getObservedGeneration(), resourceInstance.getMetadata().getGeneration())
+                || !Objects.equals(status.getLastAppliedHash(), appliedHash)) {
+            return false;
+        }
+        V1Condition ready = ready(status);
+        return ready != null && "True".equals(ready.getStatus());
+    }
+
+    private static V1MyCrdStatus status(V1MyCrd resourceInstance,
+                                        String appliedHash,
+                                        String conditionStatus,
+                                        String reason,
+                                        String message) {
+        Long generation = resourceInstance.getMetadata().getGeneration();
+        V1MyCrdStatus current = resourceInstance.getStatus();
+        V1Condition previous = current == null ? null : ready(current);
+        V1Condition ready = new V1Condition()
+                .type(READY)
+                .status(conditionStatus)
+                .observedGeneration(generation)
+                .reason(reason)
+                .message(message)
+                .lastTransitionTime(previous != null && conditionStatus.equals(previous.getStatus())
+                        ? previous.getLastTransitionTime()
+                        // The API server keeps whole seconds, so the cached copy will compare equal.
+                        : OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS));
+        List<V1Condition> conditions = new ArrayList<>();
+        if (current != null && current.getConditions() != null) {
+            // Replaced in place, so the order of the list does not change either.
+            current.getConditions().forEach(condition -> conditions.add(READY.equals(condition.getType()) ? ready : condition));
+        }
+        if (previous == null) {
+            conditions.add(ready);
+        }
+        return new V1MyCrdStatus()
+                .observedGeneration(generation)
+                .lastAppliedHash(appliedHash)
+                .conditions(conditions);
+    }
+
+    // Left out for custom resources that never fanned out, and zeroed for those that stopped: the status
+    // patch leaves null fields out, so it cannot remove them.
+    private static Integer fanOutCount(V1MyCrd resourceInstance, int targets) {
+        V1MyCrdStatus current = resourceInstance.getStatus();
+        return targets == 0 && (current == null || current.getTargetNamespaces() == null) ? null : targets;
+    }
+
+    private static V1Condition ready(V1MyCrdStatus status) {
+        if (status.getConditions() == null) {
+            return null;
+        }
+        return status.getConditions().stream()
+                .filter(condition -> READY.equals(condition.getType()))
+                .findFirst()
+                .orElse(null);
+    }
+}
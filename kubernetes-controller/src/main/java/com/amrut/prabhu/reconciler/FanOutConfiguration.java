@@ -0,0 +1,38 @@
+package com.amrut.prabhu.reconciler;
+
+import com.amrut.prabhu.config.ControllerProperties;
+import com.amrut.prabhu.write.ConfigMapWriter;
+import com.amrut.prabhu.write.StatusWriter;
+import io.kubernetes.client.informer.SharedIndexInformer;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "controller.fan-out", name = "enabled", havingValue = "true")
+public class FanOutConfiguration {
+
+    @Bean
+    NamespaceFanOut namespaceFanOut(SharedIndexInformer<V1ConfigMap> configMapInformer,
+                                    ConfigMapWriter configMapWriter,
+                                    StatusWriter statusWriter,
+                                    ControllerProperties properties,
+                                    MeterRegistry meterRegistry) {
+        if (properties.getSharding().isEnabled()) {
+            // Copies land in namespaces outside this replica's slice: its ConfigMap cache cannot see them, and
+            // the replica that does see them does not hold their owner, so it would delete them as orphans.
+            throw new IllegalStateException("controller.fan-out.enabled cannot be combined with controller.sharding.enabled");
+        }
+        // The informer is started by the application runner, after every bean is created.
+        configMapInformer.addIndexers(NamespaceFanOut.indexers());
+        return new NamespaceFanOut(configMapInformer.getIndexer(),
+                configMapWriter,
+                properties.getFanOut().getMaxInFlight(),
+                properties.getStatus().isEnabled()
+                        ? (owner, applied, total) -> statusWriter.update(owner, DesiredStatus.fanningOut(owner, applied, total))
+                        : NamespaceFanOut.ProgressListener.NONE,
+                meterRegistry);
+    }
+}
@@ -0,0 +1,204 @@
+package com.amrut.prabhu.reconciler;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdStatus;
+import com.amrut.prabhu.sharding.ShardFilter;
+import com.amrut.prabhu.tracing.ReconcileTrace;
+import com.amrut.prabhu.tracing.ReconcileTracer;
+import com.amrut.prabhu.write.StatusWriter;
+import io.kubernetes.client.extended.controller.reconciler.Reconciler;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.controller.reconciler.Result;
+import io.kubernetes.client.extended.workqueue.DelayingQueue;
+import io.kubernetes.client.informer.cache.Indexer;
+import io.kubernetes.client.openapi.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+public class MyCrdReconciler implements Reconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(MyCrdReconciler.class);
+
+    private final Indexer<V1MyCrd> myCrdIndexer;
+    private final ChildPipeline pipeline;
+    private final ReconcileSkipCache skipCache;
+    private final RetryPolicy retryPolicy;
+    private final DelayingQueue<Request> workQueue;
+    private final StatusWriter statusWriter;
+    private final ReconcileTracer tracer;
+    private final ShardFilter shardFilter;
+
+    /**
+     * Writes all children of {@code pipeline} in parallel and returns once the direct writes are done.
+     * {@link ChildResource#deferred() Deferred} writes complete after the reconcile returns; a failed one
+     * puts its key back on {@code workQueue} after the retry delay. Every reconcile, from its lookup to its
+     * last write, is recorded in the key's trace.
+     * <p>
+     * With a {@code statusWriter}, the outcome of each reconcile is reported in the custom resource's
+     * status, and a failed status write is retried like a failed child write; null leaves the status
+     * alone. With a {@code shardFilter}, a key missing from the cache because it was handed to another
+     * replica is forgotten without cleaning up its children, which that replica now writes; null when
+     * sharding is off.
+     */
+    public MyCrdReconciler(Indexer<V1MyCrd> myCrdIndexer,
+                           ChildPipeline pipeline,
+                           ReconcileSkipCache skipCache,
+                           RetryPolicy retryPolicy,
+                           DelayingQueue<Request> workQueue,
+                           StatusWriter statusWriter,
+                           ReconcileTracer tracer,
+                           ShardFilter shardFilter) {
+        this.myCrdIndexer = Objects.requireNonNull(myCrdIndexer);
+        this.pipeline = Objects.requireNonNull(pipeline);
+        this.skipCache = Objects.requireNonNull(skipCache);
+        this.retryPolicy = Objects.requireNonNull(retryPolicy);
+        this.workQueue = Objects.requireNonNull(workQueue);
+        this.statusWriter = statusWriter;
+        this.tracer = Objects.requireNonNull(tracer);
+        this.shardFilter = shardFilter;
+    }
+
+    @Override
+    public Result reconcile(Request request) {
+        String key = request.getNamespace() + "/" + request.getName();
+        ReconcileTrace trace = tracer.dequeued(key);
+        ReconcileTrace previous = trace.enter();
+        try {
+            return reconcile(request, key, trace);
+        } finally {
+            ReconcileTrace.exit(previous);
+        }
+    }
+
+    private Result reconcile(Request request, String key, ReconcileTrace trace) {
+        long lookupStartedAt = System.nanoTime();
+        V1MyCrd resourceInstance = myCrdIndexer.getByKey(key);
+        long planStartedAt = System.nanoTime();
+        trace.phase("lookup", lookupStartedAt, planStartedAt);
+
+        if (resourceInstance == null) {
+            skipCache.forget(key);
+            retryPolicy.onSuccess(key);
+            if (statusWriter != null) {
+                statusWriter.forget(key);
+            }
+            if (shardFilter != null && shardFilter.handedOff(request.getNamespace())) {
+                tracer.finish(trace, "handed-off", CompletableFuture.completedFuture(null));
+                return new Result(false);
+            }
+            CompletableFuture<Void> removed = trace.time("delete children", pipeline.ownerDeleted(request.getNamespace(), request.getName()));
+            removed.whenComplete((done, error) -> {
+                if (error != null) {
+                    requeue(request, key, error);
+                }
+            });
+            tracer.finish(trace, "deleted", removed);
+            return new Result(false);
+        }
+        trace.observed(resourceInstance);
+
+        ChildPipeline.Plan plan = pipeline.plan(resourceInstance);
+        String currentVersion = plan.currentVersion();
+
+        String desiredHash = ReconcileSkipCache.hash(resourceInstance, plan.desired());
+        trace.phase("plan", planStartedAt, System.nanoTime());
+        if (skipCache.isUpToDate(key, desiredHash, currentVersion)) {
+            retryPolicy.onSuccess(key);
+            tracer.finish(trace, "up-to-date", reportReconciled(request, key, trace, resourceInstance, desiredHash));
+            return new Result(false);
+        }
+        if (!plan.stale()) {
+            skipCache.recordApplied(key, desiredHash, currentVersion, false);
+            retryPolicy.onSuccess(key);
+            tracer.finish(trace, "up-to-date", reportReconciled(request, key, trace, resourceInstance, desiredHash));
+            return new Result(false);
+        }
+
+        ChildPipeline.Writes writes = plan.write(trace);
+        CompletableFuture<?> reported = writes.written().thenCompose(version -> {
+            skipCache.recordApplied(key, desiredHash, version, true);
+            retryPolicy.onSuccess(key);
+            return reportReconciled(request, key, trace, resourceInstance, desiredHash);
+        });
+        writes.deferred().whenComplete((written, error) -> {
+            if (error != null) {
+                reportFailed(request, key, trace, resourceInstance, apiException(error));
+                requeue(request, key, error);
+            }
+        });
+        try {
+            writes.awaited().get();
+        } catch (ExecutionException e) {
+            ApiException apiException = apiException(e.getCause());
+            Duration delay = retryPolicy.onFailure(key, apiException);
+            log.warn("Writing children of {} failed with {}, retrying in {}", key, apiException.getCode(), delay);
+            tracer.finish(trace, "requeue", reportFailed(request, key, trace, resourceInstance, apiException));
+            tracer.retry(key);
+            return new Result(true, delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tracer.finish(trace, "requeue", CompletableFuture.completedFuture(null));
+            tracer.retry(key);
+            return new Result(true);
+        }
+        tracer.finish(trace, "written", reported);
+        return new Result(false);
+    }
+
+    // A status that already reports this generation and hash is not even rebuilt.
+    private CompletableFuture<?> reportReconciled(Request request,
+                                                  String key,
+                                                  ReconcileTrace trace,
+                                                  V1MyCrd resourceInstance,
+                                                  String desiredHash) {
+        if (statusWriter != null && !DesiredStatus.isObserved(resourceInstance, desiredHash)) {
+            return report(request, key, trace, resourceInstance, DesiredStatus.reconciled(resourceInstance, desiredHash));
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private CompletableFuture<?> reportFailed(Request request,
+                                              String key,
+                                              ReconcileTrace trace,
+                                              V1MyCrd resourceInstance,
+                                              ApiException e) {
+        if (statusWriter != null) {
+            return report(request, key, trace, resourceInstance, DesiredStatus.failed(resourceInstance, e));
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    // Completes normally even when the write fails, since the failure is handled by a retry of its own.
+    private CompletableFuture<?> report(Request request,
+                                        String key,
+                                        ReconcileTrace trace,
+                                        V1MyCrd resourceInstance,
+                                        V1MyCrdStatus status) {
+        return trace.time("status", statusWriter.update(resourceInstance, status))
+                .handle((written, error) -> {
+                    if (error != null) {
+                        requeue(request, key, error);
+                    }
+                    return null;
+                });
+    }
+
+    private void requeue(Request request, String key, Throwable error) {
+        ApiException apiException = apiException(error);
+        Duration delay = retryPolicy.onFailure(key, apiException);
+        log.warn("Writes for {} failed with {}, retrying in {}", key, apiException.getCode(), delay);
+        tracer.retry(key);
+        workQueue.addAfter(request, delay);
+    }
+
+    private static ApiException apiException(Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        return cause instanceof ApiException e ? e : new ApiException(cause);
+    }
+}
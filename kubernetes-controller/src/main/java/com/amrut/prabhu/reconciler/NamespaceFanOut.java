@@ -0,0 +1,372 @@
+package com.amrut.prabhu.reconciler;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.write.ConfigMapWriter;
+import io.kubernetes.client.informer.cache.Indexer;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Fans the ConfigMap of a custom resource out to every namespace its spec lists under
+ * {@code target-namespaces}. {@link #plan} builds the copy for each namespace and diffs it against the
+ * informer cache; {@link Plan#write} then sends only the copies that changed, and deletes the ones left in
+ * namespaces that are no longer listed.
+ * <p>
+ * The writes of all custom resources share one queue with at most {@code maxInFlight} of them in flight.
+ * The queue is worked off by a thread of its own as responses come back, so a spec listing a thousand
+ * namespaces neither floods the API server nor holds a reconcile worker. Sends the write rate limit holds
+ * back are delayed rather than waited for, so the dispatcher thread never blocks. A write that is already
+ * queued or in flight for the same ConfigMap is joined when it carries the same content and waited for when
+ * it does not, so overlapping reconciles of one custom resource never send a ConfigMap twice or out of
+ * order.
+ * Fan-outs to more than {@code maxInFlight} namespaces report their {@link ProgressListener progress} every
+ * tenth of the way.
+ */
+public class NamespaceFanOut implements AutoCloseable {
+
+    /**
+     * Indexes fanned-out ConfigMaps by the {@code namespace/name} of the custom resource they copy.
+     */
+    public static final String OWNER_INDEX = "fan-out-owner";
+
+    private static final Logger log = LoggerFactory.getLogger(NamespaceFanOut.class);
+    private static final int PROGRESS_STEPS = 10;
+
+    private final Indexer<V1ConfigMap> configMapIndexer;
+    private final ConfigMapWriter configMapWriter;
+    private final int maxInFlight;
+    private final ProgressListener progressListener;
+    private final ExecutorService dispatcher;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queuedCount = new AtomicInteger();
+    // Only touched on the dispatcher thread.
+    private final Deque<Call> queued = new ArrayDeque<>();
+    private final Map<String, Call> pending = new HashMap<>();
+
+    public NamespaceFanOut(Indexer<V1ConfigMap> configMapIndexer,
+                           ConfigMapWriter configMapWriter,
+                           int maxInFlight,
+                           ProgressListener progressListener,
+                           MeterRegistry meterRegistry) {
+        this.configMapIndexer = configMapIndexer;
+        this.configMapWriter = configMapWriter;
+        this.maxInFlight = maxInFlight;
+        this.progressListener = progressListener;
+        this.dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "namespace-fan-out");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("controller.fan-out.in-flight", inFlight, AtomicInteger::get)
+                .description("Fan-out writes sent and not yet answered")
+                .register(meterRegistry);
+        Gauge.builder("controller.fan-out.queued", queuedCount, AtomicInteger::get)
+                .description("Fan-out writes waiting for a free slot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Index functions to add to the ConfigMap informer before it starts.
+     */
+    public static Map<String, Function<V1ConfigMap, List<String>>> indexers() {
+        return Map.of(OWNER_INDEX, NamespaceFanOut::owner);
+    }
+
+    public Plan plan(V1MyCrd owner) {
+        String ownerKey = owner.getMetadata().getNamespace() + "/" + owner.getMetadata().getName();
+        List<String> namespaces = DesiredResources.targetNamespaces(owner);
+        // Nobody else writes the copies, so keys they do not carry are removed.
+        boolean exclusive = !configMapWriter.applies();
+        List<Target> targets = new ArrayList<>(namespaces.size());
+        for (String namespace : namespaces) {
+            V1ConfigMap desired = DesiredResources.createFanOutConfigMap(owner, namespace);
+            V1ConfigMap current = configMapIndexer.getByKey(namespace + "/" + desired.getMetadata().getName());
+            targets.add(new Target(namespace,
+                    desired,
+                    current,
+                    current == null || ConfigMapWriter.differs(current, desired, exclusive)));
+        }
+        Set<String> listed = new HashSet<>(namespaces);
+        List<V1ConfigMap> orphans = configMapIndexer.byIndex(OWNER_INDEX, ownerKey).stream()
+                .filter(configMap -> !listed.contains(configMap.getMetadata().getNamespace()))
+                .toList();
+        return new Plan(owner, targets, orphans);
+    }
+
+    /**
+     * Deletes every copy of a deleted custom resource.
+     */
+    public CompletableFuture<Void> ownerDeleted(String namespace, String ownerName) {
+        List<V1ConfigMap> copies = configMapIndexer.byIndex(OWNER_INDEX, namespace + "/" + ownerName);
+        if (copies.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(new Run(null, List.of(), copies)).thenApply(version -> null);
+    }
+
+    @Override
+    public void close() {
+        dispatcher.shutdownNow();
+    }
+
+    private CompletableFuture<String> submit(Run run) {
+        try {
+            dispatcher.execute(run::start);
+        } catch (RejectedExecutionException e) {
+            run.result.completeExceptionally(e);
+        }
+        return run.result;
+    }
+
+    private CompletableFuture<String> enqueue(String key, V1ConfigMap desired, Supplier<CompletableFuture<String>> send) {
+        Call previous = pending.get(key);
+        if (previous != null && Objects.equals(previous.desired, desired)) {
+            return previous.result;
+        }
+        Call call = new Call(key, desired, send);
+        pending.put(key, call);
+        if (previous == null) {
+            queue(call);
+        } else {
+            previous.result.whenComplete((version, error) -> queue(call));
+        }
+        return call.result;
+    }
+
+    private void queue(Call call) {
+        queued.add(call);
+        queuedCount.incrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        while (inFlight.get() < maxInFlight && !queued.isEmpty()) {
+            Call call = queued.poll();
+            queuedCount.decrementAndGet();
+            inFlight.incrementAndGet();
+            CompletableFuture<String> sent;
+            try {
+                sent = call.send.get();
+            } catch (RuntimeException e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            // Call results are completed here, on the dispatcher thread, so whatever depends on them runs
+            // there too.
+            sent.whenCompleteAsync((version, error) -> {
+                inFlight.decrementAndGet();
+                pending.remove(call.key, call);
+                if (error == null) {
+                    call.result.complete(version);
+                } else {
+                    call.result.completeExceptionally(error);
+                }
+                drain();
+            }, dispatcher);
+        }
+    }
+
+    private static List<String> owner(V1ConfigMap configMap) {
+        Map<String, String> annotations = configMap.getMetadata().getAnnotations();
+        String owner = annotations == null ? null : annotations.get(DesiredResources.FAN_OUT_OWNER_ANNOTATION);
+        return owner == null ? List.of() : List.of(owner);
+    }
+
+    private static String version(V1ConfigMap configMap) {
+        return configMap == null ? null : configMap.getMetadata().getResourceVersion();
+    }
+
+    // The resourceVersions of many copies, shortened so the skip cache keeps a few bytes per custom resource.
+    private static String version(List<String> versions) {
+        return versions.isEmpty() ? "" : versions.size() + ":" + ReconcileSkipCache.digest(versions);
+    }
+
+    public final class Plan {
+
+        private final V1MyCrd owner;
+        private final List<Target> targets;
+        private final List<V1ConfigMap> orphans;
+
+        private Plan(V1MyCrd owner, List<Target> targets, List<V1ConfigMap> orphans) {
+            this.owner = owner;
+            this.targets = targets;
+            this.orphans = orphans;
+        }
+
+        /**
+         * The resourceVersions of the cached copies in the listed namespaces, as one digest.
+         */
+        public String currentVersion() {
+            return version(targets.stream().map(target -> version(target.current())).toList());
+        }
+
+        public boolean stale() {
+            return !orphans.isEmpty() || targets.stream().anyMatch(Target::stale);
+        }
+
+        /**
+         * Queues the writes of all out-of-date copies and the deletes of all orphaned ones. Completes with
+         * the digest of the copies' resourceVersions once every call succeeded, or with the first failure
+         * once every call has been answered.
+         */
+        public CompletableFuture<String> write() {
+            if (!stale()) {
+                return CompletableFuture.completedFuture(currentVersion());
+            }
+            return submit(new Run(owner, targets, orphans));
+        }
+    }
+
+    /**
+     * Told how many of a custom resource's target namespaces hold an up-to-date copy while a fan-out runs.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        ProgressListener NONE = (owner, applied, total) -> {
+        };
+
+        void progress(V1MyCrd owner, int applied, int total);
+    }
+
+    private record Target(String namespace, V1ConfigMap desired, V1ConfigMap current, boolean stale) {
+    }
+
+    private static final class Call {
+
+        private final String key;
+        // Null for a delete.
+        private final V1ConfigMap desired;
+        private final Supplier<CompletableFuture<String>> send;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        private Call(String key, V1ConfigMap desired, Supplier<CompletableFuture<String>> send) {
+            this.key = key;
+            this.desired = desired;
+            this.send = send;
+        }
+    }
+
+    // One fan-out. Its state is only touched on the dispatcher thread.
+    private final class Run {
+
+        private final V1MyCrd owner;
+        private final List<Target> targets;
+        private final List<V1ConfigMap> orphans;
+        private final String[] versions;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private int remaining;
+        private int applied;
+        private int nextReport;
+        private Throwable failure;
+
+        private Run(V1MyCrd owner, List<Target> targets, List<V1ConfigMap> orphans) {
+            this.owner = owner;
+            this.targets = targets;
+            this.orphans = orphans;
+            this.versions = new String[targets.size()];
+        }
+
+        private void start() {
+            remaining = orphans.size();
+            for (int i = 0; i < targets.size(); i++) {
+                Target target = targets.get(i);
+                versions[i] = version(target.current());
+                if (target.stale()) {
+                    remaining++;
+                } else {
+                    applied++;
+                }
+            }
+            nextReport = applied + step();
+            if (remaining == 0) {
+                finish();
+                return;
+            }
+            for (int i = 0; i < targets.size(); i++) {
+                Target target = targets.get(i);
+                if (target.stale()) {
+                    int index = i;
+                    String name = target.desired().getMetadata().getName();
+                    enqueue(target.namespace() + "/" + name,
+                            target.desired(),
+                            () -> configMapWriter.writeAsync(target.namespace(), target.current(), target.desired())
+                                    .thenApply(NamespaceFanOut::version))
+                            .whenComplete((version, error) -> completed(index, version, error));
+                }
+            }
+            for (V1ConfigMap orphan : orphans) {
+                String namespace = orphan.getMetadata().getNamespace();
+                String name = orphan.getMetadata().getName();
+                enqueue(namespace + "/" + name,
+                        null,
+                        () -> configMapWriter.deleteAsync(namespace, name).thenApply(deleted -> null))
+                        .whenComplete((version, error) -> completed(-1, version, error));
+            }
+        }
+
+        private void completed(int index, String version, Throwable error) {
+            if (error != null) {
+                if (failure == null) {
+                    failure = error;
+                }
+            } else if (index >= 0) {
+                versions[index] = version;
+                applied++;
+                if (reportsProgress() && applied < targets.size() && applied >= nextReport) {
+                    nextReport = applied + step();
+                    report();
+                }
+            }
+            if (--remaining == 0) {
+                finish();
+            }
+        }
+
+        private void finish() {
+            if (failure == null) {
+                result.complete(version(Arrays.asList(versions)));
+            } else {
+                result.completeExceptionally(failure);
+            }
+        }
+
+        // Small fan-outs finish within one round of writes and report nothing in between.
+        private boolean reportsProgress() {
+            return owner != null && targets.size() > maxInFlight;
+        }
+
+        private int step() {
+            return Math.max(1, targets.size() / PROGRESS_STEPS);
+        }
+
+        private void report() {
+            try {
+                progressListener.progress(owner, applied, targets.size());
+            } catch (RuntimeException e) {
+                log.warn("Reporting fan-out progress of {}/{} failed",
+                        owner.getMetadata().getNamespace(), owner.getMetadata().getName(), e);
+            }
+        }
+    }
+}
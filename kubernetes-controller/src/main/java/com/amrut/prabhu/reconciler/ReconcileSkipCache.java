@@ -0,0 +1,129 @@
+package com.amrut.prabhu.reconciler;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import io.kubernetes.client.common.KubernetesObject;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers, per custom resource key, the hash of the desired state that was last written and the
+ * resourceVersions of the child objects the write produced. A reconcile whose desired hash matches and
+ * whose cached children have not been touched since can be skipped without diffing or writing.
+ */
+public class ReconcileSkipCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Counter skipped;
+    private final Counter applied;
+
+    public ReconcileSkipCache(MeterRegistry meterRegistry) {
+        this.skipped = Counter.builder("controller.reconcile.skipped")
+                .description("Reconciles that found nothing to write")
+                .register(meterRegistry);
+        this.applied = Counter.builder("controller.reconcile.applied")
+                .description("Reconciles that wrote the desired state to the API server")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns true when the desired state was already applied for this key and the children still have
+     * the resourceVersions recorded at apply time, so edits made by someone else are repaired.
+     */
+    public boolean isUpToDate(String key, String desiredHash, String currentVersion) {
+        Entry entry = entries.get(key);
+        if (entry == null
+                || !entry.desiredHash().equals(desiredHash)
+                || !Objects.equals(entry.appliedVersion(), currentVersion)) {
+            return false;
+        }
+        skipped.increment();
+        return true;
+    }
+
+    /**
+     * Records the state the children were left in. {@code written} tells whether it took an API write or
+     * the cached children already matched.
+     */
+    public void recordApplied(String key, String desiredHash, String appliedVersion, boolean written) {
+        entries.put(key, new Entry(desiredHash, appliedVersion));
+        (written ? applied : skipped).increment();
+    }
+
+    public void forget(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Hashes the spec, the generation and every desired child: its kind, name, labels and owner references,
+     * and a ConfigMap's data. Labels and owner references are copied from the custom resource's metadata,
+     * which can change without a new generation. The rest of a child other than a ConfigMap is built from
+     * the name alone, so its kind and name stand for it.
+     */
+    public static String hash(V1MyCrd resourceInstance, List<? extends KubernetesObject> children) {
+        MessageDigest digest = sha256();
+        update(digest, String.valueOf(resourceInstance.getSpec()));
+        update(digest, String.valueOf(resourceInstance.getMetadata().getGeneration()));
+        for (KubernetesObject child : children) {
+            update(digest, child.getClass().getSimpleName());
+            update(digest, child.getMetadata().getName());
+            if (child.getMetadata().getLabels() != null) {
+                new TreeMap<>(child.getMetadata().getLabels()).forEach((name, value) -> {
+                    update(digest, name);
+                    update(digest, value);
+                });
+            }
+            if (child.getMetadata().getOwnerReferences() != null) {
+                for (V1OwnerReference owner : child.getMetadata().getOwnerReferences()) {
+                    update(digest, owner.getUid());
+                    update(digest, owner.getKind());
+                    update(digest, owner.getName());
+                    update(digest, String.valueOf(owner.getController()));
+                }
+            }
+            if (child instanceof V1ConfigMap configMap && configMap.getData() != null) {
+                new TreeMap<>(configMap.getData()).forEach((name, value) -> {
+                    update(digest, name);
+                    update(digest, value);
+                });
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    /**
+     * Hashes a list of values, such as the resourceVersions of many children, into a short string.
+     */
+    static String digest(List<String> values) {
+        MessageDigest digest = sha256();
+        values.forEach(value -> update(digest, value));
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entry(String desiredHash, String appliedVersion) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.amrut.prabhu.reconciler;
+
+import io.kubernetes.client.openapi.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides when a failed reconcile is retried. Each key backs off exponentially from {@code baseDelay} up
+ * to {@code maxDelay}, spread by a random jitter so keys that failed together do not retry together. On
+ * 429 and 503 the API server's Retry-After is a lower bound for the delay.
+ */
+public class RetryPolicy {
+
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final double jitter;
+    private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+    private final Counter throttled;
+    private final Counter failed;
+
+    public RetryPolicy(Duration baseDelay, Duration maxDelay, double jitter, MeterRegistry meterRegistry) {
+        this.baseDelayNanos = baseDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.jitter = jitter;
+        this.throttled = Counter.builder("controller.reconcile.retries")
+                .description("Reconciles requeued after a failed API call")
+                .tag("reason", "throttled")
+                .register(meterRegistry);
+        this.failed = Counter.builder("controller.reconcile.retries")
+                .description("Reconciles requeued after a failed API call")
+                .tag("reason", "error")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a failure for the key and returns how long to wait before reconciling it again.
+     */
+    public Duration onFailure(String key, ApiException e) {
+        int attempt = failures.merge(key, 1, Integer::sum);
+        long backoff = Math.min(maxDelayNanos, baseDelayNanos << Math.min(attempt - 1, 20));
+        double spread = 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        long delay = Math.min(maxDelayNanos, (long) (backoff * spread));
+
+        if (e.getCode() == 429 || e.getCode() == 503) {
+            throttled.increment();
+            Duration retryAfter = retryAfter(e);
+            if (retryAfter != null) {
+                delay = Math.max(delay, retryAfter.toNanos());
+            }
+        } else {
+            failed.increment();
+        }
+        return Duration.ofNanos(delay);
+    }
+
+    public void onSuccess(String key) {
+        failures.remove(key);
+    }
+
+    // Retry-After is either delay-seconds or an HTTP-date.
+    static Duration retryAfter(ApiException e) {
+        Map<String, List<String>> headers = e.getResponseHeaders();
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (!"Retry-After".equalsIgnoreCase(header.getKey()) || header.getValue().isEmpty()) {
+                continue;
+            }
+            String value = header.getValue().get(0).trim();
+            try {
+                return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+            } catch (NumberFormatException notSeconds) {
+                try {
+                    Duration untilDate = Duration.between(ZonedDateTime.now(),
+                            ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+                    return untilDate.isNegative() ? Duration.ZERO : untilDate;
+                } catch (DateTimeParseException notDate) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,104 @@
+package com.amrut.prabhu.sharding;
+
+import io.kubernetes.client.common.KubernetesObject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Decides which objects belong to this replica's slice. In {@link ShardingMode#NAMESPACE} mode the
+ * namespace is the shard key; in {@link ShardingMode#LABEL} mode objects carry a {@link #SHARD_LABEL}
+ * bucket between 0 and the shard count, and each replica owns a set of buckets.
+ */
+public class ShardFilter {
+
+    public static final String SHARD_LABEL = "com.amrut.prabhu/shard";
+
+    private final ShardingMode mode;
+    private final int shardCount;
+    private final String identity;
+    private final List<Runnable> sliceListeners = new CopyOnWriteArrayList<>();
+    private volatile ShardRing ring;
+    private volatile Set<String> ownedBuckets = Set.of();
+
+    public ShardFilter(ShardingMode mode, int shardCount, String identity, ShardRing ring) {
+        this.mode = mode;
+        this.shardCount = shardCount;
+        this.identity = identity;
+        update(ring);
+    }
+
+    /**
+     * Registers a callback run after this replica's slice changed.
+     */
+    public void addSliceListener(Runnable listener) {
+        sliceListeners.add(listener);
+    }
+
+    public void onRingChanged(ShardRing next) {
+        if (update(next)) {
+            sliceListeners.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * Switches to a new ring; returns true when this replica's slice may have changed.
+     */
+    boolean update(ShardRing next) {
+        ShardRing previous = ring;
+        ring = next;
+        if (mode == ShardingMode.NAMESPACE) {
+            return previous == null || !previous.members().equals(next.members());
+        }
+        Set<String> buckets = new TreeSet<>();
+        for (int bucket = 0; bucket < shardCount; bucket++) {
+            if (identity.equals(next.owner(String.valueOf(bucket)))) {
+                buckets.add(String.valueOf(bucket));
+            }
+        }
+        boolean changed = !buckets.equals(ownedBuckets);
+        ownedBuckets = buckets;
+        return changed;
+    }
+
+    public boolean owns(KubernetesObject object) {
+        if (mode == ShardingMode.NAMESPACE) {
+            return identity.equals(ring.owner(object.getMetadata().getNamespace()));
+        }
+        Map<String, String> labels = object.getMetadata().getLabels();
+        return labels != null && ownedBuckets.contains(labels.get(SHARD_LABEL));
+    }
+
+    /**
+     * True when a custom resource in {@code namespace} that is missing from the cache may only have moved to
+     * another replica's slice, which then writes its children. Only namespace mode can tell from the key.
+     * Label mode needs ConfigMaps per resource, and children per resource are left to the garbage
+     * collector, so a handed-off key has nothing to clean up there anyway.
+     */
+    public boolean handedOff(String namespace) {
+        return mode == ShardingMode.NAMESPACE && !identity.equals(ring.owner(namespace));
+    }
+
+    /**
+     * Server-side selector for the owned buckets in label mode, so other slices are never sent to this
+     * replica; null in namespace mode, which can only filter on the client.
+     */
+    public String labelSelector() {
+        if (mode == ShardingMode.NAMESPACE) {
+            return null;
+        }
+        Set<String> buckets = ownedBuckets;
+        // "none" is never a bucket, and keeps the selector valid while this replica owns nothing.
+        return SHARD_LABEL + " in (" + (buckets.isEmpty() ? "none" : String.join(",", buckets)) + ")";
+    }
+
+    public String describe() {
+        return mode == ShardingMode.NAMESPACE
+                ? "namespaces hashing to " + identity + " among " + ring.members()
+                : "buckets " + ownedBuckets.stream().collect(Collectors.joining(",", "[", "]"));
+    }
+}
@@ -0,0 +1,192 @@
+package com.amrut.prabhu.sharding;
+
+import io.kubernetes.client.custom.V1Patch;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CoordinationV1Api;
+import io.kubernetes.client.openapi.models.V1Lease;
+import io.kubernetes.client.openapi.models.V1LeaseSpec;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.util.PatchUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the live replicas of a shard group through one Lease per replica. Each replica keeps renewing
+ * its own Lease and lists the others; a Lease not renewed within its duration counts as a replica that
+ * left. Listeners get a new {@link ShardRing} whenever the member set changes.
+ */
+public class ShardMembership {
+
+    public static final String GROUP_LABEL = "com.amrut.prabhu/shard-group";
+
+    private static final Logger log = LoggerFactory.getLogger(ShardMembership.class);
+
+    private final CoordinationV1Api coordinationV1Api;
+    private final String namespace;
+    private final String group;
+    private final String identity;
+    private final Duration leaseDuration;
+    private final Duration renewInterval;
+    private final int virtualNodes;
+    private final List<Consumer<ShardRing>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shard-membership");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile ShardRing ring;
+
+    public ShardMembership(CoordinationV1Api coordinationV1Api,
+                           String namespace,
+                           String group,
+                           String identity,
+                           Duration leaseDuration,
+                           Duration renewInterval,
+                           int virtualNodes) {
+        this.coordinationV1Api = coordinationV1Api;
+        this.namespace = namespace;
+        this.group = group;
+        this.identity = identity;
+        this.leaseDuration = leaseDuration;
+        this.renewInterval = renewInterval;
+        this.virtualNodes = virtualNodes;
+        this.ring = new ShardRing(List.of(identity), virtualNodes);
+    }
+
+    /**
+     * Registers this replica and reads the current members before returning, so the first LIST is already
+     * filtered by a complete ring.
+     */
+    public void start() throws ApiException {
+        refresh();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (ApiException e) {
+                log.warn("Renewing shard membership failed with HTTP {}", e.getCode(), e);
+            } catch (RuntimeException e) {
+                log.warn("Renewing shard membership failed", e);
+            }
+        }, renewInterval.toMillis(), renewInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops renewing and deletes this replica's Lease so the others rebalance without waiting for it to
+     * expire.
+     */
+    public void stop() {
+        scheduler.shutdownNow();
+        try {
+            coordinationV1Api.deleteNamespacedLease(leaseName(), namespace, null, null, null, null, null, null);
+        } catch (ApiException e) {
+            log.warn("Deleting shard lease {} failed with HTTP {}", leaseName(), e.getCode());
+        }
+    }
+
+    public String identity() {
+        return identity;
+    }
+
+    public ShardRing ring() {
+        return ring;
+    }
+
+    public void addListener(Consumer<ShardRing> listener) {
+        listeners.add(listener);
+    }
+
+    void refresh() throws ApiException {
+        renew();
+        List<String> members = liveMembers();
+        if (!members.contains(identity)) {
+            members.add(identity);
+        }
+        ShardRing next = new ShardRing(members, virtualNodes);
+        if (!next.members().equals(ring.members())) {
+            log.info("Shard group {} changed from {} to {}", group, ring.members(), next.members());
+            ring = next;
+            listeners.forEach(listener -> listener.accept(next));
+        }
+    }
+
+    private void renew() throws ApiException {
+        String renewTime = OffsetDateTime.now().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        V1Patch patch = new V1Patch("{\"spec\":{\"renewTime\":\"" + renewTime + "\"}}");
+        try {
+            PatchUtils.patch(V1Lease.class,
+                    () -> coordinationV1Api.patchNamespacedLeaseCall(leaseName(),
+                            namespace,
+                            patch,
+                            null,
+                            null,
+                            null,
+                            null,
+                            null,
+                            null),
+                    V1Patch.PATCH_FORMAT_JSON_MERGE_PATCH,
+                    coordinationV1Api.getApiClient());
+        } catch (ApiException e) {
+            if (e.getCode() != 404) {
+                throw e;
+            }
+            coordinationV1Api.createNamespacedLease(namespace, new V1Lease()
+                            .metadata(new V1ObjectMeta()
+                                    .name(leaseName())
+                                    .namespace(namespace)
+                                    .putLabelsItem(GROUP_LABEL, group))
+                            .spec(new V1LeaseSpec()
+                                    .holderIdentity(identity)
+                                    .leaseDurationSeconds((int) leaseDuration.toSeconds())
+                                    .acquireTime(OffsetDateTime.now())
+                                    .renewTime(OffsetDateTime.now())),
+                    null,
+                    null,
+                    null,
+                    null);
+        }
+    }
+
+    private List<String> liveMembers() throws ApiException {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<String> members = new ArrayList<>();
+        for (V1Lease lease : coordinationV1Api.listNamespacedLease(namespace,
+                null,
+                null,
+                null,
+                null,
+                GROUP_LABEL + "=" + group,
+                null,
+                null,
+                null,
+                null,
+                null).getItems()) {
+            V1LeaseSpec spec = lease.getSpec();
+            if (spec == null || spec.getHolderIdentity() == null || spec.getRenewTime() == null) {
+                continue;
+            }
+            int durationSeconds = spec.getLeaseDurationSeconds() == null
+                    ? (int) leaseDuration.toSeconds()
+                    : spec.getLeaseDurationSeconds();
+            if (spec.getRenewTime().plusSeconds(durationSeconds).isAfter(now)) {
+                members.add(spec.getHolderIdentity());
+            }
+        }
+        return members;
+    }
+
+    private String leaseName() {
+        return group + "-" + identity.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9.-]", "-");
+    }
+}
@@ -0,0 +1,68 @@
+package com.amrut.prabhu.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring over the live replicas. Every replica builds the same ring from the same member
+ * list, so they agree on the owner of each shard key without talking to each other, and a join or leave
+ * only moves the keys next to the affected member's points.
+ */
+public final class ShardRing {
+
+    private final List<String> members;
+    private final long[] points;
+    private final String[] owners;
+
+    public ShardRing(Collection<String> members, int virtualNodes) {
+        this.members = members.stream().sorted().distinct().toList();
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String member : this.members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(member + "#" + i), member);
+            }
+        }
+        this.points = new long[ring.size()];
+        this.owners = new String[ring.size()];
+        int i = 0;
+        for (Map.Entry<Long, String> point : ring.entrySet()) {
+            points[i] = point.getKey();
+            owners[i++] = point.getValue();
+        }
+    }
+
+    public List<String> members() {
+        return members;
+    }
+
+    /**
+     * Returns the member owning the key, or null when the ring is empty.
+     */
+    public String owner(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    // 64-bit FNV-1a with a final avalanche step so that similar keys spread over the whole ring.
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
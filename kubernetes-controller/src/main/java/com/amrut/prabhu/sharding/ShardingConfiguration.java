@@ -0,0 +1,44 @@
+package com.amrut.prabhu.sharding;
+
+import com.amrut.prabhu.config.ControllerProperties;
+import com.amrut.prabhu.reconciler.ConfigMapNaming;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CoordinationV1Api;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "controller.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfiguration {
+
+    @Bean(destroyMethod = "stop")
+    ShardMembership shardMembership(ApiClient apiClient, ControllerProperties properties) throws ApiException {
+        ControllerProperties.Sharding sharding = properties.getSharding();
+        if (sharding.getMode() == ShardingMode.LABEL && properties.getConfigMap().getNaming() == ConfigMapNaming.SHARED) {
+            // A shared ConfigMap has owners from several label buckets, so it cannot carry one shard label.
+            throw new IllegalStateException("Label sharding needs controller.config-map.naming=per-resource");
+        }
+        ShardMembership shardMembership = new ShardMembership(new CoordinationV1Api(apiClient),
+                sharding.getLeaseNamespace(),
+                sharding.getGroup(),
+                properties.resolveIdentity(),
+                sharding.getLeaseDuration(),
+                sharding.getRenewInterval(),
+                sharding.getVirtualNodes());
+        shardMembership.start();
+        return shardMembership;
+    }
+
+    @Bean
+    ShardFilter shardFilter(ShardMembership shardMembership, ControllerProperties properties) {
+        ControllerProperties.Sharding sharding = properties.getSharding();
+        ShardFilter shardFilter = new ShardFilter(sharding.getMode(),
+                sharding.getShardCount(),
+                shardMembership.identity(),
+                shardMembership.ring());
+        shardMembership.addListener(shardFilter::onRingChanged);
+        return shardFilter;
+    }
+}
@@ -0,0 +1,132 @@
+package com.amrut.prabhu.sharding;
+
+import io.kubernetes.client.common.KubernetesListObject;
+import io.kubernetes.client.common.KubernetesObject;
+import io.kubernetes.client.informer.EventType;
+import io.kubernetes.client.informer.ListerWatcher;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Status;
+import io.kubernetes.client.util.CallGeneratorParams;
+import io.kubernetes.client.util.Watch;
+import io.kubernetes.client.util.Watchable;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Keeps objects outside this replica's slice out of an informer, so its cache only grows with the slice.
+ * When the slice changes the open watch is ended with a synthetic "410 Gone" event; the reflector then
+ * relists, adding the newly owned objects and deleting the ones handed to another replica.
+ */
+public class ShardingListerWatcher<ApiType extends KubernetesObject, ApiListType extends KubernetesListObject>
+        implements ListerWatcher<ApiType, ApiListType> {
+
+    private final ListerWatcher<ApiType, ApiListType> delegate;
+    private final ShardFilter shardFilter;
+    private volatile boolean rebalancePending;
+    private volatile Watchable<ApiType> activeWatch;
+
+    public ShardingListerWatcher(ListerWatcher<ApiType, ApiListType> delegate, ShardFilter shardFilter) {
+        this.delegate = delegate;
+        this.shardFilter = shardFilter;
+        shardFilter.addSliceListener(this::rebalance);
+    }
+
+    @Override
+    public ApiListType list(CallGeneratorParams params) throws ApiException {
+        rebalancePending = false;
+        ApiListType list = delegate.list(params);
+        list.getItems().removeIf(item -> !shardFilter.owns(item));
+        return list;
+    }
+
+    @Override
+    public Watchable<ApiType> watch(CallGeneratorParams params) throws ApiException {
+        Watchable<ApiType> watch = delegate.watch(params);
+        activeWatch = watch;
+        return new ShardWatch(watch);
+    }
+
+    /**
+     * Called after the slice changed; makes the reflector relist.
+     */
+    void rebalance() {
+        rebalancePending = true;
+        Watchable<ApiType> watch = activeWatch;
+        if (watch != null) {
+            try {
+                // Unblocks a watch that is waiting for the next event.
+                watch.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private class ShardWatch implements Watchable<ApiType> {
+
+        private final Watchable<ApiType> watch;
+        private Watch.Response<ApiType> pending;
+
+        ShardWatch(Watchable<ApiType> watch) {
+            this.watch = watch;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pending == null) {
+                if (rebalancePending) {
+                    pending = new Watch.Response<ApiType>(EventType.ERROR.name(), new V1Status()
+                            .code(HttpURLConnection.HTTP_GONE)
+                            .reason("Expired")
+                            .message("shard slice changed"));
+                    break;
+                }
+                boolean more;
+                try {
+                    more = watch.hasNext();
+                } catch (RuntimeException e) {
+                    if (rebalancePending) {
+                        continue;
+                    }
+                    throw e;
+                }
+                if (!more) {
+                    if (rebalancePending) {
+                        continue;
+                    }
+                    return false;
+                }
+                Watch.Response<ApiType> event = watch.next();
+                if (event.object == null || shardFilter.owns(event.object)) {
+                    pending = event;
+                } else if (EventType.MODIFIED.name().equals(event.type)) {
+                    // Relabelled into another slice; deleting a key the cache never had is a no-op.
+                    pending = new Watch.Response<ApiType>(EventType.DELETED.name(), event.object);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Watch.Response<ApiType> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Watch.Response<ApiType> event = pending;
+            pending = null;
+            return event;
+        }
+
+        @Override
+        public Iterator<Watch.Response<ApiType>> iterator() {
+            return this;
+        }
+
+        @Override
+        public void close() throws IOException {
+            watch.close();
+        }
+    }
+}
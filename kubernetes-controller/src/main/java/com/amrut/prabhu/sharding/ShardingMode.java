@@ -0,0 +1,14 @@
+package com.amrut.prabhu.sharding;
+
+public enum ShardingMode {
+    /**
+     * Shard by namespace. Works with any custom resource, but every replica still receives every watch
+     * event and drops the ones outside its slice.
+     */
+    NAMESPACE,
+    /**
+     * Shard by the {@link ShardFilter#SHARD_LABEL} bucket. The API server filters by label, so replicas
+     * only receive their own slice; every custom resource must carry the label.
+     */
+    LABEL
+}
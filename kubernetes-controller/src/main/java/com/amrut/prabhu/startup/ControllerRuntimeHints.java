@@ -0,0 +1,62 @@
+package com.amrut.prabhu.startup;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Reflection and resource hints for a native image of the controller. Gson builds reflective adapters
+ * for the Kubernetes models the client decodes, the CRD status and everything nested in them, and
+ * instantiates the {@code @JsonAdapter} classes of the client's custom types, so every class in those
+ * packages keeps its fields and constructors. The classes are found by scanning the packages when the
+ * image is built, so a client upgrade needs no new list.
+ */
+public class ControllerRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final List<String> MODEL_PACKAGES = List.of(
+            "com.amrut.prabhu.models",
+            "io.kubernetes.client.openapi.models",
+            "io.kubernetes.client.custom");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String modelPackage : MODEL_PACKAGES) {
+            for (String className : classesIn(modelPackage, classLoader)) {
+                hints.reflection().registerTypeIfPresent(classLoader,
+                        className,
+                        MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+        }
+        // WorkerPools looks virtual threads up reflectively, so the image also runs on Java 17.
+        hints.reflection().registerType(Thread.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerTypeIfPresent(classLoader, "java.lang.Thread$Builder", MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.resources().registerPattern("okhttp3/internal/publicsuffix/publicsuffixes.gz");
+    }
+
+    // Every class, nested ones included, not only the candidates for beans.
+    private static Set<String> classesIn(String basePackage, ClassLoader classLoader) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return true;
+            }
+        };
+        scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+        scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+        Set<String> classNames = new TreeSet<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+            classNames.add(candidate.getBeanClassName());
+        }
+        return classNames;
+    }
+}
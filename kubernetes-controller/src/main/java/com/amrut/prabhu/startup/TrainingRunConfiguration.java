@@ -0,0 +1,23 @@
+package com.amrut.prabhu.startup;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+/**
+ * With {@code controller.training-run=true} the application exits as soon as its context is refreshed,
+ * before the informers start, so it needs no API server. The {@code cds} build profile runs it this way
+ * to record the classes it loads into a class data sharing archive.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "controller", name = "training-run", havingValue = "true")
+public class TrainingRunConfiguration {
+
+    @Bean
+    ApplicationListener<ContextRefreshedEvent> trainingRunExit() {
+        return event -> System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
@@ -0,0 +1,179 @@
+package com.amrut.prabhu.tracing;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import io.kubernetes.client.openapi.ApiException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * One pass of a custom resource through the controller: from the watch event that queued its key to the
+ * end of the reconcile it caused, including writes that complete after the reconcile returns. Phases
+ * are timed with {@link System#nanoTime()} and may overlap, as parallel child writes do.
+ * <p>
+ * The trace of the running reconcile is the thread's {@link #current()} one, so API calls started deep
+ * in a writer are recorded without passing it down.
+ */
+public final class ReconcileTrace {
+
+    /**
+     * Records nothing. Returned when tracing is off.
+     */
+    public static final ReconcileTrace NONE = new ReconcileTrace(null, null, 0);
+
+    private static final ThreadLocal<ReconcileTrace> CURRENT = new ThreadLocal<>();
+
+    private final String key;
+    private final String event;
+    private final long queuedAt;
+    private final List<Phase> phases = new ArrayList<>();
+    private volatile String resourceVersion;
+    private volatile Long generation;
+    private volatile String result;
+    private volatile long finishedAt;
+
+    ReconcileTrace(String key, String event, long queuedAt) {
+        this.key = key;
+        this.event = event;
+        this.queuedAt = queuedAt;
+    }
+
+    public static ReconcileTrace current() {
+        ReconcileTrace trace = CURRENT.get();
+        return trace == null ? NONE : trace;
+    }
+
+    /**
+     * Makes this the thread's current trace and returns the previous one, to be handed to {@link #exit}.
+     */
+    public ReconcileTrace enter() {
+        ReconcileTrace previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    public static void exit(ReconcileTrace previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public boolean isRecording() {
+        return key != null;
+    }
+
+    public void observed(V1MyCrd myCrd) {
+        if (isRecording() && myCrd.getMetadata() != null) {
+            resourceVersion = myCrd.getMetadata().getResourceVersion();
+            generation = myCrd.getMetadata().getGeneration();
+        }
+    }
+
+    public void phase(String name, long startedAt, long endedAt) {
+        phase(name, startedAt, endedAt, null);
+    }
+
+    /**
+     * Records a phase. Phases that end after the trace has finished are dropped.
+     */
+    public void phase(String name, long startedAt, long endedAt, String detail) {
+        if (!isRecording()) {
+            return;
+        }
+        synchronized (phases) {
+            if (finishedAt == 0) {
+                phases.add(new Phase(name, startedAt, endedAt, detail));
+            }
+        }
+    }
+
+    /**
+     * Records a phase from now until {@code future} completes, and returns {@code future}.
+     */
+    public <T> CompletableFuture<T> time(String name, CompletableFuture<T> future) {
+        if (!isRecording()) {
+            return future;
+        }
+        long startedAt = System.nanoTime();
+        future.whenComplete((value, error) -> phase(name, startedAt, System.nanoTime(), error == null ? null : describe(error)));
+        return future;
+    }
+
+    void finish(String result) {
+        synchronized (phases) {
+            this.result = result;
+            this.finishedAt = System.nanoTime();
+        }
+    }
+
+    public String key() {
+        return key;
+    }
+
+    /**
+     * What queued the key: {@code add}, {@code update}, {@code delete}, {@code resync}, {@code retry}, or
+     * {@code owned} for a change to a child object.
+     */
+    public String event() {
+        return event;
+    }
+
+    public String resourceVersion() {
+        return resourceVersion;
+    }
+
+    public Long generation() {
+        return generation;
+    }
+
+    public String result() {
+        return result;
+    }
+
+    public long queuedAt() {
+        return queuedAt;
+    }
+
+    public long finishedAt() {
+        return finishedAt;
+    }
+
+    public long durationNanos() {
+        return finishedAt - queuedAt;
+    }
+
+    public List<Phase> phases() {
+        synchronized (phases) {
+            return List.copyOf(phases);
+        }
+    }
+
+    /**
+     * Total time per phase name, in the order the phases were first recorded.
+     */
+    public Map<String, Long> breakdown() {
+        Map<String, Long> breakdown = new LinkedHashMap<>();
+        for (Phase phase : phases()) {
+            breakdown.merge(phase.name(), phase.durationNanos(), Long::sum);
+        }
+        return breakdown;
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof ApiException e && e.getCode() != 0 ? "HTTP " + e.getCode() : cause.getClass().getSimpleName();
+    }
+
+    public record Phase(String name, long startedAt, long endedAt, String detail) {
+
+        public long durationNanos() {
+            return endedAt - startedAt;
+        }
+    }
+}
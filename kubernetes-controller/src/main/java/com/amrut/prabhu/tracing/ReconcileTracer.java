@@ -0,0 +1,218 @@
+package com.amrut.prabhu.tracing;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows each custom resource key from the watch event that queues it, through the queue, to the end of
+ * the reconcile it causes, as a {@link ReconcileTrace}. A key queued again before a worker takes it keeps
+ * its first trace, so the queue phase covers the whole wait. A key the reconciler puts back for a retry
+ * starts a new trace whose queue phase includes the backoff.
+ * <p>
+ * Every finished trace competes for a place among the slowest of the last {@code window}. A sampled
+ * fraction is exported as spans through the Micrometer {@link Tracer}, one root span per trace with a
+ * child per phase, and optionally written to the log as one line.
+ */
+public class ReconcileTracer {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconcileTracer.class);
+
+    private final boolean enabled;
+    private final double samplingProbability;
+    private final boolean logTraces;
+    private final int slowestCount;
+    private final long windowNanos;
+    private final Tracer tracer;
+    private final long epochOffsetNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - System.nanoTime();
+    private final Map<String, ReconcileTrace> queued = new ConcurrentHashMap<>();
+    private final PriorityQueue<ReconcileTrace> slowest =
+            new PriorityQueue<>(Comparator.comparingLong(ReconcileTrace::durationNanos));
+
+    /**
+     * {@code tracer} may be null, in which case nothing is exported as spans.
+     */
+    public ReconcileTracer(double samplingProbability, boolean logTraces, int slowestCount, Duration window, Tracer tracer) {
+        this(true, samplingProbability, logTraces, slowestCount, window, tracer);
+    }
+
+    private ReconcileTracer(boolean enabled,
+                            double samplingProbability,
+                            boolean logTraces,
+                            int slowestCount,
+                            Duration window,
+                            Tracer tracer) {
+        this.enabled = enabled;
+        this.samplingProbability = samplingProbability;
+        this.logTraces = logTraces;
+        this.slowestCount = Math.max(1, slowestCount);
+        this.windowNanos = window.toNanos();
+        this.tracer = tracer;
+    }
+
+    /**
+     * A tracer that records nothing.
+     */
+    public static ReconcileTracer disabled() {
+        return new ReconcileTracer(false, 0, false, 1, Duration.ZERO, null);
+    }
+
+    /**
+     * Called by the watch as it queues the key of {@code myCrd} because of {@code event}.
+     */
+    public void enqueued(V1MyCrd myCrd, String event) {
+        if (!enabled) {
+            return;
+        }
+        String key = myCrd.getMetadata().getNamespace() + "/" + myCrd.getMetadata().getName();
+        queued.computeIfAbsent(key, k -> new ReconcileTrace(k, event, System.nanoTime())).observed(myCrd);
+    }
+
+    /**
+     * Called when the key is put back on the queue after a failure.
+     */
+    public void retry(String key) {
+        if (enabled) {
+            queued.putIfAbsent(key, new ReconcileTrace(key, "retry", System.nanoTime()));
+        }
+    }
+
+    /**
+     * Called as a worker starts reconciling {@code key}. Returns its trace with the queue phase recorded;
+     * a key queued by a child object's watch starts its trace here.
+     */
+    public ReconcileTrace dequeued(String key) {
+        if (!enabled) {
+            return ReconcileTrace.NONE;
+        }
+        long now = System.nanoTime();
+        ReconcileTrace trace = queued.remove(key);
+        if (trace == null) {
+            return new ReconcileTrace(key, "owned", now);
+        }
+        trace.phase("queue", trace.queuedAt(), now);
+        return trace;
+    }
+
+    /**
+     * Finishes {@code trace} with {@code result} once {@code pending} completes, or with {@code failed} if
+     * it fails.
+     */
+    public void finish(ReconcileTrace trace, String result, CompletableFuture<?> pending) {
+        if (trace.isRecording()) {
+            pending.whenComplete((value, error) -> finished(trace, error == null ? result : "failed"));
+        }
+    }
+
+    /**
+     * The slowest traces finished within the window, slowest first.
+     */
+    public List<ReconcileTrace> slowest(int limit) {
+        long cutoff = System.nanoTime() - windowNanos;
+        List<ReconcileTrace> recent;
+        synchronized (slowest) {
+            recent = new ArrayList<>(slowest);
+        }
+        return recent.stream()
+                .filter(trace -> trace.finishedAt() >= cutoff)
+                .sorted(Comparator.comparingLong(ReconcileTrace::durationNanos).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public long epochNanos(long nanoTime) {
+        return epochOffsetNanos + nanoTime;
+    }
+
+    private void finished(ReconcileTrace trace, String result) {
+        trace.finish(result);
+        keepIfSlow(trace);
+        if (ThreadLocalRandom.current().nextDouble() >= samplingProbability) {
+            return;
+        }
+        if (tracer != null) {
+            export(trace);
+        }
+        if (logTraces) {
+            log.info("Reconciled {} ({} rv={} generation={}) {} in {} ms: {}",
+                    trace.key(),
+                    trace.event(),
+                    trace.resourceVersion(),
+                    trace.generation(),
+                    trace.result(),
+                    millis(trace.durationNanos()),
+                    describe(trace.breakdown()));
+        }
+    }
+
+    private void keepIfSlow(ReconcileTrace trace) {
+        synchronized (slowest) {
+            if (slowest.size() >= slowestCount) {
+                long cutoff = trace.finishedAt() - windowNanos;
+                slowest.removeIf(kept -> kept.finishedAt() < cutoff);
+            }
+            if (slowest.size() < slowestCount) {
+                slowest.add(trace);
+            } else if (trace.durationNanos() > slowest.peek().durationNanos()) {
+                slowest.poll();
+                slowest.add(trace);
+            }
+        }
+    }
+
+    // Spans are built after the fact from the recorded timestamps, so they carry the real start and end.
+    private void export(ReconcileTrace trace) {
+        Span root = tracer.spanBuilder()
+                .setNoParent()
+                .name("reconcile")
+                .tag("key", trace.key())
+                .tag("event", trace.event())
+                .tag("resourceVersion", String.valueOf(trace.resourceVersion()))
+                .tag("generation", String.valueOf(trace.generation()))
+                .tag("result", trace.result())
+                .startTimestamp(epochNanos(trace.queuedAt()), TimeUnit.NANOSECONDS)
+                .start();
+        for (ReconcileTrace.Phase phase : trace.phases()) {
+            Span.Builder span = tracer.spanBuilder()
+                    .setParent(root.context())
+                    .name(phase.name())
+                    .tag("key", trace.key())
+                    .tag("resourceVersion", String.valueOf(trace.resourceVersion()))
+                    .tag("generation", String.valueOf(trace.generation()))
+                    .startTimestamp(epochNanos(phase.startedAt()), TimeUnit.NANOSECONDS);
+            if (phase.detail() != null) {
+                span.tag("detail", phase.detail());
+            }
+            span.start().end(epochNanos(phase.endedAt()), TimeUnit.NANOSECONDS);
+        }
+        root.end(epochNanos(trace.finishedAt()), TimeUnit.NANOSECONDS);
+    }
+
+    private static String describe(Map<String, Long> breakdown) {
+        StringBuilder description = new StringBuilder();
+        breakdown.forEach((name, nanos) -> {
+            if (!description.isEmpty()) {
+                description.append(", ");
+            }
+            description.append(name).append('=').append(millis(nanos));
+        });
+        return description.toString();
+    }
+
+    static double millis(long nanos) {
+        return Math.round(nanos / 1e4) / 100.0;
+    }
+}
@@ -0,0 +1,69 @@
+package com.amrut.prabhu.tracing;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/reconciles}: the slowest recent reconciles with their phase breakdown, slowest first.
+ * {@code ?limit=} caps the list, 20 by default. Times are in milliseconds; a phase's offset is from the
+ * moment its key was queued.
+ */
+@Endpoint(id = "reconciles")
+public class SlowReconcilesEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final ReconcileTracer tracer;
+
+    public SlowReconcilesEndpoint(ReconcileTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @ReadOperation
+    public List<SlowReconcile> slowest(@Nullable Integer limit) {
+        return tracer.slowest(limit == null ? DEFAULT_LIMIT : limit)
+                .stream()
+                .map(this::describe)
+                .toList();
+    }
+
+    private SlowReconcile describe(ReconcileTrace trace) {
+        Map<String, Double> breakdown = new LinkedHashMap<>();
+        trace.breakdown().forEach((name, nanos) -> breakdown.put(name, ReconcileTracer.millis(nanos)));
+        return new SlowReconcile(trace.key(),
+                trace.resourceVersion(),
+                trace.generation(),
+                trace.event(),
+                trace.result(),
+                Instant.EPOCH.plusNanos(tracer.epochNanos(trace.queuedAt())),
+                ReconcileTracer.millis(trace.durationNanos()),
+                breakdown,
+                trace.phases()
+                        .stream()
+                        .map(phase -> new Phase(phase.name(),
+                                ReconcileTracer.millis(phase.startedAt() - trace.queuedAt()),
+                                ReconcileTracer.millis(phase.durationNanos()),
+                                phase.detail()))
+                        .toList());
+    }
+
+    public record SlowReconcile(String key,
+                                String resourceVersion,
+                                Long generation,
+                                String event,
+                                String result,
+                                Instant queuedAt,
+                                double totalMillis,
+                                Map<String, Double> breakdown,
+                                List<Phase> phases) {
+    }
+
+    public record Phase(String name, double offsetMillis, double millis, String detail) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.amrut.prabhu.transport;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import io.kubernetes.client.informer.EventType;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Status;
+import io.kubernetes.client.util.Watch;
+import io.kubernetes.client.util.Watchable;
+import okhttp3.Call;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+/**
+ * A watch that decodes events straight from the response stream. The client's {@code Watch} reads every
+ * event into a String, one line each, and decodes that; here one {@link JsonReader} stays on the body for
+ * the life of the watch and reads the events as consecutive JSON values, so an event allocates only the
+ * object it decodes to. The object is read with the Gson adapter registered for its type.
+ */
+public class StreamingWatch<T> implements Watchable<T> {
+
+    private final Response response;
+    private final JsonReader reader;
+    private final TypeAdapter<T> objectAdapter;
+    private final TypeAdapter<V1Status> statusAdapter;
+
+    public StreamingWatch(Response response, Gson gson, Class<T> type) {
+        this.response = response;
+        this.reader = new JsonReader(response.body().charStream());
+        // Events are separate top-level values, one per line.
+        this.reader.setLenient(true);
+        this.objectAdapter = gson.getAdapter(type);
+        this.statusAdapter = gson.getAdapter(V1Status.class);
+    }
+
+    /**
+     * Executes {@code call}, a request with {@code watch=true}, and watches its response.
+     */
+    public static <T> StreamingWatch<T> open(Call call, Gson gson, Class<T> type) throws ApiException {
+        Response response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            throw new ApiException(e);
+        }
+        if (!response.isSuccessful()) {
+            try (response) {
+                ResponseBody body = response.body();
+                throw new ApiException(response.code(),
+                        response.headers().toMultimap(),
+                        body == null ? null : body.string());
+            } catch (IOException e) {
+                throw new ApiException(e);
+            }
+        }
+        return new StreamingWatch<>(response, gson, type);
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return reader.peek() != JsonToken.END_DOCUMENT;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Watch.Response<T> next() {
+        try {
+            String type = null;
+            T object = null;
+            V1Status status = null;
+            JsonElement early = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "type" -> type = reader.nextString();
+                    case "object" -> {
+                        if (type == null) {
+                            // The API server writes the type first; kept as a tree for any other order.
+                            early = JsonParser.parseReader(reader);
+                        } else if (isError(type)) {
+                            status = statusAdapter.read(reader);
+                        } else {
+                            object = objectAdapter.read(reader);
+                        }
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (early != null) {
+                if (isError(type)) {
+                    status = statusAdapter.fromJsonTree(early);
+                } else {
+                    object = objectAdapter.fromJsonTree(early);
+                }
+            }
+            return isError(type) ? new Watch.Response<T>(type, status) : new Watch.Response<T>(type, object);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Iterator<Watch.Response<T>> iterator() {
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        response.close();
+    }
+
+    private static boolean isError(String type) {
+        return EventType.ERROR.name().equals(type);
+    }
+}
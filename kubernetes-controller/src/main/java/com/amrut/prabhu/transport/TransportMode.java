@@ -0,0 +1,14 @@
+package com.amrut.prabhu.transport;
+
+public enum TransportMode {
+    /**
+     * The autoconfigured OkHttp client, and the client's {@code Watch}, which reads each event into a
+     * String before decoding it.
+     */
+    DEFAULT,
+    /**
+     * {@link TunedTransport}'s connection settings, and custom resource watch events decoded straight from
+     * the response stream by {@link StreamingWatch}.
+     */
+    TUNED
+}
@@ -0,0 +1,40 @@
+package com.amrut.prabhu.transport;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection settings for a controller that keeps long-lived watches open next to bursts of writes.
+ * <ul>
+ * <li>HTTP/2 is offered first, so against a TLS API server every watch and write is a stream on one
+ * multiplexed connection instead of a connection each.</li>
+ * <li>The connection pool keeps as many idle connections as the dispatcher allows calls in flight. Over
+ * HTTP/1.1 the default of 5 would close most connections after every burst of writes and pay a TLS
+ * handshake for each on the next one.</li>
+ * <li>HTTP/2 pings detect a dead connection. Watches run without a read timeout, so otherwise every stream
+ * on it would hang until the kernel gives up on the socket.</li>
+ * </ul>
+ * All clients configured by one instance share its connection pool.
+ */
+public class TunedTransport {
+
+    private final ConnectionPool connectionPool;
+    private final Duration pingInterval;
+
+    public TunedTransport(int maxIdleConnections, Duration keepAlive, Duration pingInterval) {
+        this.connectionPool = new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS);
+        this.pingInterval = pingInterval;
+    }
+
+    public OkHttpClient.Builder configure(OkHttpClient.Builder builder) {
+        return builder
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectionPool(connectionPool)
+                .pingInterval(pingInterval);
+    }
+}
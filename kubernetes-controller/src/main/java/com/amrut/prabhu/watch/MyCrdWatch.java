@@ -0,0 +1,91 @@
+package com.amrut.prabhu.watch;
+
+import com.amrut.prabhu.adaptive.ResyncGovernor;
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.tracing.ReconcileTracer;
+import com.amrut.prabhu.workqueue.PriorityWorkQueue;
+import com.amrut.prabhu.workqueue.WorkPriority;
+import io.kubernetes.client.extended.controller.ControllerWatch;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.workqueue.WorkQueue;
+import io.kubernetes.client.informer.ResourceEventHandler;
+
+import java.time.Duration;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Primary watch on the custom resources, filtered by {@link WatchPredicates}. Adds, deletes and real
+ * updates are enqueued as {@link WorkPriority#CHANGE}; periodic resyncs, which carry an unchanged
+ * resourceVersion, as {@link WorkPriority#RESYNC}, so they never delay a change. Resyncs the
+ * {@link ResyncGovernor} holds back are dropped. Each enqueue opens the key's trace in the
+ * {@link ReconcileTracer}.
+ */
+public class MyCrdWatch implements ControllerWatch<V1MyCrd> {
+
+    private final WorkQueue<Request> workQueue;
+    private final Predicate<V1MyCrd> onAdd;
+    private final BiPredicate<V1MyCrd, V1MyCrd> onUpdate;
+    private final Duration resyncPeriod;
+    private final ReconcileTracer tracer;
+    private final ResyncGovernor resyncGovernor;
+
+    public MyCrdWatch(WorkQueue<Request> workQueue,
+                      Predicate<V1MyCrd> onAdd,
+                      BiPredicate<V1MyCrd, V1MyCrd> onUpdate,
+                      Duration resyncPeriod,
+                      ReconcileTracer tracer,
+                      ResyncGovernor resyncGovernor) {
+        this.workQueue = workQueue;
+        this.onAdd = onAdd;
+        this.onUpdate = onUpdate;
+        this.resyncPeriod = resyncPeriod;
+        this.tracer = tracer;
+        this.resyncGovernor = resyncGovernor;
+    }
+
+    @Override
+    public ResourceEventHandler<V1MyCrd> getResourceEventHandler() {
+        return new ResourceEventHandler<>() {
+            @Override
+            public void onAdd(V1MyCrd obj) {
+                if (onAdd.test(obj)) {
+                    enqueue(obj, "add", WorkPriority.CHANGE);
+                }
+            }
+
+            @Override
+            public void onUpdate(V1MyCrd oldObj, V1MyCrd newObj) {
+                if (onUpdate.test(oldObj, newObj)) {
+                    if (WatchPredicates.isResync(oldObj, newObj)) {
+                        if (resyncGovernor.admit()) {
+                            enqueue(newObj, "resync", WorkPriority.RESYNC);
+                        }
+                    } else {
+                        enqueue(newObj, "update", WorkPriority.CHANGE);
+                    }
+                }
+            }
+
+            @Override
+            public void onDelete(V1MyCrd obj, boolean deletedFinalStateUnknown) {
+                enqueue(obj, "delete", WorkPriority.CHANGE);
+            }
+        };
+    }
+
+    @Override
+    public Class<V1MyCrd> getResourceClass() {
+        return V1MyCrd.class;
+    }
+
+    @Override
+    public Duration getResyncPeriod() {
+        return resyncPeriod;
+    }
+
+    private void enqueue(V1MyCrd myCrd, String event, WorkPriority priority) {
+        tracer.enqueued(myCrd, event);
+        PriorityWorkQueue.add(workQueue, new Request(myCrd.getMetadata().getNamespace(), myCrd.getMetadata().getName()), priority);
+    }
+}
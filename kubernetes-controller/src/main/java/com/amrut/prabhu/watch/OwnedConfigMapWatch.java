@@ -0,0 +1,117 @@
+package com.amrut.prabhu.watch;
+
+import com.amrut.prabhu.reconciler.ConfigMapNaming;
+import com.amrut.prabhu.reconciler.DesiredResources;
+import com.amrut.prabhu.workqueue.PriorityWorkQueue;
+import com.amrut.prabhu.workqueue.WorkPriority;
+import io.kubernetes.client.extended.controller.ControllerWatch;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.workqueue.WorkQueue;
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Secondary watch on the ConfigMaps the controller writes. A change to a ConfigMap enqueues the custom
+ * resources that own it, found through the owner references set by {@link DesiredResources}, so drift is
+ * repaired without waiting for a resync. On a shared ConfigMap only owners whose own data key changed are
+ * enqueued, unless labels changed or the ConfigMap was deleted. Copies fanned out to other namespaces
+ * carry no owner reference and are traced back through {@link DesiredResources#FAN_OUT_OWNER_ANNOTATION}.
+ * Adds are ignored: they are the controller's own creates.
+ */
+public class OwnedConfigMapWatch implements ControllerWatch<V1ConfigMap> {
+
+    private final WorkQueue<Request> workQueue;
+    private final ConfigMapNaming naming;
+
+    public OwnedConfigMapWatch(WorkQueue<Request> workQueue, ConfigMapNaming naming) {
+        this.workQueue = workQueue;
+        this.naming = naming;
+    }
+
+    @Override
+    public ResourceEventHandler<V1ConfigMap> getResourceEventHandler() {
+        return new ResourceEventHandler<>() {
+            @Override
+            public void onAdd(V1ConfigMap obj) {
+            }
+
+            @Override
+            public void onUpdate(V1ConfigMap oldObj, V1ConfigMap newObj) {
+                if (Objects.equals(oldObj.getMetadata().getResourceVersion(), newObj.getMetadata().getResourceVersion())) {
+                    return;
+                }
+                boolean labelsChanged = !Objects.equals(oldObj.getMetadata().getLabels(), newObj.getMetadata().getLabels());
+                List<V1OwnerReference> newOwners = OwnerReferences.myCrdOwners(newObj);
+                // Owners whose reference was removed must put it back.
+                OwnerReferences.myCrdOwners(oldObj).stream()
+                        .filter(owner -> newOwners.stream().noneMatch(kept -> Objects.equals(kept.getUid(), owner.getUid())))
+                        .forEach(owner -> enqueue(newObj, owner));
+                for (V1OwnerReference owner : newOwners) {
+                    if (labelsChanged || dataChanged(oldObj, newObj, owner)) {
+                        enqueue(newObj, owner);
+                    }
+                }
+                String fanOutOwner = fanOutOwner(oldObj);
+                if (fanOutOwner != null && (labelsChanged
+                        || !fanOutOwner.equals(fanOutOwner(newObj))
+                        || !Objects.equals(data(oldObj), data(newObj)))) {
+                    enqueue(fanOutOwner);
+                }
+            }
+
+            @Override
+            public void onDelete(V1ConfigMap obj, boolean deletedFinalStateUnknown) {
+                OwnerReferences.myCrdOwners(obj).forEach(owner -> enqueue(obj, owner));
+                String fanOutOwner = fanOutOwner(obj);
+                if (fanOutOwner != null) {
+                    enqueue(fanOutOwner);
+                }
+            }
+        };
+    }
+
+    @Override
+    public Class<V1ConfigMap> getResourceClass() {
+        return V1ConfigMap.class;
+    }
+
+    @Override
+    public Duration getResyncPeriod() {
+        return Duration.ZERO;
+    }
+
+    private boolean dataChanged(V1ConfigMap oldObj, V1ConfigMap newObj, V1OwnerReference owner) {
+        String dataKey = DesiredResources.dataKey(owner.getName(), naming);
+        return !Objects.equals(data(oldObj).get(dataKey), data(newObj).get(dataKey))
+                || naming == ConfigMapNaming.PER_RESOURCE && !Objects.equals(data(oldObj), data(newObj));
+    }
+
+    private void enqueue(V1ConfigMap configMap, V1OwnerReference owner) {
+        PriorityWorkQueue.add(workQueue, new Request(configMap.getMetadata().getNamespace(), owner.getName()), WorkPriority.DRIFT);
+    }
+
+    // The owner's namespace/name.
+    private void enqueue(String fanOutOwner) {
+        int separator = fanOutOwner.indexOf('/');
+        if (separator > 0) {
+            PriorityWorkQueue.add(workQueue,
+                    new Request(fanOutOwner.substring(0, separator), fanOutOwner.substring(separator + 1)),
+                    WorkPriority.DRIFT);
+        }
+    }
+
+    private static String fanOutOwner(V1ConfigMap configMap) {
+        Map<String, String> annotations = configMap.getMetadata().getAnnotations();
+        return annotations == null ? null : annotations.get(DesiredResources.FAN_OUT_OWNER_ANNOTATION);
+    }
+
+    private static Map<String, String> data(V1ConfigMap configMap) {
+        return configMap.getData() == null ? Map.of() : configMap.getData();
+    }
+}
@@ -0,0 +1,67 @@
+package com.amrut.prabhu.watch;
+
+import com.amrut.prabhu.reconciler.DesiredResources;
+import com.amrut.prabhu.workqueue.PriorityWorkQueue;
+import com.amrut.prabhu.workqueue.WorkPriority;
+import io.kubernetes.client.extended.controller.ControllerWatch;
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.workqueue.WorkQueue;
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Secondary watch on the Deployments built by {@link DesiredResources#createDeployment}. A spec change
+ * (a new generation), a label change or a delete enqueues the owning custom resources. Status updates,
+ * which the Deployment controller makes on every rollout step, are ignored, and so are adds.
+ */
+public class OwnedDeploymentWatch implements ControllerWatch<V1Deployment> {
+
+    private final WorkQueue<Request> workQueue;
+
+    public OwnedDeploymentWatch(WorkQueue<Request> workQueue) {
+        this.workQueue = workQueue;
+    }
+
+    @Override
+    public ResourceEventHandler<V1Deployment> getResourceEventHandler() {
+        return new ResourceEventHandler<>() {
+            @Override
+            public void onAdd(V1Deployment obj) {
+            }
+
+            @Override
+            public void onUpdate(V1Deployment oldObj, V1Deployment newObj) {
+                if (Objects.equals(oldObj.getMetadata().getGeneration(), newObj.getMetadata().getGeneration())
+                        && Objects.equals(oldObj.getMetadata().getLabels(), newObj.getMetadata().getLabels())
+                        && Objects.equals(OwnerReferences.myCrdOwners(oldObj), OwnerReferences.myCrdOwners(newObj))) {
+                    return;
+                }
+                OwnerReferences.myCrdOwners(oldObj).forEach(owner -> enqueue(newObj, owner));
+                OwnerReferences.myCrdOwners(newObj).forEach(owner -> enqueue(newObj, owner));
+            }
+
+            @Override
+            public void onDelete(V1Deployment obj, boolean deletedFinalStateUnknown) {
+                OwnerReferences.myCrdOwners(obj).forEach(owner -> enqueue(obj, owner));
+            }
+        };
+    }
+
+    @Override
+    public Class<V1Deployment> getResourceClass() {
+        return V1Deployment.class;
+    }
+
+    @Override
+    public Duration getResyncPeriod() {
+        return Duration.ZERO;
+    }
+
+    private void enqueue(V1Deployment deployment, V1OwnerReference owner) {
+        PriorityWorkQueue.add(workQueue, new Request(deployment.getMetadata().getNamespace(), owner.getName()), WorkPriority.DRIFT);
+    }
+}
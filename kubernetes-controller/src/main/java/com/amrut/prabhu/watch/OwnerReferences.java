@@ -0,0 +1,31 @@
+package com.amrut.prabhu.watch;
+
+import com.amrut.prabhu.informer.MyCrdListerWatcher;
+import io.kubernetes.client.common.KubernetesObject;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+
+import java.util.List;
+
+/**
+ * Finds the custom resources among the owners of a child object, for the secondary watches.
+ */
+final class OwnerReferences {
+
+    private static final String OWNER_API_VERSION = MyCrdListerWatcher.GROUP + "/" + MyCrdListerWatcher.VERSION;
+
+    private OwnerReferences() {
+    }
+
+    /**
+     * The owner references of {@code child} that point to a custom resource.
+     */
+    static List<V1OwnerReference> myCrdOwners(KubernetesObject child) {
+        List<V1OwnerReference> ownerReferences = child.getMetadata().getOwnerReferences();
+        if (ownerReferences == null) {
+            return List.of();
+        }
+        return ownerReferences.stream()
+                .filter(owner -> OWNER_API_VERSION.equals(owner.getApiVersion()))
+                .toList();
+    }
+}
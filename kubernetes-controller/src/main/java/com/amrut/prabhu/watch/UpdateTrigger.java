@@ -0,0 +1,16 @@
+package com.amrut.prabhu.watch;
+
+public enum UpdateTrigger {
+    /**
+     * Every update with a new resourceVersion, including status and metadata-only changes.
+     */
+    ANY_CHANGE,
+    /**
+     * Updates that bump metadata.generation, which the API server does for spec changes only.
+     */
+    GENERATION,
+    /**
+     * Updates whose spec differs from the previous one, compared field by field.
+     */
+    SPEC
+}
@@ -0,0 +1,87 @@
+package com.amrut.prabhu.watch;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Decides which custom resource events reach the work queue. An update passes when it is a resync (same
+ * resourceVersion), when the labels changed, since they pick the shard and the child's labels, or when it
+ * matches the {@link UpdateTrigger}. Adds and updates must also match the label and annotation selectors.
+ * A status write that reports the current generation never passes, whatever the trigger: it is the
+ * controller's own.
+ */
+public final class WatchPredicates {
+
+    private WatchPredicates() {
+    }
+
+    public static Predicate<V1MyCrd> onAdd(String labelSelector, String annotationSelector) {
+        Predicate<Map<String, String>> labels = selector(labelSelector);
+        Predicate<Map<String, String>> annotations = selector(annotationSelector);
+        return myCrd -> labels.test(myCrd.getMetadata().getLabels())
+                && annotations.test(myCrd.getMetadata().getAnnotations());
+    }
+
+    public static BiPredicate<V1MyCrd, V1MyCrd> onUpdate(UpdateTrigger trigger, String labelSelector, String annotationSelector) {
+        Predicate<V1MyCrd> selected = onAdd(labelSelector, annotationSelector);
+        BiPredicate<V1MyCrd, V1MyCrd> changed = switch (trigger) {
+            case ANY_CHANGE -> (oldObj, newObj) -> true;
+            case GENERATION -> (oldObj, newObj) -> !Objects.equals(oldObj.getMetadata().getGeneration(),
+                    newObj.getMetadata().getGeneration());
+            case SPEC -> (oldObj, newObj) -> !Objects.equals(oldObj.getSpec(), newObj.getSpec());
+        };
+        return (oldObj, newObj) -> selected.test(newObj)
+                && (isResync(oldObj, newObj)
+                || !Objects.equals(oldObj.getMetadata().getLabels(), newObj.getMetadata().getLabels())
+                || changed.test(oldObj, newObj) && !isObservedStatusWrite(oldObj, newObj));
+    }
+
+    private static boolean isObservedStatusWrite(V1MyCrd oldObj, V1MyCrd newObj) {
+        V1MyCrdStatus status = newObj.getStatus();
+        return status != null
+                && !Objects.equals(oldObj.getStatus(), status)
+                && Objects.equals(status.getObservedGeneration(), newObj.getMetadata().getGeneration())
+                && Objects.equals(oldObj.getMetadata().getGeneration(), newObj.getMetadata().getGeneration())
+                && Objects.equals(oldObj.getMetadata().getAnnotations(), newObj.getMetadata().getAnnotations())
+                && Objects.equals(oldObj.getSpec(), newObj.getSpec());
+    }
+
+    static boolean isResync(V1MyCrd oldObj, V1MyCrd newObj) {
+        return Objects.equals(oldObj.getMetadata().getResourceVersion(), newObj.getMetadata().getResourceVersion());
+    }
+
+    /**
+     * Parses an equality-based selector: {@code key=value}, {@code key!=value} or a bare {@code key} that
+     * must be present, separated by commas. An empty selector matches everything.
+     */
+    static Predicate<Map<String, String>> selector(String selector) {
+        if (selector == null || selector.isBlank()) {
+            return values -> true;
+        }
+        List<Predicate<Map<String, String>>> requirements = new ArrayList<>();
+        for (String requirement : selector.split(",")) {
+            String trimmed = requirement.trim();
+            int notEquals = trimmed.indexOf("!=");
+            int equals = trimmed.indexOf('=');
+            if (notEquals > 0) {
+                String key = trimmed.substring(0, notEquals).trim();
+                String value = trimmed.substring(notEquals + 2).trim();
+                requirements.add(values -> values == null || !value.equals(values.get(key)));
+            } else if (equals > 0) {
+                String key = trimmed.substring(0, equals).trim();
+                String value = trimmed.substring(trimmed.startsWith("==", equals) ? equals + 2 : equals + 1).trim();
+                requirements.add(values -> values != null && value.equals(values.get(key)));
+            } else {
+                requirements.add(values -> values != null && values.containsKey(trimmed));
+            }
+        }
+        return values -> requirements.stream().allMatch(requirement -> requirement.test(values));
+    }
+}
@@ -0,0 +1,283 @@
+package com.amrut.prabhu.workqueue;
+
+import io.kubernetes.client.extended.workqueue.RateLimitingQueue;
+import io.kubernetes.client.extended.workqueue.WorkQueue;
+import io.kubernetes.client.extended.workqueue.ratelimiter.DefaultControllerRateLimiter;
+import io.kubernetes.client.extended.workqueue.ratelimiter.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A work queue with one FIFO tier per {@link WorkPriority}. Workers take from the highest non-empty tier,
+ * except that a tier passed over {@code starvationLimit} times in a row while it had items is served
+ * next, so resyncs still progress under a steady stream of changes.
+ * <p>
+ * Like the client's default queue, a key is never queued twice and never handed to two workers at once;
+ * a key added while a worker holds it is queued again when the worker is done. Adding a queued key with a
+ * higher priority moves it to the higher tier. Plain {@link #add} and delayed re-adds use the priority
+ * the key was last added with, {@link WorkPriority#CHANGE} for an unknown key.
+ * <p>
+ * Records per tier the adds, the depth and the time from being queued to being taken by a worker. A
+ * delayed add is queued, and starts waiting, once its delay has passed.
+ */
+public class PriorityWorkQueue<T> implements RateLimitingQueue<T> {
+
+    private static final WorkPriority[] PRIORITIES = WorkPriority.values();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Map<WorkPriority, LinkedHashSet<T>> tiers = new EnumMap<>(WorkPriority.class);
+    private final Map<WorkPriority, Integer> passedOver = new EnumMap<>(WorkPriority.class);
+    private final Map<T, Queued> dirty = new HashMap<>();
+    private final Set<T> processing = new HashSet<>();
+    private final Map<T, WorkPriority> lastPriority = new ConcurrentHashMap<>();
+    private final int starvationLimit;
+    private final RateLimiter<T> rateLimiter = new DefaultControllerRateLimiter<>();
+    private final ScheduledExecutorService delayer;
+    private final Map<WorkPriority, Counter> adds = new EnumMap<>(WorkPriority.class);
+    private final Map<WorkPriority, Timer> waits = new EnumMap<>(WorkPriority.class);
+    private final Counter deduplicated;
+    private final Counter retries;
+    private boolean shuttingDown;
+
+    public PriorityWorkQueue(String name, int starvationLimit, MeterRegistry meterRegistry) {
+        this.starvationLimit = Math.max(1, starvationLimit);
+        this.delayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-delayer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (WorkPriority priority : PRIORITIES) {
+            LinkedHashSet<T> tier = new LinkedHashSet<>();
+            tiers.put(priority, tier);
+            passedOver.put(priority, 0);
+            String tag = priority.name().toLowerCase();
+            adds.put(priority, Counter.builder("controller.workqueue.adds")
+                    .description("Items added to the work queue")
+                    .tag("name", name)
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+            waits.put(priority, Timer.builder("controller.workqueue.wait")
+                    .description("Time an item waits in the queue before a worker takes it")
+                    .tag("name", name)
+                    .tag("priority", tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            Gauge.builder("controller.workqueue.depth", this, queue -> queue.depth(priority))
+                    .description("Items waiting in the work queue")
+                    .tag("name", name)
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+        }
+        this.deduplicated = Counter.builder("controller.workqueue.deduplicated")
+                .description("Adds of an item that was already queued")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.retries = Counter.builder("controller.workqueue.retries")
+                .description("Items re-added with a rate-limited backoff")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds {@code item} with {@code priority} if {@code queue} is a {@link PriorityWorkQueue}, and plainly
+     * otherwise, so watches work with either queue.
+     */
+    public static <T> void add(WorkQueue<T> queue, T item, WorkPriority priority) {
+        if (queue instanceof PriorityWorkQueue<T> priorityQueue) {
+            priorityQueue.add(item, priority);
+        } else {
+            queue.add(item);
+        }
+    }
+
+    public void add(T item, WorkPriority priority) {
+        lock.lock();
+        try {
+            if (shuttingDown) {
+                return;
+            }
+            adds.get(priority).increment();
+            lastPriority.put(item, priority);
+            Queued queued = dirty.get(item);
+            if (queued != null) {
+                deduplicated.increment();
+                if (priority.compareTo(queued.priority()) < 0) {
+                    dirty.put(item, new Queued(priority, queued.queuedAt()));
+                    if (tiers.get(queued.priority()).remove(item)) {
+                        tiers.get(priority).add(item);
+                    }
+                }
+                return;
+            }
+            dirty.put(item, new Queued(priority, System.nanoTime()));
+            if (!processing.contains(item)) {
+                tiers.get(priority).add(item);
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void add(T item) {
+        add(item, lastPriority.getOrDefault(item, WorkPriority.CHANGE));
+    }
+
+    @Override
+    public void addAfter(T item, Duration duration) {
+        WorkPriority priority = lastPriority.getOrDefault(item, WorkPriority.CHANGE);
+        if (duration.isZero() || duration.isNegative()) {
+            add(item, priority);
+            return;
+        }
+        lock.lock();
+        try {
+            if (shuttingDown) {
+                return;
+            }
+            delayer.schedule(() -> add(item, priority), duration.toNanos(), TimeUnit.NANOSECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addRateLimited(T item) {
+        retries.increment();
+        addAfter(item, rateLimiter.when(item));
+    }
+
+    @Override
+    public T get() throws InterruptedException {
+        lock.lock();
+        try {
+            while (length() == 0 && !shuttingDown) {
+                available.await();
+            }
+            if (length() == 0) {
+                return null;
+            }
+            WorkPriority tier = next();
+            Iterator<T> head = tiers.get(tier).iterator();
+            T item = head.next();
+            head.remove();
+            processing.add(item);
+            Queued queued = dirty.remove(item);
+            waits.get(queued.priority()).record(System.nanoTime() - queued.queuedAt(), TimeUnit.NANOSECONDS);
+            return item;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void done(T item) {
+        lock.lock();
+        try {
+            processing.remove(item);
+            Queued queued = dirty.get(item);
+            if (queued != null) {
+                tiers.get(queued.priority()).add(item);
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void forget(T item) {
+        rateLimiter.forget(item);
+        lastPriority.remove(item);
+    }
+
+    @Override
+    public int numRequeues(T item) {
+        return rateLimiter.numRequeues(item);
+    }
+
+    @Override
+    public int length() {
+        lock.lock();
+        try {
+            int length = 0;
+            for (LinkedHashSet<T> tier : tiers.values()) {
+                length += tier.size();
+            }
+            return length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void shutDown() {
+        lock.lock();
+        try {
+            shuttingDown = true;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        delayer.shutdownNow();
+    }
+
+    @Override
+    public boolean isShuttingDown() {
+        lock.lock();
+        try {
+            return shuttingDown;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The highest non-empty tier, unless a lower one has been passed over too often. Called with the lock held.
+    private WorkPriority next() {
+        WorkPriority next = null;
+        for (WorkPriority priority : PRIORITIES) {
+            if (tiers.get(priority).isEmpty()) {
+                continue;
+            }
+            if (next == null || passedOver.get(priority) >= starvationLimit) {
+                next = priority;
+            }
+        }
+        for (WorkPriority priority : PRIORITIES) {
+            boolean waiting = priority != next && !tiers.get(priority).isEmpty();
+            passedOver.put(priority, waiting ? passedOver.get(priority) + 1 : 0);
+        }
+        return next;
+    }
+
+    private int depth(WorkPriority priority) {
+        lock.lock();
+        try {
+            return tiers.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Queued(WorkPriority priority, long queuedAt) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.amrut.prabhu.workqueue;
+
+/**
+ * Why a key was queued, highest priority first.
+ */
+public enum WorkPriority {
+    /**
+     * A custom resource was created, changed or deleted.
+     */
+    CHANGE,
+    /**
+     * A child object was changed or deleted by someone else and needs repair.
+     */
+    DRIFT,
+    /**
+     * A periodic resync of a custom resource that has not changed.
+     */
+    RESYNC
+}
@@ -0,0 +1,95 @@
+package com.amrut.prabhu.write;
+
+import com.amrut.prabhu.tracing.ReconcileTrace;
+import com.google.gson.Gson;
+import io.kubernetes.client.openapi.ApiCallback;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.util.PatchUtils;
+import okhttp3.Call;
+import okhttp3.Request;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs API calls on OkHttp's dispatcher through {@link ApiClient#executeAsync}, so a caller can have
+ * several in flight at once, and exposes them as futures.
+ * <p>
+ * Each call is recorded as a phase of the caller's {@link ReconcileTrace#current() current trace}, which
+ * is also current while the future completes, so a follow-up call chained onto it, such as the patch
+ * after a 409 on create, lands in the same trace.
+ */
+final class AsyncCalls {
+
+    private AsyncCalls() {
+    }
+
+    static <T> CompletableFuture<T> execute(ApiClient apiClient, Call call, Type returnType) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ReconcileTrace trace = ReconcileTrace.current();
+        String name = "api " + call.request().method();
+        String path = call.request().url().encodedPath();
+        long startedAt = System.nanoTime();
+        try {
+            apiClient.executeAsync(call, returnType, new ApiCallback<T>() {
+                @Override
+                public void onFailure(ApiException e, int statusCode, Map<String, List<String>> responseHeaders) {
+                    trace.phase(name, startedAt, System.nanoTime(), path + " " + (statusCode == 0 ? "IO_ERROR" : statusCode));
+                    ReconcileTrace previous = trace.enter();
+                    try {
+                        result.completeExceptionally(e);
+                    } finally {
+                        ReconcileTrace.exit(previous);
+                    }
+                }
+
+                @Override
+                public void onSuccess(T value, int statusCode, Map<String, List<String>> responseHeaders) {
+                    trace.phase(name, startedAt, System.nanoTime(), path + " " + statusCode);
+                    ReconcileTrace previous = trace.enter();
+                    try {
+                        result.complete(value);
+                    } finally {
+                        ReconcileTrace.exit(previous);
+                    }
+                }
+
+                @Override
+                public void onUploadProgress(long bytesWritten, long contentLength, boolean done) {
+                }
+
+                @Override
+                public void onDownloadProgress(long bytesRead, long contentLength, boolean done) {
+                }
+            });
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * The async counterpart of {@link PatchUtils#patch}. {@code patchCall} is generated with a null body;
+     * the request is sent with {@code body} encoded by {@code gson} into a {@link JsonRequestBody}, under
+     * the content type of {@code patchFormat}, which the generated call does not set.
+     */
+    static <T> CompletableFuture<T> patch(ApiClient apiClient,
+                                          PatchUtils.PatchCallFunc patchCall,
+                                          String patchFormat,
+                                          Gson gson,
+                                          Object body,
+                                          Class<T> returnType) {
+        try {
+            Request request = patchCall.generate().request();
+            Request patch = request.newBuilder()
+                    .patch(JsonRequestBody.of(gson, body, patchFormat))
+                    .build();
+            return execute(apiClient, apiClient.getHttpClient().newCall(patch), returnType);
+        } catch (ApiException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.amrut.prabhu.write;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Gathers what many custom resources want written to the same ConfigMap and sends it as one strategic
+ * merge patch per {@code window}: data keys, labels and owner references are merged, a {@code null} data
+ * value removes the key. A missing ConfigMap is created with the gathered content. Callers get a future
+ * that completes with the written ConfigMap once their batch has been sent.
+ * <p>
+ * A window of zero sends every contribution on its own, on the caller's thread.
+ */
+public class ConfigMapCoalescer implements AutoCloseable {
+
+    private static final Gson PATCH_GSON = new GsonBuilder().serializeNulls().create();
+
+    private final ConfigMapWriter configMapWriter;
+    private final long windowNanos;
+    private final ScheduledExecutorService flusher;
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    private final Counter conflicts;
+    private final DistributionSummary batchSize;
+
+    public ConfigMapCoalescer(ConfigMapWriter configMapWriter,
+                              Duration window,
+                              int writerThreads,
+                              MeterRegistry meterRegistry) {
+        this.configMapWriter = configMapWriter;
+        this.windowNanos = window.toNanos();
+        this.flusher = Executors.newScheduledThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "configmap-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.conflicts = Counter.builder("controller.configmap.conflicts")
+                .description("ConfigMap writes answered with 409 Conflict")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("controller.configmap.batch.size")
+                .description("Custom resources whose changes went out in one ConfigMap write")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the data, labels and owner references of {@code contribution} for its ConfigMap.
+     */
+    public CompletableFuture<V1ConfigMap> submit(String namespace, V1ConfigMap contribution) {
+        return enqueue(namespace, contribution.getMetadata().getName(), batch -> batch.add(contribution));
+    }
+
+    /**
+     * Queues the removal of one data key, for a custom resource that no longer exists.
+     */
+    public CompletableFuture<V1ConfigMap> remove(String namespace, String name, String dataKey) {
+        return enqueue(namespace, name, batch -> batch.data.put(dataKey, null));
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+    }
+
+    private CompletableFuture<V1ConfigMap> enqueue(String namespace, String name, Consumer<Batch> change) {
+        if (windowNanos <= 0) {
+            Batch batch = new Batch(namespace, name);
+            change.accept(batch);
+            write(batch);
+            return batch.result;
+        }
+        String target = namespace + "/" + name;
+        Batch batch = batches.compute(target, (key, pending) -> {
+            if (pending == null) {
+                pending = new Batch(namespace, name);
+                flusher.schedule(() -> flush(key), windowNanos, TimeUnit.NANOSECONDS);
+            }
+            change.accept(pending);
+            pending.contributions++;
+            return pending;
+        });
+        return batch.result;
+    }
+
+    private void flush(String target) {
+        Batch batch = batches.remove(target);
+        if (batch != null) {
+            write(batch);
+        }
+    }
+
+    private void write(Batch batch) {
+        batchSize.record(Math.max(1, batch.contributions));
+        try {
+            batch.result.complete(patchOrCreate(batch));
+        } catch (ApiException | RuntimeException e) {
+            batch.result.completeExceptionally(e);
+        }
+    }
+
+    private V1ConfigMap patchOrCreate(Batch batch) throws ApiException {
+        String patch = batch.patch(configMapWriter);
+        try {
+            return configMapWriter.strategicMergePatch(batch.namespace, batch.name, patch);
+        } catch (ApiException e) {
+            if (e.getCode() != 404) {
+                throw e;
+            }
+        }
+        V1ConfigMap created = batch.toConfigMap();
+        if (created.getData().isEmpty()) {
+            // Only removals for a ConfigMap that is already gone.
+            return null;
+        }
+        try {
+            return configMapWriter.create(batch.namespace, created);
+        } catch (ApiException e) {
+            if (e.getCode() != 409) {
+                throw e;
+            }
+            conflicts.increment();
+            return configMapWriter.strategicMergePatch(batch.namespace, batch.name, patch);
+        }
+    }
+
+    private static final class Batch {
+
+        private final String namespace;
+        private final String name;
+        private final Map<String, String> labels = new HashMap<>();
+        private final Map<String, V1OwnerReference> owners = new LinkedHashMap<>();
+        private final Map<String, String> data = new HashMap<>();
+        private final CompletableFuture<V1ConfigMap> result = new CompletableFuture<>();
+        private int contributions;
+
+        private Batch(String namespace, String name) {
+            this.namespace = namespace;
+            this.name = name;
+        }
+
+        private void add(V1ConfigMap contribution) {
+            V1ObjectMeta metadata = contribution.getMetadata();
+            if (metadata.getLabels() != null) {
+                labels.putAll(metadata.getLabels());
+            }
+            if (metadata.getOwnerReferences() != null) {
+                metadata.getOwnerReferences().forEach(owner -> owners.put(owner.getUid(), owner));
+            }
+            if (contribution.getData() != null) {
+                data.putAll(contribution.getData());
+            }
+        }
+
+        private String patch(ConfigMapWriter configMapWriter) {
+            JsonObject metadata = new JsonObject();
+            if (!labels.isEmpty()) {
+                metadata.add("labels", configMapWriter.gson().toJsonTree(labels));
+            }
+            if (!owners.isEmpty()) {
+                metadata.add("ownerReferences", configMapWriter.gson().toJsonTree(new ArrayList<>(owners.values())));
+            }
+            JsonObject dataPatch = new JsonObject();
+            data.forEach((key, value) -> {
+                if (value == null) {
+                    dataPatch.add(key, JsonNull.INSTANCE);
+                } else {
+                    dataPatch.addProperty(key, value);
+                }
+            });
+            JsonObject patch = new JsonObject();
+            patch.add("metadata", metadata);
+            patch.add("data", dataPatch);
+            return PATCH_GSON.toJson(patch);
+        }
+
+        private V1ConfigMap toConfigMap() {
+            Map<String, String> present = new HashMap<>();
+            data.forEach((key, value) -> {
+                if (value != null) {
+                    present.put(key, value);
+                }
+            });
+            return new V1ConfigMap()
+                    .metadata(new V1ObjectMeta()
+                            .name(name)
+                            .labels(labels.isEmpty() ? null : labels)
+                            .ownerReferences(owners.isEmpty() ? null : new ArrayList<>(owners.values())))
+                    .data(present);
+        }
+    }
+}
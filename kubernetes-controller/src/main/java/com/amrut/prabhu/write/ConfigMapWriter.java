@@ -0,0 +1,220 @@
+package com.amrut.prabhu.write;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import io.kubernetes.client.custom.V1Patch;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+import io.kubernetes.client.openapi.models.V1Status;
+import io.kubernetes.client.util.PatchUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Writes ConfigMaps with as few calls as possible: a create when none exists yet, otherwise a single
+ * JSON merge patch carrying only the fields this controller owns. With a {@link ServerSideApply} both are
+ * replaced by one apply. Every call first takes a token from the shared {@link WriteRateLimiter}; async
+ * calls are delayed until it is due rather than blocking the thread that makes them.
+ */
+public class ConfigMapWriter {
+
+    private static final Gson MERGE_PATCH_GSON = new GsonBuilder().serializeNulls().create();
+
+    private final CoreV1Api coreV1Api;
+    private final WriteRateLimiter rateLimiter;
+    private final ServerSideApply serverSideApply;
+
+    /**
+     * {@code serverSideApply} may be null, in which case ConfigMaps are created and merge patched.
+     */
+    public ConfigMapWriter(CoreV1Api coreV1Api, WriteRateLimiter rateLimiter, ServerSideApply serverSideApply) {
+        this.coreV1Api = coreV1Api;
+        this.rateLimiter = rateLimiter;
+        this.serverSideApply = serverSideApply;
+    }
+
+    /**
+     * Returns true when {@link #writeAsync} uses server-side apply.
+     */
+    public boolean applies() {
+        return serverSideApply != null;
+    }
+
+    /**
+     * Brings a ConfigMap this controller owns entirely to the desired state without waiting for the
+     * response: one apply, or a create or merge patch depending on whether {@code current} exists. A
+     * create that finds the ConfigMap already there falls back to a patch.
+     */
+    public CompletableFuture<V1ConfigMap> writeAsync(String namespace, V1ConfigMap current, V1ConfigMap desired) {
+        if (serverSideApply != null) {
+            return serverSideApply.configMapAsync(namespace, desired);
+        }
+        if (current != null) {
+            return patchAsync(namespace, current, desired);
+        }
+        CompletableFuture<V1ConfigMap> created = rateLimiter.whenAcquired(() -> {
+            try {
+                return AsyncCalls.execute(coreV1Api.getApiClient(),
+                        coreV1Api.createNamespacedConfigMapCall(namespace, desired, null, null, null, null, null),
+                        V1ConfigMap.class);
+            } catch (ApiException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+        return created.exceptionallyCompose(error -> error instanceof ApiException e && e.getCode() == 409
+                // The informer has not seen the ConfigMap yet; patch what the server already has.
+                ? patchAsync(namespace, new V1ConfigMap().metadata(desired.getMetadata()), desired)
+                : CompletableFuture.failedFuture(error));
+    }
+
+    /**
+     * Deletes a ConfigMap without waiting for the response. One that is already gone counts as deleted.
+     */
+    public CompletableFuture<Void> deleteAsync(String namespace, String name) {
+        CompletableFuture<V1Status> deleted = rateLimiter.whenAcquired(() -> {
+            try {
+                return AsyncCalls.execute(coreV1Api.getApiClient(),
+                        coreV1Api.deleteNamespacedConfigMapCall(name, namespace, null, null, null, null, null, null, null),
+                        V1Status.class);
+            } catch (ApiException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+        return deleted.handle((status, error) -> {
+            if (error == null || error instanceof ApiException e && e.getCode() == 404) {
+                return null;
+            }
+            throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+        });
+    }
+
+    public V1ConfigMap create(String namespace, V1ConfigMap desired) throws ApiException {
+        rateLimiter.acquire();
+        return coreV1Api.createNamespacedConfigMap(namespace, desired, null, null, null, null);
+    }
+
+    public V1ConfigMap patch(String namespace, V1ConfigMap current, V1ConfigMap desired) throws ApiException {
+        String name = desired.getMetadata().getName();
+        V1Patch patch = new V1Patch(MERGE_PATCH_GSON.toJson(mergePatch(current, desired)));
+        rateLimiter.acquire();
+        return PatchUtils.patch(V1ConfigMap.class,
+                () -> coreV1Api.patchNamespacedConfigMapCall(name,
+                        namespace,
+                        patch,
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        null),
+                V1Patch.PATCH_FORMAT_JSON_MERGE_PATCH,
+                coreV1Api.getApiClient());
+    }
+
+    private CompletableFuture<V1ConfigMap> patchAsync(String namespace, V1ConfigMap current, V1ConfigMap desired) {
+        String name = desired.getMetadata().getName();
+        JsonObject patch = mergePatch(current, desired);
+        return rateLimiter.whenAcquired(() -> AsyncCalls.patch(coreV1Api.getApiClient(),
+                () -> coreV1Api.patchNamespacedConfigMapCall(name,
+                        namespace,
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        null),
+                V1Patch.PATCH_FORMAT_JSON_MERGE_PATCH,
+                MERGE_PATCH_GSON,
+                patch,
+                V1ConfigMap.class));
+    }
+
+    /**
+     * Sends a strategic merge patch. Unlike a JSON merge patch it merges {@code ownerReferences} by uid
+     * instead of replacing the list, so writers that share a ConfigMap do not drop each other's owners.
+     */
+    public V1ConfigMap strategicMergePatch(String namespace, String name, String patch) throws ApiException {
+        V1Patch body = new V1Patch(patch);
+        rateLimiter.acquire();
+        return PatchUtils.patch(V1ConfigMap.class,
+                () -> coreV1Api.patchNamespacedConfigMapCall(name,
+                        namespace,
+                        body,
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        null),
+                V1Patch.PATCH_FORMAT_STRATEGIC_MERGE_PATCH,
+                coreV1Api.getApiClient());
+    }
+
+    Gson gson() {
+        return coreV1Api.getApiClient().getJSON().getGson();
+    }
+
+    /**
+     * Returns true when the current ConfigMap is missing data, labels, annotations or owner references the
+     * desired one carries. An {@code exclusive} ConfigMap must also have no data keys beyond the desired ones.
+     */
+    public static boolean differs(V1ConfigMap current, V1ConfigMap desired, boolean exclusive) {
+        Map<String, String> currentData = nullToEmpty(current.getData());
+        Map<String, String> desiredData = nullToEmpty(desired.getData());
+        if (exclusive ? !currentData.equals(desiredData) : !currentData.entrySet().containsAll(desiredData.entrySet())) {
+            return true;
+        }
+        Map<String, String> currentLabels = nullToEmpty(current.getMetadata().getLabels());
+        if (!currentLabels.entrySet().containsAll(nullToEmpty(desired.getMetadata().getLabels()).entrySet())) {
+            return true;
+        }
+        Map<String, String> currentAnnotations = nullToEmpty(current.getMetadata().getAnnotations());
+        if (!currentAnnotations.entrySet().containsAll(nullToEmpty(desired.getMetadata().getAnnotations()).entrySet())) {
+            return true;
+        }
+        List<V1OwnerReference> currentOwners = current.getMetadata().getOwnerReferences();
+        List<V1OwnerReference> desiredOwners = desired.getMetadata().getOwnerReferences();
+        return desiredOwners != null && !desiredOwners.isEmpty()
+                && (currentOwners == null || !uids(currentOwners).containsAll(uids(desiredOwners)));
+    }
+
+    private JsonObject mergePatch(V1ConfigMap current, V1ConfigMap desired) {
+        Gson gson = gson();
+
+        JsonObject metadata = new JsonObject();
+        if (desired.getMetadata().getLabels() != null) {
+            metadata.add("labels", gson.toJsonTree(desired.getMetadata().getLabels()));
+        }
+        if (desired.getMetadata().getAnnotations() != null) {
+            metadata.add("annotations", gson.toJsonTree(desired.getMetadata().getAnnotations()));
+        }
+        if (desired.getMetadata().getOwnerReferences() != null) {
+            metadata.add("ownerReferences", gson.toJsonTree(desired.getMetadata().getOwnerReferences()));
+        }
+
+        JsonObject data = new JsonObject();
+        nullToEmpty(current.getData()).keySet().forEach(key -> data.add(key, JsonNull.INSTANCE));
+        nullToEmpty(desired.getData()).forEach(data::addProperty);
+
+        JsonObject patch = new JsonObject();
+        patch.add("metadata", metadata);
+        patch.add("data", data);
+        return patch;
+    }
+
+    private static List<String> uids(List<V1OwnerReference> ownerReferences) {
+        return ownerReferences.stream().map(V1OwnerReference::getUid).toList();
+    }
+
+    private static Map<String, String> nullToEmpty(Map<String, String> map) {
+        return map == null ? Map.of() : map;
+    }
+}
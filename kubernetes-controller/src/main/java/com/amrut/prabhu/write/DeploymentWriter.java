@@ -0,0 +1,116 @@
+package com.amrut.prabhu.write;
+
+import io.kubernetes.client.custom.V1Patch;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.models.V1Container;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentSpec;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes the Deployments custom resources own, without waiting for the response: one apply with a
+ * {@link ServerSideApply}, otherwise a create, or a strategic merge patch of the fields this controller
+ * sets. The strategic merge patch merges containers by name, so containers added by others (sidecars)
+ * are kept. Every call first takes a token from the shared {@link WriteRateLimiter}.
+ */
+public class DeploymentWriter {
+
+    private final AppsV1Api appsV1Api;
+    private final WriteRateLimiter rateLimiter;
+    private final ServerSideApply serverSideApply;
+
+    public DeploymentWriter(AppsV1Api appsV1Api, WriteRateLimiter rateLimiter, ServerSideApply serverSideApply) {
+        this.appsV1Api = appsV1Api;
+        this.rateLimiter = rateLimiter;
+        this.serverSideApply = serverSideApply;
+    }
+
+    public CompletableFuture<V1Deployment> writeAsync(String namespace, V1Deployment current, V1Deployment desired) {
+        if (serverSideApply != null) {
+            return serverSideApply.deploymentAsync(namespace, desired);
+        }
+        if (current != null) {
+            return patchAsync(namespace, desired);
+        }
+        CompletableFuture<V1Deployment> created = rateLimiter.whenAcquired(() -> {
+            try {
+                return AsyncCalls.execute(appsV1Api.getApiClient(),
+                        appsV1Api.createNamespacedDeploymentCall(namespace, desired, null, null, null, null, null),
+                        V1Deployment.class);
+            } catch (ApiException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+        return created.exceptionallyCompose(error -> error instanceof ApiException e && e.getCode() == 409
+                // The informer has not seen the Deployment yet.
+                ? patchAsync(namespace, desired)
+                : CompletableFuture.failedFuture(error));
+    }
+
+    /**
+     * Returns true when the current Deployment lacks labels, owner references, replicas, selector or
+     * pod template content the desired one sets.
+     */
+    public static boolean differs(V1Deployment current, V1Deployment desired) {
+        if (!containsAll(current.getMetadata().getLabels(), desired.getMetadata().getLabels())
+                || !uids(current.getMetadata().getOwnerReferences()).containsAll(uids(desired.getMetadata().getOwnerReferences()))) {
+            return true;
+        }
+        V1DeploymentSpec currentSpec = current.getSpec();
+        V1DeploymentSpec desiredSpec = desired.getSpec();
+        if (currentSpec == null || currentSpec.getTemplate().getMetadata() == null) {
+            return true;
+        }
+        if (!Objects.equals(currentSpec.getReplicas(), desiredSpec.getReplicas())
+                || !Objects.equals(currentSpec.getSelector(), desiredSpec.getSelector())
+                || !containsAll(currentSpec.getTemplate().getMetadata().getLabels(),
+                desiredSpec.getTemplate().getMetadata().getLabels())
+                || !containsAll(currentSpec.getTemplate().getMetadata().getAnnotations(),
+                desiredSpec.getTemplate().getMetadata().getAnnotations())) {
+            return true;
+        }
+        List<V1Container> currentContainers = currentSpec.getTemplate().getSpec().getContainers();
+        for (V1Container container : desiredSpec.getTemplate().getSpec().getContainers()) {
+            boolean present = currentContainers.stream().anyMatch(running -> container.getName().equals(running.getName())
+                    && Objects.equals(container.getImage(), running.getImage()));
+            if (!present) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CompletableFuture<V1Deployment> patchAsync(String namespace, V1Deployment desired) {
+        ApiClient apiClient = appsV1Api.getApiClient();
+        return rateLimiter.whenAcquired(() -> AsyncCalls.patch(apiClient,
+                () -> appsV1Api.patchNamespacedDeploymentCall(desired.getMetadata().getName(),
+                        namespace,
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        null),
+                V1Patch.PATCH_FORMAT_STRATEGIC_MERGE_PATCH,
+                apiClient.getJSON().getGson(),
+                desired,
+                V1Deployment.class));
+    }
+
+    private static boolean containsAll(Map<String, String> current, Map<String, String> desired) {
+        return desired == null || desired.isEmpty()
+                || current != null && current.entrySet().containsAll(desired.entrySet());
+    }
+
+    private static List<String> uids(List<V1OwnerReference> ownerReferences) {
+        return ownerReferences == null ? List.of() : ownerReferences.stream().map(V1OwnerReference::getUid).toList();
+    }
+}
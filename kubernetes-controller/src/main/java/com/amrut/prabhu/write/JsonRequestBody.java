@@ -0,0 +1,56 @@
+package com.amrut.prabhu.write;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A request body that Gson writes straight into an okio {@link Buffer}. The generated API calls encode a
+ * body to a String and then to a byte array; here the encoder fills buffer segments taken from okio's
+ * segment pool, and the socket writes from them. Each send writes a shallow copy that shares the
+ * segments, so a call OkHttp retries sends the same bytes again.
+ */
+final class JsonRequestBody extends RequestBody {
+
+    private final Buffer buffer;
+    private final MediaType contentType;
+
+    private JsonRequestBody(Buffer buffer, MediaType contentType) {
+        this.buffer = buffer;
+        this.contentType = contentType;
+    }
+
+    static JsonRequestBody of(Gson gson, Object value, String contentType) {
+        Buffer buffer = new Buffer();
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(buffer.outputStream(), StandardCharsets.UTF_8))) {
+            gson.toJson(value, value.getClass(), writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new JsonRequestBody(buffer, MediaType.parse(contentType));
+    }
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() {
+        return buffer.size();
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        Buffer copy = buffer.clone();
+        sink.write(copy, copy.size());
+    }
+}
@@ -0,0 +1,152 @@
+package com.amrut.prabhu.write;
+
+import com.google.gson.JsonObject;
+import io.kubernetes.client.custom.V1Patch;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.util.PatchUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes child objects with server-side apply. The body holds only the fields this controller sets, so
+ * the API server tracks them under {@code fieldManager} and leaves fields owned by other managers alone;
+ * no read or resourceVersion is needed, and creating and updating are the same call.
+ * <p>
+ * Conflicts are settled the same way every time: with {@code force} this controller takes over fields
+ * another manager changed. Without it the API server answers 409 Conflict, which is counted and thrown,
+ * so the reconcile backs off and leaves the other manager's value in place.
+ */
+public class ServerSideApply {
+
+    private final ApiClient apiClient;
+    private final CoreV1Api coreV1Api;
+    private final AppsV1Api appsV1Api;
+    private final String fieldManager;
+    private final boolean force;
+    private final WriteRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+
+    public ServerSideApply(ApiClient apiClient,
+                           String fieldManager,
+                           boolean force,
+                           WriteRateLimiter rateLimiter,
+                           MeterRegistry meterRegistry) {
+        this.apiClient = apiClient;
+        this.coreV1Api = new CoreV1Api(apiClient);
+        this.appsV1Api = new AppsV1Api(apiClient);
+        this.fieldManager = fieldManager;
+        this.force = force;
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public V1ConfigMap configMap(String namespace, V1ConfigMap desired) throws ApiException {
+        rateLimiter.acquire();
+        return countConflicts("ConfigMap", () -> PatchUtils.patch(V1ConfigMap.class,
+                configMapCall(namespace, desired, body("v1", "ConfigMap", desired)),
+                V1Patch.PATCH_FORMAT_APPLY_YAML,
+                apiClient));
+    }
+
+    public V1Deployment deployment(String namespace, V1Deployment desired) throws ApiException {
+        rateLimiter.acquire();
+        return countConflicts("Deployment", () -> PatchUtils.patch(V1Deployment.class,
+                deploymentCall(namespace, desired, body("apps/v1", "Deployment", desired)),
+                V1Patch.PATCH_FORMAT_APPLY_YAML,
+                apiClient));
+    }
+
+    public CompletableFuture<V1ConfigMap> configMapAsync(String namespace, V1ConfigMap desired) {
+        return countConflicts("ConfigMap", rateLimiter.whenAcquired(() -> AsyncCalls.patch(apiClient,
+                configMapCall(namespace, desired, null),
+                V1Patch.PATCH_FORMAT_APPLY_YAML,
+                apiClient.getJSON().getGson(),
+                applied("v1", "ConfigMap", desired),
+                V1ConfigMap.class)));
+    }
+
+    public CompletableFuture<V1Deployment> deploymentAsync(String namespace, V1Deployment desired) {
+        return countConflicts("Deployment", rateLimiter.whenAcquired(() -> AsyncCalls.patch(apiClient,
+                deploymentCall(namespace, desired, null),
+                V1Patch.PATCH_FORMAT_APPLY_YAML,
+                apiClient.getJSON().getGson(),
+                applied("apps/v1", "Deployment", desired),
+                V1Deployment.class)));
+    }
+
+    // A null body is for AsyncCalls, which sends its own.
+    private PatchUtils.PatchCallFunc configMapCall(String namespace, V1ConfigMap desired, V1Patch body) {
+        return () -> coreV1Api.patchNamespacedConfigMapCall(desired.getMetadata().getName(),
+                namespace,
+                body,
+                null,
+                null,
+                fieldManager,
+                null,
+                force,
+                null);
+    }
+
+    private PatchUtils.PatchCallFunc deploymentCall(String namespace, V1Deployment desired, V1Patch body) {
+        return () -> appsV1Api.patchNamespacedDeploymentCall(desired.getMetadata().getName(),
+                namespace,
+                body,
+                null,
+                null,
+                fieldManager,
+                null,
+                force,
+                null);
+    }
+
+    private V1Patch body(String apiVersion, String kind, Object desired) {
+        return new V1Patch(applied(apiVersion, kind, desired).toString());
+    }
+
+    // Encoded compactly with the client's Gson, which leaves out unset fields.
+    private JsonObject applied(String apiVersion, String kind, Object desired) {
+        JsonObject object = apiClient.getJSON().getGson().toJsonTree(desired).getAsJsonObject();
+        object.addProperty("apiVersion", apiVersion);
+        object.addProperty("kind", kind);
+        return object;
+    }
+
+    private <T> T countConflicts(String kind, ApplyCall<T> call) throws ApiException {
+        try {
+            return call.apply();
+        } catch (ApiException e) {
+            countConflict(kind, e);
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> countConflicts(String kind, CompletableFuture<T> call) {
+        return call.whenComplete((applied, error) -> {
+            if (error instanceof ApiException e) {
+                countConflict(kind, e);
+            }
+        });
+    }
+
+    private void countConflict(String kind, ApiException e) {
+        if (e.getCode() == 409) {
+            Counter.builder("controller.apply.conflicts")
+                    .description("Server-side applies refused because another field manager owns a field")
+                    .tag("kind", kind)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ApplyCall<T> {
+        T apply() throws ApiException;
+    }
+}
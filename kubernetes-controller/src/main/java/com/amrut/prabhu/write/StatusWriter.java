@@ -0,0 +1,173 @@
+package com.amrut.prabhu.write;
+
+import com.amrut.prabhu.informer.MyCrdListerWatcher;
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdStatus;
+import com.google.gson.JsonObject;
+import io.kubernetes.client.custom.V1Patch;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.apis.CustomObjectsApi;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the status of custom resources through the {@code /status} subresource, as a JSON merge patch.
+ * A status equal to the cached one, or to the one last sent for the key, is not written. Updates for one
+ * key within {@code window} are coalesced and only the latest is sent, so a condition that flips and
+ * flips back in quick succession costs at most one write. Every write first takes a token from the shared
+ * {@link WriteRateLimiter}.
+ * <p>
+ * A window of zero sends every update on its own, from the caller's thread.
+ */
+public class StatusWriter implements AutoCloseable {
+
+    private final ApiClient apiClient;
+    private final CustomObjectsApi customObjectsApi;
+    private final WriteRateLimiter rateLimiter;
+    private final long windowNanos;
+    private final ScheduledExecutorService flusher;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<String, V1MyCrdStatus> sent = new ConcurrentHashMap<>();
+    private final Counter written;
+    private final Counter skipped;
+    private final Counter coalesced;
+
+    public StatusWriter(ApiClient apiClient, WriteRateLimiter rateLimiter, Duration window, MeterRegistry meterRegistry) {
+        this.apiClient = apiClient;
+        this.customObjectsApi = new CustomObjectsApi(apiClient);
+        this.rateLimiter = rateLimiter;
+        this.windowNanos = window.toNanos();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "status-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.written = counter("written", meterRegistry);
+        this.skipped = counter("skipped", meterRegistry);
+        this.coalesced = counter("coalesced", meterRegistry);
+    }
+
+    /**
+     * Queues {@code status} for {@code myCrd}, the informer's copy. The future completes once the status
+     * has been written or found unchanged.
+     */
+    public CompletableFuture<Void> update(V1MyCrd myCrd, V1MyCrdStatus status) {
+        String namespace = myCrd.getMetadata().getNamespace();
+        String name = myCrd.getMetadata().getName();
+        String key = namespace + "/" + name;
+        if (status.equals(myCrd.getStatus())) {
+            // The informer has seen the last write.
+            sent.remove(key, status);
+        }
+        if (!pending.containsKey(key) && unchanged(key, status, myCrd.getStatus())) {
+            skipped.increment();
+            return CompletableFuture.completedFuture(null);
+        }
+        if (windowNanos <= 0) {
+            Pending update = new Pending(namespace, name);
+            update.status = status;
+            update.cached = myCrd.getStatus();
+            write(key, update);
+            return update.result;
+        }
+        Pending update = pending.compute(key, (target, existing) -> {
+            if (existing == null) {
+                existing = new Pending(namespace, name);
+                flusher.schedule(() -> flush(target), windowNanos, TimeUnit.NANOSECONDS);
+            } else {
+                coalesced.increment();
+            }
+            existing.status = status;
+            existing.cached = myCrd.getStatus();
+            return existing;
+        });
+        return update.result;
+    }
+
+    /**
+     * Drops what is remembered about a deleted custom resource.
+     */
+    public void forget(String key) {
+        sent.remove(key);
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+    }
+
+    private boolean unchanged(String key, V1MyCrdStatus status, V1MyCrdStatus cached) {
+        return status.equals(cached) || status.equals(sent.get(key));
+    }
+
+    private void flush(String key) {
+        Pending update = pending.remove(key);
+        if (update != null) {
+            write(key, update);
+        }
+    }
+
+    private void write(String key, Pending update) {
+        if (unchanged(key, update.status, update.cached)) {
+            skipped.increment();
+            update.result.complete(null);
+            return;
+        }
+        JsonObject body = new JsonObject();
+        body.add("status", apiClient.getJSON().getGson().toJsonTree(update.status));
+        sent.put(key, update.status);
+        rateLimiter.whenAcquired(() -> AsyncCalls.patch(apiClient,
+                        () -> customObjectsApi.patchNamespacedCustomObjectStatusCall(MyCrdListerWatcher.GROUP,
+                                MyCrdListerWatcher.VERSION,
+                                update.namespace,
+                                MyCrdListerWatcher.PLURAL,
+                                update.name,
+                                null,
+                                null,
+                                null,
+                                null,
+                                null),
+                        V1Patch.PATCH_FORMAT_JSON_MERGE_PATCH,
+                        apiClient.getJSON().getGson(),
+                        body,
+                        V1MyCrd.class))
+                .whenComplete((patched, error) -> {
+                    if (error == null) {
+                        written.increment();
+                        update.result.complete(null);
+                    } else {
+                        sent.remove(key, update.status);
+                        update.result.completeExceptionally(error);
+                    }
+                });
+    }
+
+    private static Counter counter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("controller.status.updates")
+                .description("Status updates of custom resources, by whether they were written")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static final class Pending {
+
+        private final String namespace;
+        private final String name;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private V1MyCrdStatus status;
+        private V1MyCrdStatus cached;
+
+        private Pending(String namespace, String name) {
+            this.namespace = namespace;
+            this.name = name;
+        }
+    }
+}
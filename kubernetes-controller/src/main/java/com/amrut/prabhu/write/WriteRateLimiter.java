@@ -0,0 +1,97 @@
+package com.amrut.prabhu.write;
+
+import com.amrut.prabhu.tracing.ReconcileTrace;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Token bucket shared by every write to the API server. It refills at {@code permitsPerSecond} up to
+ * {@code burst} tokens. A writer that finds the bucket empty reserves the next token and waits until it
+ * is due, so over any interval T at most {@code burst + permitsPerSecond * T} writes are sent, however
+ * many workers are running. {@link #acquire} waits by sleeping; {@link #whenAcquired} delays the call
+ * instead, so async writes, including those chained onto a response, never block the thread they run on.
+ */
+public class WriteRateLimiter {
+
+    private final double permitsPerSecond;
+    private final double burst;
+    private final Timer throttled;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    public WriteRateLimiter(double permitsPerSecond, int burst, MeterRegistry meterRegistry) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.throttled = Timer.builder("controller.write.throttled")
+                .description("Time writes waited for the client-side rate limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A limiter that never waits.
+     */
+    public static WriteRateLimiter unlimited() {
+        return new WriteRateLimiter(0, 1, new SimpleMeterRegistry());
+    }
+
+    public void acquire() {
+        if (permitsPerSecond <= 0) {
+            return;
+        }
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return;
+        }
+        throttled.record(waitNanos, TimeUnit.NANOSECONDS);
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sends {@code call} once a token is due: right away on the calling thread when the bucket has one,
+     * otherwise after the wait on a scheduler thread, with the caller's {@link ReconcileTrace} current.
+     */
+    public <T> CompletableFuture<T> whenAcquired(Supplier<CompletableFuture<T>> call) {
+        long waitNanos = permitsPerSecond <= 0 ? 0 : reserve();
+        if (waitNanos <= 0) {
+            return call.get();
+        }
+        throttled.record(waitNanos, TimeUnit.NANOSECONDS);
+        ReconcileTrace trace = ReconcileTrace.current();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            ReconcileTrace previous = trace.enter();
+            try {
+                call.get().whenComplete((value, error) -> {
+                    if (error == null) {
+                        result.complete(value);
+                    } else {
+                        result.completeExceptionally(error);
+                    }
+                });
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            } finally {
+                ReconcileTrace.exit(previous);
+            }
+        });
+        return result;
+    }
+
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1));
+        refilledAt = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) (-tokens / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+    }
+}
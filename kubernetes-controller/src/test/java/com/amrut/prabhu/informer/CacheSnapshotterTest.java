@@ -0,0 +1,149 @@
+package com.amrut.prabhu.informer;
+
+import com.amrut.prabhu.json.MyCrdTypeAdapterFactory;
+import com.amrut.prabhu.json.StringInterner;
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdList;
+import com.amrut.prabhu.models.V1MyCrdSpec;
+import com.google.gson.Gson;
+import io.kubernetes.client.informer.ListerWatcher;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1ListMeta;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.util.CallGeneratorParams;
+import io.kubernetes.client.util.Watchable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheSnapshotterTest {
+
+    private static final CallGeneratorParams LIST = new CallGeneratorParams(false, null, null);
+
+    @TempDir
+    Path directory;
+
+    private final Gson gson = gson();
+    private final AtomicInteger lists = new AtomicInteger();
+
+    @Test
+    void savesWhatTheReflectorListedAndReadsItBack() throws Exception {
+        Path file = directory.resolve("snapshot.bin");
+        try (CacheSnapshotter snapshotter = snapshotter(file)) {
+            snapshotter.wrap(apiServer(List.of(myCrd(1), myCrd(2)), "120"), () -> "all").list(LIST);
+            snapshotter.save();
+        }
+
+        CacheSnapshot snapshot = snapshotter(file).read("all");
+
+        assertThat(snapshot.scope()).isEqualTo("all");
+        assertThat(snapshot.resourceVersion()).isEqualTo("120");
+        assertThat(snapshot.items()).containsExactlyInAnyOrder(myCrd(1), myCrd(2));
+    }
+
+    @Test
+    void firstListIsAnsweredFromTheSnapshot() throws Exception {
+        Path file = directory.resolve("snapshot.bin");
+        try (CacheSnapshotter snapshotter = snapshotter(file)) {
+            snapshotter.wrap(apiServer(List.of(myCrd(1)), "120"), () -> "all").list(LIST);
+        }
+        lists.set(0);
+
+        try (CacheSnapshotter snapshotter = snapshotter(file)) {
+            ListerWatcher<V1MyCrd, V1MyCrdList> listerWatcher =
+                    snapshotter.wrap(apiServer(List.of(myCrd(1), myCrd(2)), "150"), () -> "all");
+
+            V1MyCrdList restored = listerWatcher.list(LIST);
+            assertThat(restored.getMetadata().getResourceVersion()).isEqualTo("120");
+            assertThat(restored.getItems()).containsExactly(myCrd(1));
+            assertThat(lists).hasValue(0);
+
+            V1MyCrdList relisted = listerWatcher.list(LIST);
+            assertThat(relisted.getMetadata().getResourceVersion()).isEqualTo("150");
+            assertThat(lists).hasValue(1);
+        }
+    }
+
+    @Test
+    void ignoresSnapshotOfAnotherScope() throws Exception {
+        Path file = directory.resolve("snapshot.bin");
+        try (CacheSnapshotter snapshotter = snapshotter(file)) {
+            snapshotter.wrap(apiServer(List.of(myCrd(1)), "120"), () -> "namespace team-a").list(LIST);
+        }
+
+        assertThat(snapshotter(file).read("namespace team-b")).isNull();
+    }
+
+    @Test
+    void ignoresMissingAndUnreadableFiles() throws Exception {
+        Path file = directory.resolve("snapshot.bin");
+        assertThat(snapshotter(file).read("all")).isNull();
+
+        Files.writeString(file, "not a snapshot");
+
+        assertThat(snapshotter(file).read("all")).isNull();
+    }
+
+    @Test
+    void unchangedCacheIsNotRewritten() throws Exception {
+        Path file = directory.resolve("snapshot.bin");
+        try (CacheSnapshotter snapshotter = snapshotter(file)) {
+            snapshotter.wrap(apiServer(List.of(myCrd(1)), "120"), () -> "all").list(LIST);
+            snapshotter.save();
+            Files.delete(file);
+
+            snapshotter.save();
+
+            assertThat(file).doesNotExist();
+        }
+    }
+
+    private CacheSnapshotter snapshotter(Path file) {
+        return new CacheSnapshotter(file, Duration.ofHours(1), gson, new SimpleMeterRegistry());
+    }
+
+    private ListerWatcher<V1MyCrd, V1MyCrdList> apiServer(List<V1MyCrd> items, String resourceVersion) {
+        return new ListerWatcher<>() {
+            @Override
+            public V1MyCrdList list(CallGeneratorParams params) {
+                lists.incrementAndGet();
+                return new V1MyCrdList()
+                        .metadata(new V1ListMeta().resourceVersion(resourceVersion))
+                        .items(new ArrayList<>(items));
+            }
+
+            @Override
+            public Watchable<V1MyCrd> watch(CallGeneratorParams params) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static V1MyCrd myCrd(int i) {
+        return new V1MyCrd()
+                .apiVersion("com.amrut.prabhu/v1")
+                .kind("my-crd")
+                .metadata(new V1ObjectMeta()
+                        .namespace("team-a")
+                        .name("my-crd-" + i)
+                        .uid("uid-" + i)
+                        .resourceVersion(String.valueOf(100 + i))
+                        .generation(1L))
+                .spec(new V1MyCrdSpec().myOwnProperty("value-" + i));
+    }
+
+    private static Gson gson() {
+        JSON json = new JSON();
+        MyCrdTypeAdapterFactory.register(json, new StringInterner());
+        return json.getGson();
+    }
+}
@@ -0,0 +1,133 @@
+package com.amrut.prabhu.json;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdList;
+import com.amrut.prabhu.models.V1MyCrdSpec;
+import com.google.gson.Gson;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MyCrdTypeAdapterFactoryTest {
+
+    private static final String LIST = """
+            {
+              "apiVersion": "com.amrut.prabhu/v1",
+              "kind": "MyCrdList",
+              "metadata": {"resourceVersion": "1200", "continue": "next-page"},
+              "items": [
+                %s,
+                {
+                  "apiVersion": "com.amrut.prabhu/v1",
+                  "kind": "my-crd",
+                  "metadata": {"name": "second", "namespace": "team-a", "uid": "uid-2", "resourceVersion": "1101"},
+                  "spec": {"my-own-property": "other"}
+                }
+              ]
+            }
+            """;
+
+    private static final String ITEM = """
+            {
+              "apiVersion": "com.amrut.prabhu/v1",
+              "kind": "my-crd",
+              "metadata": {
+                "name": "first",
+                "namespace": "team-a",
+                "uid": "uid-1",
+                "resourceVersion": "1100",
+                "generation": 3,
+                "creationTimestamp": "2024-05-01T10:15:30Z",
+                "labels": {"team": "a"},
+                "annotations": {"note": "kept"},
+                "ownerReferences": [{"apiVersion": "v1", "kind": "Namespace", "name": "team-a", "uid": "owner-uid", "controller": true}],
+                "managedFields": [{"manager": "kubectl", "operation": "Update", "fieldsType": "FieldsV1", "fieldsV1": {"f:spec": {}}}]
+              },
+              "spec": {"my-own-property": "value", "target-namespaces": ["team-b", "team-c"], "unknown": true},
+              "status": {}
+            }
+            """;
+
+    @Test
+    void decodesListsItemByItem() {
+        V1MyCrdList list = gson(CacheMode.FULL, true).fromJson(LIST.formatted(ITEM), V1MyCrdList.class);
+
+        assertThat(list.getMetadata().getResourceVersion()).isEqualTo("1200");
+        assertThat(list.getMetadata().getContinue()).isEqualTo("next-page");
+        assertThat(list.getItems()).extracting(item -> item.getMetadata().getName()).containsExactly("first", "second");
+        V1MyCrd first = list.getItems().get(0);
+        assertThat(first.getSpec().getMyOwnProperty()).isEqualTo("value");
+        assertThat(first.getSpec().getTargetNamespaces()).containsExactly("team-b", "team-c");
+        assertThat(first.getMetadata().getGeneration()).isEqualTo(3L);
+        assertThat(first.getMetadata().getManagedFields()).hasSize(1);
+        assertThat(first.getMetadata().getCreationTimestamp()).isNotNull();
+        assertThat(first.getStatus()).isNotNull();
+    }
+
+    @Test
+    void internsApiVersionKindAndNamespace() {
+        V1MyCrdList list = gson(CacheMode.FULL, true).fromJson(LIST.formatted(ITEM), V1MyCrdList.class);
+
+        V1MyCrd first = list.getItems().get(0);
+        V1MyCrd second = list.getItems().get(1);
+        assertThat(second.getApiVersion()).isSameAs(first.getApiVersion());
+        assertThat(second.getKind()).isSameAs(first.getKind());
+        assertThat(second.getMetadata().getNamespace()).isSameAs(first.getMetadata().getNamespace());
+    }
+
+    @Test
+    void compactModeKeepsOnlyTheMetadataTheControllerReads() {
+        V1MyCrd myCrd = gson(CacheMode.COMPACT, false).fromJson(ITEM, V1MyCrd.class);
+
+        V1ObjectMeta metadata = myCrd.getMetadata();
+        assertThat(metadata.getName()).isEqualTo("first");
+        assertThat(metadata.getNamespace()).isEqualTo("team-a");
+        assertThat(metadata.getUid()).isEqualTo("uid-1");
+        assertThat(metadata.getResourceVersion()).isEqualTo("1100");
+        assertThat(metadata.getGeneration()).isEqualTo(3L);
+        assertThat(metadata.getLabels()).isEqualTo(Map.of("team", "a"));
+        assertThat(metadata.getOwnerReferences()).extracting(V1OwnerReference::getUid).containsExactly("owner-uid");
+        assertThat(metadata.getAnnotations()).isNull();
+        assertThat(metadata.getManagedFields()).isNull();
+        assertThat(metadata.getCreationTimestamp()).isNull();
+        assertThat(myCrd.getSpec().getMyOwnProperty()).isEqualTo("value");
+    }
+
+    @Test
+    void compactModeKeepsAnnotationsWhenAsked() {
+        V1MyCrd myCrd = gson(CacheMode.COMPACT, true).fromJson(ITEM, V1MyCrd.class);
+
+        assertThat(myCrd.getMetadata().getAnnotations()).isEqualTo(Map.of("note", "kept"));
+    }
+
+    @Test
+    void lazySpecIsDecodedOnRead() {
+        V1MyCrd myCrd = gson(CacheMode.COMPACT_LAZY_SPEC, false).fromJson(ITEM, V1MyCrd.class);
+
+        assertThat(myCrd).isInstanceOf(LazySpecMyCrd.class);
+        assertThat(myCrd.getSpec()).isEqualTo(new V1MyCrdSpec()
+                .myOwnProperty("value")
+                .targetNamespaces(List.of("team-b", "team-c")));
+        assertThat(myCrd.getSpec()).isNotSameAs(myCrd.getSpec());
+    }
+
+    @Test
+    void writtenCustomResourceReadsBackEqual() {
+        Gson gson = gson(CacheMode.FULL, true);
+        V1MyCrd myCrd = gson.fromJson(ITEM, V1MyCrd.class);
+
+        assertThat(gson.fromJson(gson.toJson(myCrd), V1MyCrd.class)).isEqualTo(myCrd);
+    }
+
+    private static Gson gson(CacheMode cacheMode, boolean keepAnnotations) {
+        JSON json = new JSON();
+        MyCrdTypeAdapterFactory.register(json, new StringInterner(), cacheMode, keepAnnotations);
+        return json.getGson();
+    }
+}
@@ -0,0 +1,128 @@
+package com.amrut.prabhu.reconciler;
+
+import com.amrut.prabhu.models.V1MyCrd;
+import com.amrut.prabhu.models.V1MyCrdSpec;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReconcileSkipCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReconcileSkipCache skipCache = new ReconcileSkipCache(meterRegistry);
+
+    @Test
+    void upToDateOnlyWithTheRecordedHashAndVersion() {
+        assertThat(skipCache.isUpToDate("default/a", "hash", "1")).isFalse();
+
+        skipCache.recordApplied("default/a", "hash", "1", true);
+
+        assertThat(skipCache.isUpToDate("default/a", "hash", "1")).isTrue();
+        assertThat(skipCache.isUpToDate("default/a", "other", "1")).isFalse();
+        assertThat(skipCache.isUpToDate("default/a", "hash", "2")).isFalse();
+        assertThat(skipCache.isUpToDate("default/b", "hash", "1")).isFalse();
+    }
+
+    @Test
+    void forgottenKeyIsReconciledAgain() {
+        skipCache.recordApplied("default/a", "hash", "1", true);
+
+        skipCache.forget("default/a");
+
+        assertThat(skipCache.isUpToDate("default/a", "hash", "1")).isFalse();
+    }
+
+    @Test
+    void countsSkippedAndAppliedReconciles() {
+        skipCache.recordApplied("default/a", "hash", "1", true);
+        skipCache.recordApplied("default/b", "hash", "1", false);
+        skipCache.isUpToDate("default/a", "hash", "1");
+
+        assertThat(meterRegistry.get("controller.reconcile.applied").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("controller.reconcile.skipped").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void hashIsStableAndIgnoresDataOrder() {
+        V1ConfigMap configMap = configMap(Map.of("a", "1", "b", "2"));
+        V1ConfigMap reordered = configMap(Map.of("b", "2", "a", "1"));
+
+        assertThat(hash(myCrd("value", 1L), configMap))
+                .isEqualTo(hash(myCrd("value", 1L), reordered))
+                .hasSize(32);
+    }
+
+    @Test
+    void hashChangesWithSpecGenerationAndData() {
+        String hash = hash(myCrd("value", 1L), configMap(Map.of("a", "1")));
+
+        assertThat(hash(myCrd("changed", 1L), configMap(Map.of("a", "1")))).isNotEqualTo(hash);
+        assertThat(hash(myCrd("value", 2L), configMap(Map.of("a", "1")))).isNotEqualTo(hash);
+        assertThat(hash(myCrd("value", 1L), configMap(Map.of("a", "2")))).isNotEqualTo(hash);
+    }
+
+    @Test
+    void hashChangesWithChildLabelsAndOwnerReferences() {
+        V1MyCrd myCrd = myCrd("value", 1L);
+        String hash = hash(myCrd, configMap(Map.of("a", "1")));
+
+        V1ConfigMap relabeled = configMap(Map.of("a", "1"));
+        relabeled.getMetadata().putLabelsItem("team", "b");
+        V1ConfigMap reowned = configMap(Map.of("a", "1"));
+        reowned.getMetadata().ownerReferences(List.of(new V1OwnerReference()
+                .uid("uid-2")
+                .kind("my-crd")
+                .name("my-crd")
+                .controller(true)));
+
+        assertThat(hash(myCrd, relabeled)).isNotEqualTo(hash);
+        assertThat(hash(myCrd, reowned)).isNotEqualTo(hash);
+    }
+
+    @Test
+    void hashCoversEveryChild() {
+        V1MyCrd myCrd = myCrd("value", 1L);
+        V1ConfigMap configMap = configMap(Map.of("a", "1"));
+        V1Deployment deployment = DesiredResources.createDeployment(myCrd);
+        String hash = ReconcileSkipCache.hash(myCrd, List.of(configMap, deployment));
+
+        V1Deployment relabeled = DesiredResources.createDeployment(myCrd);
+        relabeled.getMetadata().putLabelsItem("team", "b");
+
+        assertThat(ReconcileSkipCache.hash(myCrd, List.of(configMap, deployment))).isEqualTo(hash);
+        assertThat(ReconcileSkipCache.hash(myCrd, List.of(configMap))).isNotEqualTo(hash);
+        assertThat(ReconcileSkipCache.hash(myCrd, List.of(configMap, relabeled))).isNotEqualTo(hash);
+    }
+
+    private static String hash(V1MyCrd myCrd, V1ConfigMap configMap) {
+        return ReconcileSkipCache.hash(myCrd, List.of(configMap));
+    }
+
+    private static V1MyCrd myCrd(String value, long generation) {
+        return new V1MyCrd()
+                .metadata(new V1ObjectMeta().namespace("default").name("my-crd").generation(generation))
+                .spec(new V1MyCrdSpec().myOwnProperty(value));
+    }
+
+    private static V1ConfigMap configMap(Map<String, String> data) {
+        return new V1ConfigMap()
+                .metadata(new V1ObjectMeta()
+                        .namespace("default")
+                        .name("my-crd-config")
+                        .putLabelsItem("team", "a")
+                        .ownerReferences(List.of(new V1OwnerReference()
+                                .uid("uid-1")
+                                .kind("my-crd")
+                                .name("my-crd")
+                                .controller(true))))
+                .data(data);
+    }
+}
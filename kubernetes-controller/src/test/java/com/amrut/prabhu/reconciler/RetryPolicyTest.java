@@ -0,0 +1,83 @@
+package com.amrut.prabhu.reconciler;
+
+import io.kubernetes.client.openapi.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryPolicyTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void backsOffExponentiallyUpToTheMaximum() {
+        RetryPolicy retryPolicy = new RetryPolicy(Duration.ofMillis(200), Duration.ofSeconds(1), 0, meterRegistry);
+
+        assertThat(retryPolicy.onFailure("default/a", error(500))).isEqualTo(Duration.ofMillis(200));
+        assertThat(retryPolicy.onFailure("default/a", error(500))).isEqualTo(Duration.ofMillis(400));
+        assertThat(retryPolicy.onFailure("default/a", error(500))).isEqualTo(Duration.ofMillis(800));
+        assertThat(retryPolicy.onFailure("default/a", error(500))).isEqualTo(Duration.ofSeconds(1));
+        assertThat(retryPolicy.onFailure("default/b", error(500))).isEqualTo(Duration.ofMillis(200));
+    }
+
+    @Test
+    void successResetsTheBackoff() {
+        RetryPolicy retryPolicy = new RetryPolicy(Duration.ofMillis(200), Duration.ofSeconds(60), 0, meterRegistry);
+        retryPolicy.onFailure("default/a", error(500));
+        retryPolicy.onFailure("default/a", error(500));
+
+        retryPolicy.onSuccess("default/a");
+
+        assertThat(retryPolicy.onFailure("default/a", error(500))).isEqualTo(Duration.ofMillis(200));
+    }
+
+    @Test
+    void jitterStaysWithinItsFraction() {
+        RetryPolicy retryPolicy = new RetryPolicy(Duration.ofSeconds(1), Duration.ofSeconds(60), 0.2, meterRegistry);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(retryPolicy.onFailure("default/" + i, error(500)))
+                    .isBetween(Duration.ofMillis(800), Duration.ofMillis(1200));
+        }
+    }
+
+    @Test
+    void retryAfterIsALowerBoundWhenThrottled() {
+        RetryPolicy retryPolicy = new RetryPolicy(Duration.ofMillis(200), Duration.ofSeconds(60), 0, meterRegistry);
+
+        assertThat(retryPolicy.onFailure("default/a", error(429, "Retry-After", "5"))).isEqualTo(Duration.ofSeconds(5));
+        assertThat(retryPolicy.onFailure("default/b", error(503, "retry-after", "0"))).isEqualTo(Duration.ofMillis(200));
+        assertThat(retryPolicy.onFailure("default/c", error(500, "Retry-After", "5"))).isEqualTo(Duration.ofMillis(200));
+        assertThat(meterRegistry.get("controller.reconcile.retries").tag("reason", "throttled").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("controller.reconcile.retries").tag("reason", "error").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void parsesRetryAfterAsSecondsOrHttpDate() {
+        String inOneMinute = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(1));
+        String inThePast = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).minusMinutes(1));
+
+        assertThat(RetryPolicy.retryAfter(error(429, "Retry-After", " 7 "))).isEqualTo(Duration.ofSeconds(7));
+        assertThat(RetryPolicy.retryAfter(error(429, "Retry-After", inOneMinute)))
+                .isBetween(Duration.ofSeconds(50), Duration.ofSeconds(60));
+        assertThat(RetryPolicy.retryAfter(error(429, "Retry-After", inThePast))).isEqualTo(Duration.ZERO);
+        assertThat(RetryPolicy.retryAfter(error(429, "Retry-After", "soon"))).isNull();
+        assertThat(RetryPolicy.retryAfter(error(429))).isNull();
+    }
+
+    private static ApiException error(int code) {
+        return new ApiException(code, Map.of(), null);
+    }
+
+    private static ApiException error(int code, String header, String value) {
+        return new ApiException(code, Map.of(header, List.of(value)), null);
+    }
+}
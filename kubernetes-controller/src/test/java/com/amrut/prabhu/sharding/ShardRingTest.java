@@ -0,0 +1,81 @@
+package com.amrut.prabhu.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardRingTest {
+
+    private static final int KEYS = 3000;
+
+    @Test
+    void emptyRingHasNoOwner() {
+        assertThat(new ShardRing(List.of(), 64).owner("team-a")).isNull();
+    }
+
+    @Test
+    void singleMemberOwnsEveryKey() {
+        ShardRing ring = new ShardRing(List.of("replica-a"), 64);
+
+        for (int i = 0; i < KEYS; i++) {
+            assertThat(ring.owner("namespace-" + i)).isEqualTo("replica-a");
+        }
+    }
+
+    @Test
+    void replicasAgreeWhateverOrderTheyListMembersIn() {
+        ShardRing ring = new ShardRing(List.of("replica-a", "replica-b", "replica-c"), 64);
+        ShardRing reordered = new ShardRing(List.of("replica-c", "replica-a", "replica-b", "replica-a"), 64);
+
+        assertThat(reordered.members()).containsExactly("replica-a", "replica-b", "replica-c");
+        for (int i = 0; i < KEYS; i++) {
+            assertThat(reordered.owner("namespace-" + i)).isEqualTo(ring.owner("namespace-" + i));
+        }
+    }
+
+    @Test
+    void spreadsKeysEvenly() {
+        ShardRing ring = new ShardRing(List.of("replica-a", "replica-b", "replica-c"), 64);
+
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            owned.merge(ring.owner("namespace-" + i), 1, Integer::sum);
+        }
+
+        assertThat(owned).containsOnlyKeys("replica-a", "replica-b", "replica-c");
+        assertThat(owned.values()).allSatisfy(count -> assertThat(count).isBetween(KEYS / 4, KEYS / 2));
+    }
+
+    @Test
+    void joiningMemberOnlyTakesKeys() {
+        ShardRing before = new ShardRing(List.of("replica-a", "replica-b", "replica-c"), 64);
+        ShardRing after = new ShardRing(List.of("replica-a", "replica-b", "replica-c", "replica-d"), 64);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "namespace-" + i;
+            if (!before.owner(key).equals(after.owner(key))) {
+                assertThat(after.owner(key)).isEqualTo("replica-d");
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(KEYS / 8, KEYS / 2);
+    }
+
+    @Test
+    void leavingMemberOnlyGivesUpItsOwnKeys() {
+        ShardRing before = new ShardRing(List.of("replica-a", "replica-b", "replica-c"), 64);
+        ShardRing after = new ShardRing(List.of("replica-a", "replica-c"), 64);
+
+        for (int i = 0; i < KEYS; i++) {
+            String key = "namespace-" + i;
+            if (!before.owner(key).equals("replica-b")) {
+                assertThat(after.owner(key)).isEqualTo(before.owner(key));
+            }
+        }
+    }
+}
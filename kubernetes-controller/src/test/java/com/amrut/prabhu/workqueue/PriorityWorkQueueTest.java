@@ -0,0 +1,104 @@
+package com.amrut.prabhu.workqueue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class PriorityWorkQueueTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PriorityWorkQueue<String> queue = new PriorityWorkQueue<>("test", 2, meterRegistry);
+
+    @AfterEach
+    void shutDown() {
+        queue.shutDown();
+    }
+
+    @Test
+    void servesHigherTiersFirstAndEachTierInOrder() throws Exception {
+        queue.add("resync", WorkPriority.RESYNC);
+        queue.add("drift", WorkPriority.DRIFT);
+        queue.add("change-1", WorkPriority.CHANGE);
+        queue.add("change-2", WorkPriority.CHANGE);
+
+        assertThat(queue.get()).isEqualTo("change-1");
+        assertThat(queue.get()).isEqualTo("change-2");
+        assertThat(queue.get()).isEqualTo("drift");
+        assertThat(queue.get()).isEqualTo("resync");
+    }
+
+    @Test
+    void queuesAKeyOnceAndMovesItUpOnAHigherPriority() throws Exception {
+        queue.add("a", WorkPriority.RESYNC);
+        queue.add("b", WorkPriority.DRIFT);
+        queue.add("a", WorkPriority.RESYNC);
+        queue.add("a", WorkPriority.CHANGE);
+
+        assertThat(queue.length()).isEqualTo(2);
+        assertThat(queue.get()).isEqualTo("a");
+        assertThat(meterRegistry.get("controller.workqueue.deduplicated").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void keyAddedWhileProcessedIsQueuedAgainWhenDone() throws Exception {
+        queue.add("a", WorkPriority.CHANGE);
+        assertThat(queue.get()).isEqualTo("a");
+
+        queue.add("a", WorkPriority.CHANGE);
+        assertThat(queue.length()).isZero();
+
+        queue.done("a");
+        assertThat(queue.length()).isEqualTo(1);
+        assertThat(queue.get()).isEqualTo("a");
+    }
+
+    @Test
+    void servesATierPassedOverTooOften() throws Exception {
+        queue.add("resync", WorkPriority.RESYNC);
+        for (int i = 1; i <= 3; i++) {
+            queue.add("change-" + i, WorkPriority.CHANGE);
+        }
+
+        assertThat(queue.get()).isEqualTo("change-1");
+        assertThat(queue.get()).isEqualTo("change-2");
+        assertThat(queue.get()).isEqualTo("resync");
+        assertThat(queue.get()).isEqualTo("change-3");
+    }
+
+    @Test
+    void delayedAddKeepsTheLastPriority() {
+        queue.add("a", WorkPriority.RESYNC);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            queue.done(queue.get());
+            queue.addAfter("a", Duration.ofMillis(50));
+            assertThat(queue.length()).isZero();
+
+            assertThat(queue.get()).isEqualTo("a");
+        });
+        assertThat(meterRegistry.get("controller.workqueue.adds").tag("priority", "resync").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void plainAddOfAnUnknownKeyIsAChange() throws Exception {
+        queue.add("resync", WorkPriority.RESYNC);
+        queue.add("new");
+
+        assertThat(queue.get()).isEqualTo("new");
+    }
+
+    @Test
+    void getReturnsNullOnceShutDown() {
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            Thread worker = new Thread(queue::shutDown);
+            worker.start();
+
+            assertThat(queue.get()).isNull();
+        });
+        assertThat(queue.isShuttingDown()).isTrue();
+    }
+}